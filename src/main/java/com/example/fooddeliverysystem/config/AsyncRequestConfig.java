@@ -0,0 +1,28 @@
+package com.example.fooddeliverysystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    private final long streamTimeoutSeconds;
+
+    public AsyncRequestConfig(@Value("${purchase.stream.timeout-seconds:300}") long streamTimeoutSeconds) {
+        this.streamTimeoutSeconds = streamTimeoutSeconds;
+    }
+
+    /**
+     * The NDJSON purchase stream is the only async response relying on this default, the server-sent event
+     * emitters set their own timeout. Without it the limit was whatever the servlet container picked. When it
+     * runs out the response is closed, the next write of the stream fails and the query behind it is released.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(TimeUnit.SECONDS.toMillis(streamTimeoutSeconds));
+    }
+}
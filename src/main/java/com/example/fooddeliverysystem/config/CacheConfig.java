@@ -0,0 +1,41 @@
+package com.example.fooddeliverysystem.config;
+
+import com.example.fooddeliverysystem.service.CatalogCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${catalog.cache.enabled:true}") boolean enabled,
+                                     @Value("${catalog.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${catalog.cache.expire-after-write-minutes:60}") long expireAfterWriteMinutes) {
+        if (!enabled) {
+            return new NoOpCacheManager();
+        }
+
+        // the ttl only bounds the staleness of writes made by other nodes, local writes evict right away
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .recordStats());
+        caffeineCacheManager.setAllowNullValues(false);
+        caffeineCacheManager.setCacheNames(CatalogCache.CACHE_NAMES);
+
+        // evictions take effect once the writing transaction has committed, so that a concurrent
+        // read can not put the old row back in between
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
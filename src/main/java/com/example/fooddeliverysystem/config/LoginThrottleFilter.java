@@ -0,0 +1,69 @@
+package com.example.fooddeliverysystem.config;
+
+import com.example.fooddeliverysystem.exceptions.auth.LoginThrottledException;
+import com.example.fooddeliverysystem.service.LoginThrottle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Runs in front of HTTP Basic: a throttled username or client ip is answered with 429 before the
+ * customer is read or BCrypt runs, and a request whose Basic credentials were refused counts as a
+ * failed login.
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final String BASIC = "Basic ";
+
+    private final LoginThrottle loginThrottle;
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle) {
+        this.loginThrottle = loginThrottle;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BASIC, 0, BASIC.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String username = username(header);
+        String clientIp = request.getRemoteAddr();
+        try {
+            loginThrottle.check(username, clientIp);
+        } catch (LoginThrottledException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+        if (response.getStatus() == HttpServletResponse.SC_UNAUTHORIZED) {
+            loginThrottle.recordFailure(username, clientIp);
+        }
+    }
+
+    // the username of the Basic credentials, or null when they can not be decoded
+    private static String username(String header) {
+        try {
+            String credentials = new String(Base64.getDecoder().decode(header.substring(BASIC.length()).trim()),
+                    StandardCharsets.UTF_8);
+            int colon = credentials.indexOf(':');
+            return colon < 0 ? null : credentials.substring(0, colon);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.fooddeliverysystem.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * The latency metrics, scraped from /actuator/prometheus. The controllers are timed by Spring Boot
+ * (http.server.requests, per uri template, method and status), the *ServiceImpl methods by
+ * {@link ServiceMethodMetricsInterceptor}, the security filter chain by {@link SecurityChainTimer} and
+ * BCrypt by PasswordHashingExecutor. Hikari reports its pool (hikaricp.connections.*) on its own and
+ * Hibernate its statement and entity counts (hibernate.*) once its statistics are on.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String SERVICE_PACKAGE = "com.example.fooddeliverysystem.service";
+
+    // the latency timers by the fastest time they are expected to record: a cache hit, a token check or a
+    // connection taken from a warm pool is done in microseconds, a request or a hash takes a millisecond or more
+    private static final Map<String, Duration> LATENCY_METRICS = Map.of(
+            "http.server.requests", Duration.ofMillis(1),
+            ServiceMethodMetricsInterceptor.METRIC_NAME, Duration.of(50, ChronoUnit.MICROS),
+            SecurityChainTimer.METRIC_NAME, Duration.of(50, ChronoUnit.MICROS),
+            "password.hashing", Duration.ofMillis(1),
+            "hikaricp.connections.acquire", Duration.of(50, ChronoUnit.MICROS));
+
+    /**
+     * The latency timers publish histogram buckets rather than client side percentiles: the buckets are
+     * fixed counters, so a record is an increment, and p50/p99/p999 are computed by Prometheus with
+     * histogram_quantile across every node. Bounding the expected range keeps them to a few dozen
+     * buckets per timer.
+     */
+    @Bean
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                Duration minimumExpectedValue = LATENCY_METRICS.get(id.getName());
+                if (minimumExpectedValue == null) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) minimumExpectedValue.toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    // static, so that the configuration class is not created as early as the bean post processors
+    @Bean
+    public static BeanPostProcessor serviceMethodMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceMethodMetricsPostProcessor(new ServiceMethodMetricsInterceptor(meterRegistry));
+    }
+
+    /**
+     * Hibernate only counts statements, entity loads and flushes with its statistics on. They are
+     * atomic counters; the per session summary it would also log is turned off.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateStatisticsCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.putIfAbsent(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+
+    private static class ServiceMethodMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+        ServiceMethodMetricsPostProcessor(ServiceMethodMetricsInterceptor interceptor) {
+            this.advisor = new DefaultPointcutAdvisor(new ServiceImplPointcut(), interceptor);
+            setProxyTargetClass(true);
+            // ahead of the transaction advice, so that the commit is part of the time of the call
+            setBeforeExistingAdvisors(true);
+        }
+    }
+
+    private static class ServiceImplPointcut extends StaticMethodMatcherPointcut {
+
+        ServiceImplPointcut() {
+            setClassFilter(type -> type.getName().startsWith(SERVICE_PACKAGE)
+                    && type.getSimpleName().endsWith("ServiceImpl"));
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.fooddeliverysystem.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the security filter chain into the security.filterchain timer. The start filter goes first in
+ * the chain and the end filter after the authorization check, so a request that reaches the
+ * controllers is recorded as "passed" with the time spent up to there, and one that the chain answered
+ * itself (401, 403, 429, 503) is recorded as "rejected" with the whole time it took.
+ */
+public class SecurityChainTimer {
+
+    public static final String METRIC_NAME = "security.filterchain";
+
+    private static final String STARTED_AT = SecurityChainTimer.class.getName() + ".STARTED_AT";
+    private static final String PASSED = SecurityChainTimer.class.getName() + ".PASSED";
+
+    private final Timer passed;
+    private final Timer rejected;
+
+    public SecurityChainTimer(MeterRegistry meterRegistry) {
+        this.passed = Timer.builder(METRIC_NAME).tag("outcome", "passed").register(meterRegistry);
+        this.rejected = Timer.builder(METRIC_NAME).tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    public Filter start() {
+        return (request, response, chain) -> {
+            // the error and async dispatches run the chain again, only the original request is timed
+            if (request.getDispatcherType() != DispatcherType.REQUEST) {
+                chain.doFilter(request, response);
+                return;
+            }
+            long startedAt = System.nanoTime();
+            request.setAttribute(STARTED_AT, startedAt);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                if (request.getAttribute(PASSED) == null) {
+                    rejected.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+        };
+    }
+
+    public Filter end() {
+        return (request, response, chain) -> {
+            if (request.getAttribute(STARTED_AT) instanceof Long startedAt && request.getAttribute(PASSED) == null) {
+                passed.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                request.setAttribute(PASSED, Boolean.TRUE);
+            }
+            chain.doFilter(request, response);
+        };
+    }
+}
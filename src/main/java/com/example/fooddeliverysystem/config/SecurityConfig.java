@@ -1,15 +1,28 @@
 package com.example.fooddeliverysystem.config;
 
+import com.example.fooddeliverysystem.exceptions.auth.PasswordHashingUnavailableException;
+import com.example.fooddeliverysystem.service.AccessTokenCodec;
+import com.example.fooddeliverysystem.service.LoginThrottle;
+import com.example.fooddeliverysystem.service.PasswordHashingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.session.DisableEncodeUrlFilter;
 
+import javax.servlet.http.HttpServletResponse;
 import java.time.format.DateTimeFormatter;
 
 @Configuration
@@ -22,23 +35,39 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor,
+                                           @Value("${auth.password-hashing.bcrypt-strength:10}") int strength) {
+        return passwordHashingExecutor.bounded(new BCryptPasswordEncoder(strength));
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity,
+                                                   AccessTokenCodec accessTokenCodec,
+                                                   LoginThrottle loginThrottle,
+                                                   MeterRegistry meterRegistry) throws Exception {
 
+        SecurityChainTimer securityChainTimer = new SecurityChainTimer(meterRegistry);
+
+        // bearer access tokens are checked first, HTTP Basic stays for the clients that have not moved to them
         return httpSecurity
+                .addFilterBefore(securityChainTimer.start(), DisableEncodeUrlFilter.class)
+                .addFilterAfter(securityChainTimer.end(), FilterSecurityInterceptor.class)
+                .addFilterBefore(new AccessTokenAuthenticationFilter(accessTokenCodec), BasicAuthenticationFilter.class)
+                .addFilterBefore(new LoginThrottleFilter(loginThrottle), BasicAuthenticationFilter.class)
                 .httpBasic()
+                .authenticationEntryPoint(basicAuthenticationEntryPoint())
                 .and()
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 .and()
                 .authorizeRequests()
                 .mvcMatchers(HttpMethod.GET, "/spring-security-rest/api/v2/api-docs").permitAll()
+                .mvcMatchers("/actuator/**").hasAuthority("ADMIN")
                 .mvcMatchers(HttpMethod.POST, "/api/v1/customer").permitAll()
+                .mvcMatchers(HttpMethod.POST, "/api/v1/auth/login", "/api/v1/auth/refresh", "/api/v1/auth/logout")
+                .permitAll()
                 .mvcMatchers(HttpMethod.POST, "/api/v1/purchase").hasAnyAuthority("USER", "ADMIN")
+                .mvcMatchers(HttpMethod.POST, "/api/v1/purchase/order").hasAnyAuthority("USER", "ADMIN")
                 .mvcMatchers(HttpMethod.GET, "/api/v1/**").authenticated()
                 .mvcMatchers(HttpMethod.POST, "/api/v1/**").hasAuthority("ADMIN")
                 .mvcMatchers(HttpMethod.DELETE, "/api/v1/**").hasAuthority("ADMIN")
@@ -47,4 +76,18 @@ public class SecurityConfig {
                 .csrf().disable()
                 .build();
     }
+
+    // a saturated password hashing pool is answered with 503 and not with a 401 credentials challenge
+    private static AuthenticationEntryPoint basicAuthenticationEntryPoint() {
+        BasicAuthenticationEntryPoint basicEntryPoint = new BasicAuthenticationEntryPoint();
+        basicEntryPoint.setRealmName("Realm");
+        return (request, response, authException) -> {
+            if (authException instanceof PasswordHashingUnavailableException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, authException.getMessage());
+                return;
+            }
+            basicEntryPoint.commence(request, response, authException);
+        };
+    }
 }
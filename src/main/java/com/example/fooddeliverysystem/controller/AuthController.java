@@ -0,0 +1,45 @@
+package com.example.fooddeliverysystem.controller;
+
+import com.example.fooddeliverysystem.dto.AuthTokens;
+import com.example.fooddeliverysystem.dto.LoginRequestDto;
+import com.example.fooddeliverysystem.dto.RefreshTokenRequestDto;
+import com.example.fooddeliverysystem.service.AuthService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+public class AuthController {
+
+    private final AuthService authService;
+
+    public AuthController(AuthService authService) {
+        this.authService = authService;
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<AuthTokens> login(@RequestBody LoginRequestDto loginRequestDto, HttpServletRequest request) {
+        AuthTokens tokens = authService.login(loginRequestDto.getUsername(), loginRequestDto.getPassword(),
+                request.getRemoteAddr());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(tokens);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthTokens> refresh(@RequestBody RefreshTokenRequestDto refreshTokenRequestDto) {
+        AuthTokens tokens = authService.refresh(refreshTokenRequestDto.getRefreshToken());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(tokens);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@RequestBody RefreshTokenRequestDto refreshTokenRequestDto) {
+        authService.logout(refreshTokenRequestDto.getRefreshToken());
+        return ResponseEntity.ok().body("The refresh token has been revoked.");
+    }
+}
@@ -29,7 +29,6 @@ public class CityController {
     @GetMapping("/id/{id_no}")
     public ResponseEntity<City> getCityById(@PathVariable("id_no") Long cityId) {
         City city = cityService.getCityById(cityId);
-        System.out.println(city.getRestaurants());
         return ResponseEntity.ok().body(city);
 
     }
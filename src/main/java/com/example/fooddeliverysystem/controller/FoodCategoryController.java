@@ -7,7 +7,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 @RestController
@@ -60,8 +59,7 @@ public class FoodCategoryController {
 
     @PutMapping("/{food_category_id}")
     public ResponseEntity<String> updateFoodCategory(@PathVariable("food_category_id") Long foodCategoryId,
-                                                     @RequestBody @Valid FoodCategory foodCategory)
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
+                                                     @RequestBody FoodCategory foodCategory) {
 
         foodCategoryService.updateFoodCategory(foodCategoryId, foodCategory);
         return ResponseEntity.ok().body("The food category with the id: " + foodCategoryId + " was updated.");
@@ -1,5 +1,6 @@
 package com.example.fooddeliverysystem.controller;
 
+import com.example.fooddeliverysystem.dto.MenuItemSearchHit;
 import com.example.fooddeliverysystem.model.MenuItem;
 import com.example.fooddeliverysystem.service.MenuItemService;
 import org.apache.coyote.Response;
@@ -9,7 +10,6 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.awt.*;
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 @RestController
@@ -36,6 +36,15 @@ public class MenuItemController {
         return ResponseEntity.ok(menuItems);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<MenuItemSearchHit>> searchMenuItems(@RequestParam("q") String query,
+                                                                   @RequestParam(required = false) Long restaurantId,
+                                                                   @RequestParam(required = false) Long cityId,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        List<MenuItemSearchHit> hits = menuItemService.searchMenuItems(query, restaurantId, cityId, limit);
+        return ResponseEntity.ok(hits);
+    }
+
     @GetMapping("/id/{menuitem_id}")
     public ResponseEntity<MenuItem> getMenuItemById(@PathVariable("menuitem_id") Long menuitemId) {
         MenuItem menuItem = menuItemService.getMenuItemById(menuitemId);
@@ -67,8 +76,7 @@ public class MenuItemController {
 
     @PutMapping("/{menuitem_id}")
     public ResponseEntity<String> updateMenuItem(@PathVariable("menuitem_id") Long menuitemId,
-                                                 @RequestBody @Valid MenuItem menuItem)
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
+                                                 @RequestBody MenuItem menuItem) {
 
         menuItemService.updateMenuItem(menuitemId, menuItem);
         return ResponseEntity.ok().body("The menu item with the id: " + menuitemId + " has been updated.");
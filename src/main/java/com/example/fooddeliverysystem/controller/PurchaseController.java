@@ -1,23 +1,54 @@
 package com.example.fooddeliverysystem.controller;
 
 
+import com.example.fooddeliverysystem.dto.DeliveryConfirmationDto;
+import com.example.fooddeliverysystem.dto.DeliveryConfirmationResult;
 import com.example.fooddeliverysystem.dto.PurchaseDto;
+import com.example.fooddeliverysystem.dto.PurchaseFilter;
+import com.example.fooddeliverysystem.dto.PurchaseIntakeReceipt;
+import com.example.fooddeliverysystem.dto.PurchasePage;
+import com.example.fooddeliverysystem.dto.PurchasePlacement;
+import com.example.fooddeliverysystem.dto.PurchaseRequestDto;
+import com.example.fooddeliverysystem.dto.PurchaseTrackingEvent;
 import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.service.PurchaseIntakeQueue;
 import com.example.fooddeliverysystem.service.PurchaseService;
+import com.example.fooddeliverysystem.service.PurchaseTrackingHub;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.security.Principal;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/purchase")
 public class PurchaseController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final PurchaseService purchaseService;
+    private final PurchaseIntakeQueue purchaseIntakeQueue;
+    private final PurchaseTrackingHub purchaseTrackingHub;
+    private final ObjectMapper objectMapper;
 
-    public PurchaseController(PurchaseService purchaseService) {
+    public PurchaseController(PurchaseService purchaseService, PurchaseIntakeQueue purchaseIntakeQueue,
+                              PurchaseTrackingHub purchaseTrackingHub, ObjectMapper objectMapper) {
         this.purchaseService = purchaseService;
+        this.purchaseIntakeQueue = purchaseIntakeQueue;
+        this.purchaseTrackingHub = purchaseTrackingHub;
+        this.objectMapper = objectMapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @GetMapping
@@ -26,16 +57,100 @@ public class PurchaseController {
         return ResponseEntity.ok().body(purchases);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<PurchasePage> getPurchasesPage(@RequestParam(required = false) Long restaurantId,
+                                                         @RequestParam(required = false) Long customerId,
+                                                         @RequestParam(required = false) String from,
+                                                         @RequestParam(required = false) String to,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "50") int size) {
+        PurchaseFilter filter = purchaseService.buildPurchaseFilter(restaurantId, customerId, from, to);
+        PurchasePage page = purchaseService.getPurchasesPage(filter, cursor, size);
+        return ResponseEntity.ok().body(page);
+    }
+
+    // written on an async thread and cut after purchase.stream.timeout-seconds (5 minutes by default), a longer
+    // export walks GET /page with its cursor instead
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamPurchases(@RequestParam(required = false) Long restaurantId,
+                                                                 @RequestParam(required = false) Long customerId,
+                                                                 @RequestParam(required = false) String from,
+                                                                 @RequestParam(required = false) String to) {
+        PurchaseFilter filter = purchaseService.buildPurchaseFilter(restaurantId, customerId, from, to);
+
+        StreamingResponseBody body = outputStream -> purchaseService.forEachPurchase(filter, purchase -> {
+            try {
+                objectMapper.writeValue(outputStream, purchase);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/id/{purchase_id}")
     public ResponseEntity<Purchase> getPurchaseById(@PathVariable("purchase_id") Long purchaseId) {
         Purchase purchase = purchaseService.getPurchaseById(purchaseId);
         return ResponseEntity.ok().body(purchase);
     }
 
+    // server-sent events instead of polling GET /id/{purchase_id}, starting with the current state
+    @GetMapping(value = "/id/{purchase_id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter trackPurchase(@PathVariable("purchase_id") Long purchaseId) {
+        Purchase purchase = purchaseService.getPurchaseById(purchaseId);
+        return purchaseTrackingHub.subscribeToPurchase(purchaseId, PurchaseTrackingEvent.of(purchase));
+    }
+
+    @GetMapping(value = "/restaurant/{restaurant_id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter trackRestaurantPurchases(@PathVariable("restaurant_id") Long restaurantId) {
+        return purchaseTrackingHub.subscribeToRestaurant(restaurantId);
+    }
+
+    @GetMapping("/intake/{tracking_id}")
+    public ResponseEntity<PurchaseIntakeReceipt> getIntakeReceipt(@PathVariable("tracking_id") String trackingId) {
+        PurchaseIntakeReceipt receipt = purchaseService.getIntakeReceipt(trackingId);
+        return ResponseEntity.ok().body(receipt);
+    }
+
     @PostMapping
-    public ResponseEntity<String> placeNewPurchase(@RequestBody @Valid PurchaseDto purchaseDto) {
-        purchaseService.addPurchase(purchaseDto);
-        return ResponseEntity.ok().body("The purchase has been successfully added to the database.");
+    public ResponseEntity<String> placeNewPurchase(@RequestBody @Valid PurchaseDto purchaseDto,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                                   String idempotencyKey) {
+        PurchasePlacement placement = purchaseIntakeQueue.isEnabled()
+                ? purchaseService.acceptPurchase(purchaseDto, idempotencyKey)
+                : purchaseService.addPurchase(purchaseDto, idempotencyKey);
+        return placementResponse(placement);
+    }
+
+    @PostMapping("/order")
+    public ResponseEntity<String> placeNewOrder(@RequestBody @Valid PurchaseRequestDto purchaseRequestDto,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+                                                String idempotencyKey,
+                                                Principal principal) {
+        PurchasePlacement placement = purchaseIntakeQueue.isEnabled()
+                ? purchaseService.acceptPurchase(purchaseRequestDto, principal.getName(), idempotencyKey)
+                : purchaseService.addPurchase(purchaseRequestDto, principal.getName(), idempotencyKey);
+        return placementResponse(placement);
+    }
+
+    private static ResponseEntity<String> placementResponse(PurchasePlacement placement) {
+        if (placement.getTrackingId() != null) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/purchase/intake/" + placement.getTrackingId()))
+                    .header(IDEMPOTENT_REPLAYED, String.valueOf(placement.isReplayed()))
+                    .body("The purchase has been accepted with the tracking id " + placement.getTrackingId() + ".");
+        }
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(placement.isReplayed()))
+                .body("The purchase has been successfully added to the database.");
+    }
+
+    @PutMapping("/delivered")
+    public ResponseEntity<List<DeliveryConfirmationResult>> confirmDeliveries(
+            @RequestBody List<DeliveryConfirmationDto> deliveryConfirmations) {
+        List<DeliveryConfirmationResult> results = purchaseService.confirmDeliveries(deliveryConfirmations);
+        return ResponseEntity.ok().body(results);
     }
 
     @PutMapping("/{purchase_id}")
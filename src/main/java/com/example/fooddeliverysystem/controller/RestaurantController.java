@@ -1,12 +1,19 @@
 package com.example.fooddeliverysystem.controller;
 
+import com.example.fooddeliverysystem.dto.MenuImportReport;
+import com.example.fooddeliverysystem.dto.SerializedRestaurantMenu;
 import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.service.MenuImportService;
 import com.example.fooddeliverysystem.service.RestaurantService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 
@@ -14,10 +21,14 @@ import java.util.List;
 @RequestMapping("/api/v1/restaurant")
 public class RestaurantController {
 
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final RestaurantService restaurantService;
+    private final MenuImportService menuImportService;
 
-    public RestaurantController(RestaurantService restaurantService) {
+    public RestaurantController(RestaurantService restaurantService, MenuImportService menuImportService) {
         this.restaurantService = restaurantService;
+        this.menuImportService = menuImportService;
     }
 
     @GetMapping
@@ -39,6 +50,47 @@ public class RestaurantController {
         return ResponseEntity.ok().body(restaurant);
     }
 
+    // the menu is served as the cached json bytes; a matching If-None-Match only gets the ETag back
+    @GetMapping("/{restaurant_id}/menu")
+    public ResponseEntity<byte[]> getRestaurantMenu(@PathVariable("restaurant_id") Long restaurantId,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                            required = false) String ifNoneMatch) {
+        SerializedRestaurantMenu menu = restaurantService.getRestaurantMenu(restaurantId);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (matches(ifNoneMatch, menu.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(menu.getEtag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(menu.getEtag()).cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON).body(menu.getJson());
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the body is streamed row by row into the import, never read whole
+    @PostMapping(value = "/{restaurant_id}/menu", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MenuImportReport> importRestaurantMenuJson(@PathVariable("restaurant_id") Long restaurantId,
+                                                                     InputStream body) {
+        MenuImportReport report = menuImportService.importRestaurantMenuJson(restaurantId, body);
+        return ResponseEntity.ok().body(report);
+    }
+
+    @PostMapping(value = "/{restaurant_id}/menu", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<MenuImportReport> importRestaurantMenuCsv(@PathVariable("restaurant_id") Long restaurantId,
+                                                                    InputStream body) {
+        MenuImportReport report = menuImportService.importRestaurantMenuCsv(restaurantId, body);
+        return ResponseEntity.ok().body(report);
+    }
 
     @PostMapping
     public ResponseEntity<String> addNewRestaurant(@RequestBody @Valid Restaurant restaurant) {
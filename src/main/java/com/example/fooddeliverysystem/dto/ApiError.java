@@ -0,0 +1,41 @@
+package com.example.fooddeliverysystem.dto;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+
+/**
+ * The body of every error answered by GlobalExceptionHandler, e.g.
+ * {"status":404,"error":"Not Found","message":"The city with the id: 7 has not been found.",
+ * "timestamp":"2022-06-08T12:00:00Z"}
+ */
+public class ApiError {
+
+    private final int status;
+    private final String error;
+    private final String message;
+    private final Instant timestamp;
+
+    public ApiError(HttpStatus status, String message) {
+        this.status = status.value();
+        this.error = status.getReasonPhrase();
+        this.message = message;
+        this.timestamp = Instant.now();
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+}
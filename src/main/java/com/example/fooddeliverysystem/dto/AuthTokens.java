@@ -0,0 +1,41 @@
+package com.example.fooddeliverysystem.dto;
+
+/**
+ * The answer of a login or a refresh: the access token goes in the Authorization: Bearer header of
+ * the API calls until it expires, the refresh token is exchanged once for the next pair.
+ */
+public class AuthTokens {
+
+    private final String accessToken;
+    private final String tokenType = "Bearer";
+    private final long expiresIn;
+    private final String refreshToken;
+    private final long refreshExpiresIn;
+
+    public AuthTokens(String accessToken, long expiresIn, String refreshToken, long refreshExpiresIn) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
+        this.refreshExpiresIn = refreshExpiresIn;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public long getRefreshExpiresIn() {
+        return refreshExpiresIn;
+    }
+}
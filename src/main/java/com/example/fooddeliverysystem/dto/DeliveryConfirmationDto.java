@@ -0,0 +1,36 @@
+package com.example.fooddeliverysystem.dto;
+
+import lombok.Builder;
+
+@Builder
+public class DeliveryConfirmationDto {
+
+    private Long purchaseId;
+
+    // yyyy-MM-dd HH:mm, like the single PUT /api/v1/purchase/{id}
+    private String deliveredAt;
+
+    public DeliveryConfirmationDto() {
+    }
+
+    public DeliveryConfirmationDto(Long purchaseId, String deliveredAt) {
+        this.purchaseId = purchaseId;
+        this.deliveredAt = deliveredAt;
+    }
+
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public void setPurchaseId(Long purchaseId) {
+        this.purchaseId = purchaseId;
+    }
+
+    public String getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(String deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.fooddeliverysystem.dto;
+
+public class DeliveryConfirmationResult {
+
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        ALREADY_DELIVERED,
+        INVALID
+    }
+
+    private final Long purchaseId;
+    private final Status status;
+
+    public DeliveryConfirmationResult(Long purchaseId, Status status) {
+        this.purchaseId = purchaseId;
+        this.status = status;
+    }
+
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.fooddeliverysystem.dto;
+
+/**
+ * A stored purchase placed with an Idempotency-Key, with the hash of the request that placed it.
+ */
+public class IdempotentPurchase {
+
+    private final Long purchaseId;
+    private final String requestHash;
+
+    public IdempotentPurchase(Long purchaseId, String requestHash) {
+        this.purchaseId = purchaseId;
+        this.requestHash = requestHash;
+    }
+
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.fooddeliverysystem.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk menu import: how many menu items and food categories were created, and why the
+ * other rows were rejected (only the first MAX_ERRORS reasons are listed).
+ */
+public class MenuImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private final Long restaurantId;
+    private long importedMenuItems;
+    private long createdFoodCategories;
+    private long rejectedRows;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public MenuImportReport(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public void imported(int menuItems) {
+        importedMenuItems += menuItems;
+    }
+
+    public void createdFoodCategories(int foodCategories) {
+        createdFoodCategories += foodCategories;
+    }
+
+    public void rejected(long row, String message) {
+        rejectedRows++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public long getImportedMenuItems() {
+        return importedMenuItems;
+    }
+
+    public long getCreatedFoodCategories() {
+        return createdFoodCategories;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public static class RowError {
+
+        private final long row;
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.fooddeliverysystem.dto;
+
+/**
+ * One menu item of a bulk menu import as it was read, before validation. The row numbers start at
+ * 1 with the first item (the csv header is not counted).
+ */
+public class MenuImportRow {
+
+    private final long row;
+    private final String foodCategoryName;
+    private final String name;
+    private final String ingredients;
+    private final String price;
+    private final String timeToCook;
+
+    public MenuImportRow(long row, String foodCategoryName, String name, String ingredients, String price,
+                         String timeToCook) {
+        this.row = row;
+        this.foodCategoryName = foodCategoryName;
+        this.name = name;
+        this.ingredients = ingredients;
+        this.price = price;
+        this.timeToCook = timeToCook;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public String getFoodCategoryName() {
+        return foodCategoryName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getIngredients() {
+        return ingredients;
+    }
+
+    public String getPrice() {
+        return price;
+    }
+
+    public String getTimeToCook() {
+        return timeToCook;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.fooddeliverysystem.dto;
+
+/**
+ * A menu item matching a search, with its relevance score (higher is better).
+ */
+public class MenuItemSearchHit {
+
+    private final MenuItemSearchRow menuItem;
+    private final double score;
+
+    public MenuItemSearchHit(MenuItemSearchRow menuItem, double score) {
+        this.menuItem = menuItem;
+        this.score = score;
+    }
+
+    public MenuItemSearchRow getMenuItem() {
+        return menuItem;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
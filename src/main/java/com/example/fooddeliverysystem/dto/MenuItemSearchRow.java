@@ -0,0 +1,57 @@
+package com.example.fooddeliverysystem.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A menu item as it is kept in the search index, with the ids of its food category, restaurant and
+ * city the searches can be scoped to.
+ */
+public class MenuItemSearchRow {
+
+    private final Long menuItemId;
+    private final String name;
+    private final String ingredients;
+    private final BigDecimal price;
+    private final Long foodCategoryId;
+    private final Long restaurantId;
+    private final Long cityId;
+
+    public MenuItemSearchRow(Long menuItemId, String name, String ingredients, BigDecimal price,
+                             Long foodCategoryId, Long restaurantId, Long cityId) {
+        this.menuItemId = menuItemId;
+        this.name = name;
+        this.ingredients = ingredients;
+        this.price = price;
+        this.foodCategoryId = foodCategoryId;
+        this.restaurantId = restaurantId;
+        this.cityId = cityId;
+    }
+
+    public Long getMenuItemId() {
+        return menuItemId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getIngredients() {
+        return ingredients;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Long getFoodCategoryId() {
+        return foodCategoryId;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public Long getCityId() {
+        return cityId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.fooddeliverysystem.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * First delivery of a purchase, published on the application event bus so the kitchen load estimate
+ * learns how far ahead or behind the restaurant is. A corrected delivery time is not a new delivery and
+ * is not published.
+ */
+public class PurchaseDeliveredEvent {
+
+    private final Long restaurantId;
+    private final LocalDateTime estimatedDeliveryTime;
+    private final LocalDateTime actualDeliveryTime;
+
+    public PurchaseDeliveredEvent(Long restaurantId, LocalDateTime estimatedDeliveryTime,
+                                  LocalDateTime actualDeliveryTime) {
+        this.restaurantId = restaurantId;
+        this.estimatedDeliveryTime = estimatedDeliveryTime;
+        this.actualDeliveryTime = actualDeliveryTime;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public LocalDateTime getEstimatedDeliveryTime() {
+        return estimatedDeliveryTime;
+    }
+
+    public LocalDateTime getActualDeliveryTime() {
+        return actualDeliveryTime;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.fooddeliverysystem.dto;
+
+import java.time.LocalDateTime;
+
+public class PurchaseFilter {
+
+    private final Long restaurantId;
+    private final Long customerId;
+    private final LocalDateTime placedFrom;
+    private final LocalDateTime placedTo;
+
+    public PurchaseFilter(Long restaurantId, Long customerId, LocalDateTime placedFrom, LocalDateTime placedTo) {
+        this.restaurantId = restaurantId;
+        this.customerId = customerId;
+        this.placedFrom = placedFrom;
+        this.placedTo = placedTo;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDateTime getPlacedFrom() {
+        return placedFrom;
+    }
+
+    public LocalDateTime getPlacedTo() {
+        return placedTo;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.fooddeliverysystem.dto;
+
+public class PurchaseIntakeReceipt {
+
+    public enum Status {
+        QUEUED,
+        PERSISTED,
+        FAILED
+    }
+
+    private final String trackingId;
+    private final Status status;
+    private final Long purchaseId;
+
+    public PurchaseIntakeReceipt(String trackingId, Status status, Long purchaseId) {
+        this.trackingId = trackingId;
+        this.status = status;
+        this.purchaseId = purchaseId;
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+}
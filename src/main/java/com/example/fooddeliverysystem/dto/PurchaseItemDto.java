@@ -0,0 +1,43 @@
+package com.example.fooddeliverysystem.dto;
+
+import lombok.Builder;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Builder
+public class PurchaseItemDto {
+
+    @NotNull(message = "The menu item id can not be null.")
+    private Long menuItemId;
+
+    @NotNull(message = "The quantity can not be null.")
+    @Min(value = 1, message = "The quantity must be at least 1.")
+    @Max(value = 100, message = "The quantity must be at most 100.")
+    private Integer quantity;
+
+    public PurchaseItemDto() {
+    }
+
+    public PurchaseItemDto(Long menuItemId, Integer quantity) {
+        this.menuItemId = menuItemId;
+        this.quantity = quantity;
+    }
+
+    public Long getMenuItemId() {
+        return menuItemId;
+    }
+
+    public void setMenuItemId(Long menuItemId) {
+        this.menuItemId = menuItemId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.fooddeliverysystem.dto;
+
+import com.example.fooddeliverysystem.model.Purchase;
+
+import java.util.List;
+
+public class PurchasePage {
+
+    private final List<Purchase> purchases;
+    // null when this is the last page
+    private final String nextCursor;
+
+    public PurchasePage(List<Purchase> purchases, String nextCursor) {
+        this.purchases = purchases;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Purchase> getPurchases() {
+        return purchases;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
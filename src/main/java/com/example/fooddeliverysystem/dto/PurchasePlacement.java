@@ -0,0 +1,42 @@
+package com.example.fooddeliverysystem.dto;
+
+/**
+ * Outcome of placing a purchase: the id of the stored purchase, or the tracking id when it went
+ * through the asynchronous intake. Replayed outcomes answer a repeated Idempotency-Key.
+ */
+public class PurchasePlacement {
+
+    private final Long purchaseId;
+    private final String trackingId;
+    private final boolean replayed;
+
+    public PurchasePlacement(Long purchaseId, String trackingId, boolean replayed) {
+        this.purchaseId = purchaseId;
+        this.trackingId = trackingId;
+        this.replayed = replayed;
+    }
+
+    public static PurchasePlacement stored(Long purchaseId) {
+        return new PurchasePlacement(purchaseId, null, false);
+    }
+
+    public static PurchasePlacement accepted(String trackingId) {
+        return new PurchasePlacement(null, trackingId, false);
+    }
+
+    public PurchasePlacement asReplay() {
+        return replayed ? this : new PurchasePlacement(purchaseId, trackingId, true);
+    }
+
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public boolean isReplayed() {
+        return replayed;
+    }
+}
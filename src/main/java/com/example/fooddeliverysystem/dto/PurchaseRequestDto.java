@@ -0,0 +1,58 @@
+package com.example.fooddeliverysystem.dto;
+
+import lombok.Builder;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Compact purchase request: only ids and quantities travel over the wire. The customer is the
+ * authenticated principal and prices / times to cook are resolved on the server.
+ */
+@Builder
+public class PurchaseRequestDto {
+
+    @NotNull(message = "The restaurant id can not be null.")
+    private Long restaurantId;
+
+    // optional, the server time is used when missing
+    private String purchasePlacedTime;
+
+    @NotEmpty(message = "The items field can not be empty.")
+    private List<@Valid PurchaseItemDto> items;
+
+    public PurchaseRequestDto() {
+    }
+
+    public PurchaseRequestDto(Long restaurantId, String purchasePlacedTime, List<PurchaseItemDto> items) {
+        this.restaurantId = restaurantId;
+        this.purchasePlacedTime = purchasePlacedTime;
+        this.items = items;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public String getPurchasePlacedTime() {
+        return purchasePlacedTime;
+    }
+
+    public void setPurchasePlacedTime(String purchasePlacedTime) {
+        this.purchasePlacedTime = purchasePlacedTime;
+    }
+
+    public List<PurchaseItemDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PurchaseItemDto> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.fooddeliverysystem.dto;
+
+import com.example.fooddeliverysystem.model.Purchase;
+
+import java.time.LocalDateTime;
+
+/**
+ * State / ETA change of a purchase, published on the application event bus and pushed to the
+ * clients tracking the purchase or its restaurant.
+ */
+public class PurchaseTrackingEvent {
+
+    public enum Status {
+        PLACED,
+        DELIVERED
+    }
+
+    private final Long purchaseId;
+    private final Long restaurantId;
+    private final Status status;
+    private final LocalDateTime estimatedDeliveryTime;
+    private final LocalDateTime actualDeliveryTime;
+
+    public PurchaseTrackingEvent(Long purchaseId, Long restaurantId, Status status,
+                                 LocalDateTime estimatedDeliveryTime, LocalDateTime actualDeliveryTime) {
+        this.purchaseId = purchaseId;
+        this.restaurantId = restaurantId;
+        this.status = status;
+        this.estimatedDeliveryTime = estimatedDeliveryTime;
+        this.actualDeliveryTime = actualDeliveryTime;
+    }
+
+    public static PurchaseTrackingEvent of(Purchase purchase) {
+        return new PurchaseTrackingEvent(
+                purchase.getPurchaseId(),
+                purchase.getRestaurant() == null ? null : purchase.getRestaurant().getRestaurantId(),
+                purchase.getActualDeliveryTime() == null ? Status.PLACED : Status.DELIVERED,
+                purchase.getEstimatedDeliveryTime(),
+                purchase.getActualDeliveryTime());
+    }
+
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getEstimatedDeliveryTime() {
+        return estimatedDeliveryTime;
+    }
+
+    public LocalDateTime getActualDeliveryTime() {
+        return actualDeliveryTime;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.fooddeliverysystem.dto;
+
+public class RefreshTokenRequestDto {
+
+    private String refreshToken;
+
+    public RefreshTokenRequestDto() {
+    }
+
+    public RefreshTokenRequestDto(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
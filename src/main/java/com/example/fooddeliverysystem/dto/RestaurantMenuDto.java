@@ -0,0 +1,100 @@
+package com.example.fooddeliverysystem.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Whole menu of a restaurant: its food categories, each with its menu items.
+ */
+public class RestaurantMenuDto {
+
+    private final Long restaurantId;
+    private final String name;
+    private final String address;
+    private final List<FoodCategoryEntry> foodCategories = new ArrayList<>();
+
+    public RestaurantMenuDto(Long restaurantId, String name, String address) {
+        this.restaurantId = restaurantId;
+        this.name = name;
+        this.address = address;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public List<FoodCategoryEntry> getFoodCategories() {
+        return foodCategories;
+    }
+
+    public static class FoodCategoryEntry {
+
+        private final Long foodCategoryId;
+        private final String foodCategoryName;
+        private final List<MenuItemEntry> menuItems = new ArrayList<>();
+
+        public FoodCategoryEntry(Long foodCategoryId, String foodCategoryName) {
+            this.foodCategoryId = foodCategoryId;
+            this.foodCategoryName = foodCategoryName;
+        }
+
+        public Long getFoodCategoryId() {
+            return foodCategoryId;
+        }
+
+        public String getFoodCategoryName() {
+            return foodCategoryName;
+        }
+
+        public List<MenuItemEntry> getMenuItems() {
+            return menuItems;
+        }
+    }
+
+    public static class MenuItemEntry {
+
+        private final Long menuItemId;
+        private final String name;
+        private final String ingredients;
+        private final BigDecimal price;
+        private final BigDecimal timeToCook;
+
+        public MenuItemEntry(Long menuItemId, String name, String ingredients, BigDecimal price,
+                             BigDecimal timeToCook) {
+            this.menuItemId = menuItemId;
+            this.name = name;
+            this.ingredients = ingredients;
+            this.price = price;
+            this.timeToCook = timeToCook;
+        }
+
+        public Long getMenuItemId() {
+            return menuItemId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getIngredients() {
+            return ingredients;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public BigDecimal getTimeToCook() {
+            return timeToCook;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.fooddeliverysystem.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the restaurant menu query: the restaurant, one of its food categories (null when it
+ * has none) and one of the category's menu items (null when the category is empty).
+ */
+public class RestaurantMenuRow {
+
+    private final Long restaurantId;
+    private final String restaurantName;
+    private final String restaurantAddress;
+    private final Long foodCategoryId;
+    private final String foodCategoryName;
+    private final Long menuItemId;
+    private final String menuItemName;
+    private final String ingredients;
+    private final BigDecimal price;
+    private final BigDecimal timeToCook;
+
+    public RestaurantMenuRow(Long restaurantId, String restaurantName, String restaurantAddress,
+                             Long foodCategoryId, String foodCategoryName, Long menuItemId, String menuItemName,
+                             String ingredients, BigDecimal price, BigDecimal timeToCook) {
+        this.restaurantId = restaurantId;
+        this.restaurantName = restaurantName;
+        this.restaurantAddress = restaurantAddress;
+        this.foodCategoryId = foodCategoryId;
+        this.foodCategoryName = foodCategoryName;
+        this.menuItemId = menuItemId;
+        this.menuItemName = menuItemName;
+        this.ingredients = ingredients;
+        this.price = price;
+        this.timeToCook = timeToCook;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public String getRestaurantName() {
+        return restaurantName;
+    }
+
+    public String getRestaurantAddress() {
+        return restaurantAddress;
+    }
+
+    public Long getFoodCategoryId() {
+        return foodCategoryId;
+    }
+
+    public String getFoodCategoryName() {
+        return foodCategoryName;
+    }
+
+    public Long getMenuItemId() {
+        return menuItemId;
+    }
+
+    public String getMenuItemName() {
+        return menuItemName;
+    }
+
+    public String getIngredients() {
+        return ingredients;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public BigDecimal getTimeToCook() {
+        return timeToCook;
+    }
+}
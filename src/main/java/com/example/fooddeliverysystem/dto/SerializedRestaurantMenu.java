@@ -0,0 +1,24 @@
+package com.example.fooddeliverysystem.dto;
+
+/**
+ * JSON bytes of a {@link RestaurantMenuDto} with the strong ETag of exactly those bytes, cached as
+ * they are so that repeated reads skip both the db and Jackson.
+ */
+public class SerializedRestaurantMenu {
+
+    private final byte[] json;
+    private final String etag;
+
+    public SerializedRestaurantMenu(byte[] json, String etag) {
+        this.json = json;
+        this.etag = etag;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.fooddeliverysystem.exceptions;
+
+/**
+ * Base of the expected outcomes of a request (a missing id, a duplicate name) that are answered with a
+ * 4xx and never logged. They carry no stack trace and no suppressed exceptions, so throwing one costs
+ * about as much as building its message; filling in the stack of a request thread is the bulk of the
+ * price of an ordinary exception.
+ */
+public abstract class StacklessException extends RuntimeException {
+
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,5 +1,11 @@
 package com.example.fooddeliverysystem.exceptions.advice;
 
+import com.example.fooddeliverysystem.dto.ApiError;
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+import com.example.fooddeliverysystem.exceptions.auth.InvalidCredentialsException;
+import com.example.fooddeliverysystem.exceptions.auth.InvalidRefreshTokenException;
+import com.example.fooddeliverysystem.exceptions.auth.LoginThrottledException;
+import com.example.fooddeliverysystem.exceptions.auth.PasswordHashingUnavailableException;
 import com.example.fooddeliverysystem.exceptions.city.CityAlreadyExistsException;
 import com.example.fooddeliverysystem.exceptions.city.CityNotFoundByIdException;
 import com.example.fooddeliverysystem.exceptions.city.CityNotFoundByNameException;
@@ -12,143 +18,120 @@ import com.example.fooddeliverysystem.exceptions.foodcategory.FoodCategoryNotFou
 import com.example.fooddeliverysystem.exceptions.menuitem.MenuItemAlreadyExistsException;
 import com.example.fooddeliverysystem.exceptions.menuitem.MenuItemNotFoundByIdException;
 import com.example.fooddeliverysystem.exceptions.purchase.IncorrectDateFormatException;
+import com.example.fooddeliverysystem.exceptions.purchase.InvalidIdempotencyKeyException;
+import com.example.fooddeliverysystem.exceptions.purchase.InvalidPurchaseCursorException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIdempotencyKeyInUseException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIdempotencyKeyReusedException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIntakeNotFoundByTrackingIdException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIntakeQueueFullException;
 import com.example.fooddeliverysystem.exceptions.purchase.PurchaseNotFoundByIdException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseTrackingUnavailableException;
+import com.example.fooddeliverysystem.exceptions.purchase.TooManyDeliveryConfirmationsException;
+import com.example.fooddeliverysystem.exceptions.restaurant.InvalidMenuDocumentException;
 import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantAlreadyExistsException;
 import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantNotFoundByIdException;
 import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantNotFoundByNameException;
 import com.example.fooddeliverysystem.exceptions.role.RoleAlreadyExistsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import java.time.LocalDateTime;
-
+/**
+ * Maps the exceptions of the controllers to a status code and an ApiError json body. The not found and
+ * already exists family is stackless (see StacklessException), so that traffic hitting missing ids costs
+ * about as much as traffic hitting existing ones.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
-    // CITY Exception Handlers
-    @ExceptionHandler({CityNotFoundByNameException.class})
-    public ResponseEntity<String> handle(CityNotFoundByNameException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    // NOT FOUND Exception Handlers
+    @ExceptionHandler({CityNotFoundByIdException.class, CityNotFoundByNameException.class,
+            RestaurantNotFoundByIdException.class, RestaurantNotFoundByNameException.class,
+            FoodCategoryNotFoundByIdException.class, FoodCategoryNotFoundByNameException.class,
+            MenuItemNotFoundByIdException.class,
+            PurchaseNotFoundByIdException.class, PurchaseIntakeNotFoundByTrackingIdException.class,
+            CustomerNotFoundByIdException.class, CustomerNotFoundByNameException.class})
+    public ResponseEntity<ApiError> handleNotFound(StacklessException e) {
+        return error(HttpStatus.NOT_FOUND, e);
     }
 
-    @ExceptionHandler({CityNotFoundByIdException.class})
-    public ResponseEntity<String> handle(CityNotFoundByIdException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    // ALREADY EXISTS Exception Handlers
+    @ExceptionHandler({CityAlreadyExistsException.class, RestaurantAlreadyExistsException.class,
+            FoodCategoryAlreadyExistsException.class, MenuItemAlreadyExistsException.class,
+            CustomerAlreadyExistsException.class, RoleAlreadyExistsException.class})
+    public ResponseEntity<ApiError> handleAlreadyExists(StacklessException e) {
+        return error(HttpStatus.FOUND, e);
     }
 
-    @ExceptionHandler({CityAlreadyExistsException.class})
-    public ResponseEntity<String> handle(CityAlreadyExistsException e) {
-        return ResponseEntity
-                .status(HttpStatus.FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
-    }
-    // RESTAURANT Exception Handlers
-    @ExceptionHandler({RestaurantNotFoundByNameException.class})
-    public ResponseEntity<String> handle(RestaurantNotFoundByNameException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    // PURCHASE Exception Handlers
+    @ExceptionHandler({PurchaseIntakeQueueFullException.class})
+    public ResponseEntity<ApiError> handle(PurchaseIntakeQueueFullException e) {
+        return error(HttpStatus.TOO_MANY_REQUESTS, e, "1");
     }
 
-    @ExceptionHandler({RestaurantNotFoundByIdException.class})
-    public ResponseEntity<String> handle(RestaurantNotFoundByIdException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    @ExceptionHandler({InvalidPurchaseCursorException.class, InvalidIdempotencyKeyException.class,
+            InvalidMenuDocumentException.class})
+    public ResponseEntity<ApiError> handleBadRequest(RuntimeException e) {
+        return error(HttpStatus.BAD_REQUEST, e);
     }
 
-    @ExceptionHandler({RestaurantAlreadyExistsException.class})
-    public ResponseEntity<String> handle(RestaurantAlreadyExistsException e) {
-        return ResponseEntity
-                .status(HttpStatus.FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    @ExceptionHandler({PurchaseIdempotencyKeyInUseException.class})
+    public ResponseEntity<ApiError> handle(PurchaseIdempotencyKeyInUseException e) {
+        return error(HttpStatus.CONFLICT, e, "1");
     }
 
-    // FOOD CATEGORY Exception Handlers
-    @ExceptionHandler({FoodCategoryNotFoundByIdException.class})
-    public ResponseEntity<String> handle(FoodCategoryNotFoundByIdException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
-    }
-    @ExceptionHandler({FoodCategoryNotFoundByNameException.class})
-    public ResponseEntity<String> handle(FoodCategoryNotFoundByNameException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    @ExceptionHandler({TooManyDeliveryConfirmationsException.class})
+    public ResponseEntity<ApiError> handle(TooManyDeliveryConfirmationsException e) {
+        return error(HttpStatus.PAYLOAD_TOO_LARGE, e);
     }
 
-    @ExceptionHandler({FoodCategoryAlreadyExistsException.class})
-    public ResponseEntity<String> handle(FoodCategoryAlreadyExistsException e) {
-        return ResponseEntity
-                .status(HttpStatus.FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    @ExceptionHandler({PurchaseTrackingUnavailableException.class})
+    public ResponseEntity<ApiError> handle(PurchaseTrackingUnavailableException e) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e, "5");
     }
 
-    // MENU ITEM Exception Handlers
-    @ExceptionHandler({MenuItemNotFoundByIdException.class})
-    public ResponseEntity<String> handle(MenuItemNotFoundByIdException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
-    }
-
-    @ExceptionHandler({MenuItemAlreadyExistsException.class})
-    public ResponseEntity<String> handle(MenuItemAlreadyExistsException e) {
-        return ResponseEntity
-                .status(HttpStatus.FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    @ExceptionHandler({IncorrectDateFormatException.class})
+    public ResponseEntity<ApiError> handle(IncorrectDateFormatException e) {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, e);
     }
 
-    // PURCHASE Exception Handlers
-    @ExceptionHandler({PurchaseNotFoundByIdException.class})
-    public ResponseEntity<String> handle(PurchaseNotFoundByIdException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    @ExceptionHandler({PurchaseIdempotencyKeyReusedException.class})
+    public ResponseEntity<ApiError> handle(PurchaseIdempotencyKeyReusedException e) {
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, e);
     }
 
-    @ExceptionHandler({IncorrectDateFormatException.class})
-    public ResponseEntity<String> handle(IncorrectDateFormatException e) {
-        return ResponseEntity
-                .status(HttpStatus.UNPROCESSABLE_ENTITY)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    // AUTH Exception Handlers
+    @ExceptionHandler({InvalidCredentialsException.class, InvalidRefreshTokenException.class})
+    public ResponseEntity<ApiError> handleUnauthorized(RuntimeException e) {
+        return error(HttpStatus.UNAUTHORIZED, e);
     }
 
-    // CUSTOMER Exception Handlers
-    @ExceptionHandler({CustomerNotFoundByNameException.class})
-    public ResponseEntity<String> handle(CustomerNotFoundByNameException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    @ExceptionHandler({LoginThrottledException.class})
+    public ResponseEntity<ApiError> handle(LoginThrottledException e) {
+        return error(HttpStatus.TOO_MANY_REQUESTS, e, String.valueOf(e.getRetryAfterSeconds()));
     }
 
-    @ExceptionHandler({CustomerNotFoundByIdException.class})
-    public ResponseEntity<String> handle(CustomerNotFoundByIdException e) {
-        return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+    @ExceptionHandler({PasswordHashingUnavailableException.class})
+    public ResponseEntity<ApiError> handle(PasswordHashingUnavailableException e) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e, "1");
     }
 
-    @ExceptionHandler({CustomerAlreadyExistsException.class})
-    public ResponseEntity<String> handle(CustomerAlreadyExistsException e) {
+    // json whatever the mapping produces, so that the text/event-stream and csv endpoints can report errors too
+    private static ResponseEntity<ApiError> error(HttpStatus status, RuntimeException e) {
         return ResponseEntity
-                .status(HttpStatus.FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+                .status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ApiError(status, e.getMessage()));
     }
 
-    // ROLE Exception Handlers
-    @ExceptionHandler({RoleAlreadyExistsException.class})
-    public ResponseEntity<String> handle(RoleAlreadyExistsException e) {
+    private static ResponseEntity<ApiError> error(HttpStatus status, RuntimeException e, String retryAfterSeconds) {
         return ResponseEntity
-                .status(HttpStatus.FOUND)
-                .body(e.getMessage() + " at " + LocalDateTime.now());
+                .status(status)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ApiError(status, e.getMessage()));
     }
-
 }
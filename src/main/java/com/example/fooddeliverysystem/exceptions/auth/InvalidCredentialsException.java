@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.auth;
+
+public class InvalidCredentialsException extends RuntimeException {
+
+    public InvalidCredentialsException() {
+        super("The username or the password is not correct.");
+    }
+}
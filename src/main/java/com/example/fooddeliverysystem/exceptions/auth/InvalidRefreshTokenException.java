@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.auth;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException() {
+        super("The refresh token is not valid, it is unknown, expired or revoked. Please log in again.");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.fooddeliverysystem.exceptions.auth;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * An authentication exception, so that HTTP Basic hands it to its entry point, and an internal one,
+ * so that the provider manager does not retry the check with another (equally saturated) provider.
+ */
+public class PasswordHashingUnavailableException extends InternalAuthenticationServiceException {
+
+    public PasswordHashingUnavailableException(Integer capacity) {
+        super("The password hashing pool is saturated (" + capacity + " hashes pending), please retry later.");
+    }
+}
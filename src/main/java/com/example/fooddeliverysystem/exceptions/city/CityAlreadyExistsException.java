@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.city;
 
-public class CityAlreadyExistsException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class CityAlreadyExistsException extends StacklessException {
 
     public CityAlreadyExistsException(String cityName) {
         super("City " + cityName + " already exists in the db.");
@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.city;
 
-public class CityNotFoundByIdException extends RuntimeException{
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class CityNotFoundByIdException extends StacklessException {
 
     public CityNotFoundByIdException(Long cityId) {
         super("The city with the id: " + cityId + " has not been found.");
@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.city;
 
-public class CityNotFoundByNameException extends RuntimeException{
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class CityNotFoundByNameException extends StacklessException {
 
     public CityNotFoundByNameException(String cityName) {
         super("The city " + cityName + " was not found.");
@@ -1,8 +1,11 @@
 package com.example.fooddeliverysystem.exceptions.customer;
 
-public class CustomerAlreadyExistsException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
 
-    public CustomerAlreadyExistsException(String email) {
-        super("Customer with email " + email + " already exists.");
+public class CustomerAlreadyExistsException extends StacklessException {
+
+    // field is "email" or "name", both identify a customer
+    public CustomerAlreadyExistsException(String field, String value) {
+        super("Customer with " + field + " " + value + " already exists.");
     }
 }
@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.customer;
 
-public class CustomerNotFoundByIdException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class CustomerNotFoundByIdException extends StacklessException {
 
     public CustomerNotFoundByIdException(Long customerId) {
         super("The customer with the id " + customerId + " has not been found.");
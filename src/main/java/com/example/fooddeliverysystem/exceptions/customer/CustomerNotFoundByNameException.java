@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.customer;
 
-public class CustomerNotFoundByNameException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class CustomerNotFoundByNameException extends StacklessException {
     public CustomerNotFoundByNameException(String name) {
         super("Customer with the name " + name + " has not been found");
     }
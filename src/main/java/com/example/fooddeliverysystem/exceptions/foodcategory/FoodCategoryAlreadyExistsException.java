@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.foodcategory;
 
-public class FoodCategoryAlreadyExistsException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class FoodCategoryAlreadyExistsException extends StacklessException {
 
     public FoodCategoryAlreadyExistsException(String foodCategoryName) {
         super("Food category " + foodCategoryName + " already exists.");
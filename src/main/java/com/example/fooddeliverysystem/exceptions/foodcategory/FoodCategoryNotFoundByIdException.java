@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.foodcategory;
 
-public class FoodCategoryNotFoundByIdException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class FoodCategoryNotFoundByIdException extends StacklessException {
 
     public FoodCategoryNotFoundByIdException(Long foodCategoryId) {
         super("The food category with the id " + foodCategoryId + " has not been found");
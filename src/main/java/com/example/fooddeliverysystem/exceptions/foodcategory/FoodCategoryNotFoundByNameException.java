@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.foodcategory;
 
-public class FoodCategoryNotFoundByNameException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class FoodCategoryNotFoundByNameException extends StacklessException {
 
     public FoodCategoryNotFoundByNameException(String foodCategoryName) {
         super("The food category with the name: " + foodCategoryName + " has not been found.");
@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.menuitem;
 
-public class MenuItemAlreadyExistsException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class MenuItemAlreadyExistsException extends StacklessException {
 
     public MenuItemAlreadyExistsException(String menuItemName) {
         super("Menu item " + menuItemName + " already exists.");
@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.menuitem;
 
-public class MenuItemNotFoundByIdException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class MenuItemNotFoundByIdException extends StacklessException {
 
     public MenuItemNotFoundByIdException(Long menuitemId) {
         super("The menu item with the id: " + menuitemId + " has not been found.");
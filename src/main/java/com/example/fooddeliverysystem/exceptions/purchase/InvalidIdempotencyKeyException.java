@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.purchase;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    public InvalidIdempotencyKeyException(Integer maxLength) {
+        super("The Idempotency-Key header must not be blank and can have at most " + maxLength + " characters.");
+    }
+}
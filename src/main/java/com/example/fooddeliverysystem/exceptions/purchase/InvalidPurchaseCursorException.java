@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.purchase;
+
+public class InvalidPurchaseCursorException extends RuntimeException {
+
+    public InvalidPurchaseCursorException(String cursor) {
+        super("The purchase page cursor " + cursor + " is not valid.");
+    }
+}
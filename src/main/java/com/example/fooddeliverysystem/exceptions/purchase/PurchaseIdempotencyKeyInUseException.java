@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.purchase;
+
+public class PurchaseIdempotencyKeyInUseException extends RuntimeException {
+
+    public PurchaseIdempotencyKeyInUseException(String idempotencyKey) {
+        super("A purchase with the Idempotency-Key " + idempotencyKey + " is still being placed, please retry later.");
+    }
+}
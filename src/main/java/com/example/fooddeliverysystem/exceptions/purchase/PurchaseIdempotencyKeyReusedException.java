@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.purchase;
+
+public class PurchaseIdempotencyKeyReusedException extends RuntimeException {
+
+    public PurchaseIdempotencyKeyReusedException(String idempotencyKey) {
+        super("The Idempotency-Key " + idempotencyKey + " was already used for a different purchase.");
+    }
+}
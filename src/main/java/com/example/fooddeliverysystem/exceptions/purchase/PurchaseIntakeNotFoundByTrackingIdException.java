@@ -0,0 +1,10 @@
+package com.example.fooddeliverysystem.exceptions.purchase;
+
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class PurchaseIntakeNotFoundByTrackingIdException extends StacklessException {
+
+    public PurchaseIntakeNotFoundByTrackingIdException(String trackingId) {
+        super("The purchase with the tracking id: " + trackingId + " could not have been found.");
+    }
+}
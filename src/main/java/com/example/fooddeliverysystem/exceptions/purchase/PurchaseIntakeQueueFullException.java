@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.purchase;
+
+public class PurchaseIntakeQueueFullException extends RuntimeException {
+
+    public PurchaseIntakeQueueFullException(Integer capacity) {
+        super("The purchase intake queue is full (" + capacity + " pending purchases), please retry later.");
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.purchase;
 
-public class PurchaseNotFoundByIdException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class PurchaseNotFoundByIdException extends StacklessException {
 
     public PurchaseNotFoundByIdException(Long purchaseId) {
         super("The purchase with the id: " + purchaseId + " could not have been found.");
@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.purchase;
+
+public class PurchaseTrackingUnavailableException extends RuntimeException {
+
+    public PurchaseTrackingUnavailableException(Integer maxSubscribers) {
+        super("The purchase tracking already serves " + maxSubscribers + " clients, please retry later.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.purchase;
+
+public class TooManyDeliveryConfirmationsException extends RuntimeException {
+
+    public TooManyDeliveryConfirmationsException(Integer maxConfirmations) {
+        super("At most " + maxConfirmations + " deliveries can be confirmed in one request.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.fooddeliverysystem.exceptions.restaurant;
+
+public class InvalidMenuDocumentException extends RuntimeException {
+
+    public InvalidMenuDocumentException(long row, String reason) {
+        super("The menu document can not be read at row " + row + ", nothing was imported: " + reason);
+    }
+}
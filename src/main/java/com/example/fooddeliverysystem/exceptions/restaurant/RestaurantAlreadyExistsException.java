@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.restaurant;
 
-public class RestaurantAlreadyExistsException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class RestaurantAlreadyExistsException extends StacklessException {
 
     public RestaurantAlreadyExistsException(String restaurantName) {
         super("The restaurant " + restaurantName + " already exists in the db.");
@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.restaurant;
 
-public class RestaurantNotFoundByIdException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class RestaurantNotFoundByIdException extends StacklessException {
 
     public RestaurantNotFoundByIdException(Long restaurantId) {
         super("The restaurant with the " + restaurantId + " id has not been found.");
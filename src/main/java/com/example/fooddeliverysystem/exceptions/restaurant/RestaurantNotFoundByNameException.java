@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.restaurant;
 
-public class RestaurantNotFoundByNameException extends RuntimeException{
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class RestaurantNotFoundByNameException extends StacklessException {
 
     public RestaurantNotFoundByNameException(String restaurantName) {
         super("The restaurant " + restaurantName + " was not found.");
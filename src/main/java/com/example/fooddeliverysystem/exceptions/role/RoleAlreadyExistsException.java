@@ -1,6 +1,8 @@
 package com.example.fooddeliverysystem.exceptions.role;
 
-public class RoleAlreadyExistsException extends RuntimeException {
+import com.example.fooddeliverysystem.exceptions.StacklessException;
+
+public class RoleAlreadyExistsException extends StacklessException {
 
     public RoleAlreadyExistsException(String roleName) {
         super("Role " + roleName + " already exists.");
@@ -12,8 +12,11 @@ import java.util.List;
 @Builder
 public class City {
 
+    public static final String ID_SEQUENCE = "city_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long cityId;
 
     @NotBlank(message = "The name of the city should not be blank.")
@@ -3,6 +3,7 @@ package com.example.fooddeliverysystem.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
@@ -12,8 +13,11 @@ import java.util.List;
 @Builder
 public class Customer {
 
+    public static final String ID_SEQUENCE = "customer_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
     @Column(name = "customer_id")
     private Long customerId;
 
@@ -46,6 +50,7 @@ public class Customer {
     private String password;
 //    mappedBy = "customers",
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinTable(name = "customer_roles",
             joinColumns = @JoinColumn(name = "customer_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -13,9 +13,12 @@ import java.util.List;
 @Builder
 public class FoodCategory {
 
+    public static final String ID_SEQUENCE = "food_category_seq";
+
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long foodCategoryId;
 
     @NotBlank(message = "The name of the food category should not be blank.")
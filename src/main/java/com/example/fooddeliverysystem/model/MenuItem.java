@@ -14,8 +14,11 @@ import java.math.BigDecimal;
 @Builder
 public class MenuItem {
 
+    public static final String ID_SEQUENCE = "menu_item_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long menuItemId;
 
     @ManyToOne
@@ -24,8 +27,6 @@ public class MenuItem {
     private FoodCategory foodCategory;
     @NotBlank(message = "The name of the menu item cannot be null.")
     private String name;
-    @Lob
-    @Column
     @NotBlank(message = "The ingredients of the menu item cannot be null.")
     private String ingredients;
 
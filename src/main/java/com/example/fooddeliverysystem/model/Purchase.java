@@ -1,8 +1,10 @@
 package com.example.fooddeliverysystem.model;
 
 import com.example.fooddeliverysystem.exceptions.NoItemsWereSelectedException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -15,10 +17,25 @@ import java.util.List;
 
 @Entity
 @Builder
+@NamedEntityGraph(name = "Purchase.details",
+        attributeNodes = {
+                @NamedAttributeNode(value = "restaurant", subgraph = "restaurant"),
+                @NamedAttributeNode(value = "customer", subgraph = "customer"),
+                @NamedAttributeNode("purchaseLines")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "restaurant", attributeNodes = @NamedAttributeNode("city")),
+                @NamedSubgraph(name = "customer", attributeNodes = @NamedAttributeNode("city"))
+        })
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_purchase_customer_idempotency_key",
+        columnNames = {"customer_id", "idempotency_key"}))
 public class Purchase {
 
+    public static final String ID_SEQUENCE = "purchase_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long purchaseId;
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
@@ -42,20 +59,28 @@ public class Purchase {
     private LocalDateTime estimatedDeliveryTime;
     private LocalDateTime actualDeliveryTime;
 
-    @ManyToMany
-    @JoinTable(name = "PURCHASE_MENUITEMS",
-            joinColumns = @JoinColumn(name = "purchaseId"),
-            inverseJoinColumns = @JoinColumn(name = "menuItemId")
-    )
-    @NotNull(message = "The menu items field can not be null.")
-    private List<MenuItem> menuItems;
+    @OneToMany(mappedBy = "purchase", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @NotNull(message = "The purchase lines field can not be null.")
+    private List<PurchaseLine> purchaseLines;
+
+    // client supplied Idempotency-Key, unique per customer so that a retried placement can never be stored twice
+    @Column(name = "idempotency_key")
+    @JsonIgnore
+    private String idempotencyKey;
+
+    // SHA-256 of the request that used the idempotency key, a replay must carry the same request
+    @Column(length = 64)
+    @JsonIgnore
+    private String idempotencyRequestHash;
 
     public Purchase() {
     }
 
     public Purchase(Long purchaseId, BigDecimal price, Restaurant restaurant, Customer customer,
                     LocalDateTime purchasePlacedTime, LocalDateTime estimatedDeliveryTime,
-                    LocalDateTime actualDeliveryTime, List<MenuItem> menuItems) {
+                    LocalDateTime actualDeliveryTime, List<PurchaseLine> purchaseLines, String idempotencyKey,
+                    String idempotencyRequestHash) {
         this.purchaseId = purchaseId;
         this.price = price;
         this.restaurant = restaurant;
@@ -63,7 +88,9 @@ public class Purchase {
         this.purchasePlacedTime = purchasePlacedTime;
         this.estimatedDeliveryTime = estimatedDeliveryTime;
         this.actualDeliveryTime = actualDeliveryTime;
-        this.menuItems = menuItems;
+        this.purchaseLines = purchaseLines;
+        this.idempotencyKey = idempotencyKey;
+        this.idempotencyRequestHash = idempotencyRequestHash;
     }
 
     public Long getPurchaseId() {
@@ -122,12 +149,28 @@ public class Purchase {
         this.actualDeliveryTime = actualDeliveryTime;
     }
 
-    public List<MenuItem> getMenuItems() {
-        return menuItems;
+    public List<PurchaseLine> getPurchaseLines() {
+        return purchaseLines;
+    }
+
+    public void setPurchaseLines(List<PurchaseLine> purchaseLines) {
+        this.purchaseLines = purchaseLines;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyRequestHash() {
+        return idempotencyRequestHash;
     }
 
-    public void setMenuItems(List<MenuItem> menuItems) {
-        this.menuItems = menuItems;
+    public void setIdempotencyRequestHash(String idempotencyRequestHash) {
+        this.idempotencyRequestHash = idempotencyRequestHash;
     }
 
 }
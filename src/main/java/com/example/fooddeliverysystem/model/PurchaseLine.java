@@ -0,0 +1,119 @@
+package com.example.fooddeliverysystem.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+
+import javax.persistence.*;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * One distinct menu item of a purchase. The name and the unit price are copied from the menu item
+ * when the purchase is placed, so a purchase can be read and totalled without the current menu.
+ */
+@Entity
+@Builder
+public class PurchaseLine {
+
+    public static final String ID_SEQUENCE = "purchase_line_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
+    private Long purchaseLineId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "purchase_id",
+            referencedColumnName = "purchaseId")
+    @JsonIgnore
+    private Purchase purchase;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "menu_item_id",
+            referencedColumnName = "menuItemId")
+    @JsonIgnore
+    private MenuItem menuItem;
+
+    @Column(name = "menu_item_id", insertable = false, updatable = false)
+    private Long menuItemId;
+
+    private String menuItemName;
+
+    @NotNull(message = "The quantity can not be null.")
+    @Min(value = 1, message = "The quantity must be at least 1.")
+    private Integer quantity;
+
+    @NotNull(message = "The unit price can not be null.")
+    private BigDecimal unitPrice;
+
+    public PurchaseLine() {
+    }
+
+    public PurchaseLine(Long purchaseLineId, Purchase purchase, MenuItem menuItem, Long menuItemId,
+                        String menuItemName, Integer quantity, BigDecimal unitPrice) {
+        this.purchaseLineId = purchaseLineId;
+        this.purchase = purchase;
+        this.menuItem = menuItem;
+        this.menuItemId = menuItemId;
+        this.menuItemName = menuItemName;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+    public Long getPurchaseLineId() {
+        return purchaseLineId;
+    }
+
+    public void setPurchaseLineId(Long purchaseLineId) {
+        this.purchaseLineId = purchaseLineId;
+    }
+
+    public Purchase getPurchase() {
+        return purchase;
+    }
+
+    public void setPurchase(Purchase purchase) {
+        this.purchase = purchase;
+    }
+
+    public MenuItem getMenuItem() {
+        return menuItem;
+    }
+
+    public void setMenuItem(MenuItem menuItem) {
+        this.menuItem = menuItem;
+    }
+
+    public Long getMenuItemId() {
+        return menuItemId;
+    }
+
+    public void setMenuItemId(Long menuItemId) {
+        this.menuItemId = menuItemId;
+    }
+
+    public String getMenuItemName() {
+        return menuItemName;
+    }
+
+    public void setMenuItemName(String menuItemName) {
+        this.menuItemName = menuItemName;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.fooddeliverysystem.model;
+
+import lombok.Builder;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A refresh token handed out at login. Only the SHA-256 of the token is stored, so a leaked table
+ * can not be replayed. A token is used once: refreshing revokes it and issues its successor.
+ */
+@Entity
+@Builder
+public class RefreshToken {
+
+    public static final String ID_SEQUENCE = "refresh_token_seq";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
+    private Long refreshTokenId;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "customer_id",
+            referencedColumnName = "customer_id")
+    private Customer customer;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private boolean revoked;
+
+    public RefreshToken() {
+    }
+
+    public RefreshToken(Long refreshTokenId, String tokenHash, Customer customer, LocalDateTime expiresAt,
+                        boolean revoked) {
+        this.refreshTokenId = refreshTokenId;
+        this.tokenHash = tokenHash;
+        this.customer = customer;
+        this.expiresAt = expiresAt;
+        this.revoked = revoked;
+    }
+
+    public Long getRefreshTokenId() {
+        return refreshTokenId;
+    }
+
+    public void setRefreshTokenId(Long refreshTokenId) {
+        this.refreshTokenId = refreshTokenId;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(Customer customer) {
+        this.customer = customer;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(boolean revoked) {
+        this.revoked = revoked;
+    }
+}
@@ -13,8 +13,11 @@ import java.util.List;
 @Builder
 public class Restaurant {
 
+    public static final String ID_SEQUENCE = "restaurant_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long restaurantId;
 
     @NotBlank(message = "The name of the restaurant should not be blank")
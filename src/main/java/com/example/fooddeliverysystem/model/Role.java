@@ -9,8 +9,11 @@ import java.util.List;
 @Entity
 public class Role {
 
+    public static final String ID_SEQUENCE = "role_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = SequenceIds.ALLOCATION_SIZE)
     @Column(name = "role_id")
     private Long roleId;
 
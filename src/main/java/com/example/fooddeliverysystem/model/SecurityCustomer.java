@@ -4,31 +4,39 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
 
+/**
+ * Immutable snapshot of a customer for Spring Security. The authorities are mapped from the roles
+ * once, when the snapshot is taken, since the principal is cached and asked for them on every request.
+ */
 public class SecurityCustomer implements UserDetails {
 
-    private final Customer customer;
+    private final String username;
+    private final String password;
+    private final List<GrantedAuthority> authorities;
 
     public SecurityCustomer(Customer customer) {
-        this.customer = customer;
+        this.username = customer.getName();
+        this.password = customer.getPassword();
+        this.authorities = customer.getRoles() == null ? List.of() : customer.getRoles().stream()
+                .<GrantedAuthority>map(SecurityRole::new)
+                .toList();
     }
 
     @Override
     public String getPassword() {
-        return customer.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return customer.getName();
+        return username;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return customer.getRoles().stream()
-                .map(SecurityRole::new)
-                .collect(Collectors.toList());
+        return authorities;
     }
 
     @Override
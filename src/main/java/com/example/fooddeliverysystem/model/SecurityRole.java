@@ -1,25 +1,24 @@
 package com.example.fooddeliverysystem.model;
 
-import com.example.fooddeliverysystem.model.Role;
 import org.springframework.security.core.GrantedAuthority;
 
 public class SecurityRole implements GrantedAuthority {
 
-    private final Role role;
+    private final String authority;
 
     public SecurityRole(Role role) {
-        this.role = role;
+        this.authority = role.getName();
     }
 
     @Override
     public String getAuthority() {
-        return role.getName();
+        return authority;
     }
 
     @Override
     public String toString() {
         return "SecurityRole{" +
-                "role=" + role +
+                "authority='" + authority + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,18 @@
+package com.example.fooddeliverysystem.model;
+
+/**
+ * Every entity takes its ids from its own database sequence (ID_SEQUENCE of the entity), which
+ * steps by ALLOCATION_SIZE: one nextval hands out the ALLOCATION_SIZE ids ending at the returned
+ * value (Hibernate's pooled optimizer), so inserts need one sequence call per ALLOCATION_SIZE rows
+ * and Hibernate can send them as JDBC batches. A sequence returning INITIAL_VALUE, the default
+ * initialValue of @SequenceGenerator, was just created: that value hands out the ids up to the
+ * value of the following nextval.
+ */
+public final class SequenceIds {
+
+    public static final int ALLOCATION_SIZE = 50;
+    public static final int INITIAL_VALUE = 1;
+
+    private SequenceIds() {
+    }
+}
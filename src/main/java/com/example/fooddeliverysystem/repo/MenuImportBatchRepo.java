@@ -0,0 +1,121 @@
+package com.example.fooddeliverysystem.repo;
+
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain JDBC reads and writes of the bulk menu import. Every chunk of imported rows is checked
+ * with one IN query per table and written with one batched insert, inside the transaction of
+ * the import.
+ */
+@Repository
+public class MenuImportBatchRepo {
+
+    private static final String SELECT_MENU_ITEM_NAMES = "SELECT name FROM menu_item WHERE name IN (%s)";
+
+    private static final String SELECT_FOOD_CATEGORIES = "SELECT food_category_id, food_category_name, restaurant_id " +
+            "FROM food_category WHERE food_category_name IN (%s)";
+
+    private static final String INSERT_FOOD_CATEGORY = "INSERT INTO food_category " +
+            "(food_category_id, food_category_name, restaurant_id) VALUES (?, ?, ?)";
+
+    private static final String INSERT_MENU_ITEM = "INSERT INTO menu_item " +
+            "(menu_item_id, category_id, name, ingredients, price, time_to_cook) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator sequenceIdAllocator;
+
+    public MenuImportBatchRepo(JdbcTemplate jdbcTemplate, SequenceIdAllocator sequenceIdAllocator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceIdAllocator = sequenceIdAllocator;
+    }
+
+    /**
+     * The names among the given ones that menu items already have.
+     */
+    public Set<String> searchExistingMenuItemNames(Collection<String> names) {
+        Set<String> existing = new HashSet<>();
+        if (names.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query(String.format(SELECT_MENU_ITEM_NAMES, placeholders(names.size())),
+                resultSet -> {
+                    existing.add(resultSet.getString("name"));
+                }, names.toArray());
+        return existing;
+    }
+
+    /**
+     * The food categories with the given names, by name. Unknown names are simply missing from the map.
+     */
+    public Map<String, FoodCategoryRef> searchFoodCategoriesByName(Collection<String> names) {
+        Map<String, FoodCategoryRef> foodCategories = new HashMap<>();
+        if (names.isEmpty()) {
+            return foodCategories;
+        }
+        jdbcTemplate.query(String.format(SELECT_FOOD_CATEGORIES, placeholders(names.size())), resultSet -> {
+            long restaurantId = resultSet.getLong("restaurant_id");
+            foodCategories.put(resultSet.getString("food_category_name"), new FoodCategoryRef(
+                    resultSet.getLong("food_category_id"),
+                    resultSet.wasNull() ? null : restaurantId));
+        }, names.toArray());
+        return foodCategories;
+    }
+
+    /**
+     * Inserts food categories with the given names for the restaurant in one batch, and returns them by name.
+     */
+    public Map<String, FoodCategoryRef> insertFoodCategories(Collection<String> names, Long restaurantId) {
+        Map<String, FoodCategoryRef> foodCategories = new HashMap<>();
+        if (names.isEmpty()) {
+            return foodCategories;
+        }
+        long[] foodCategoryIds = sequenceIdAllocator.nextIds(FoodCategory.ID_SEQUENCE, names.size());
+        List<Object[]> rows = new ArrayList<>(names.size());
+        int i = 0;
+        for (String name : names) {
+            rows.add(new Object[]{foodCategoryIds[i], name, restaurantId});
+            foodCategories.put(name, new FoodCategoryRef(foodCategoryIds[i], restaurantId));
+            i++;
+        }
+        jdbcTemplate.batchUpdate(INSERT_FOOD_CATEGORY, rows);
+        return foodCategories;
+    }
+
+    /**
+     * Inserts the menu items, given as (category_id, name, ingredients, price, time_to_cook) rows, in one batch.
+     */
+    public void insertMenuItems(List<Object[]> menuItemRows) {
+        if (menuItemRows.isEmpty()) {
+            return;
+        }
+        long[] menuItemIds = sequenceIdAllocator.nextIds(MenuItem.ID_SEQUENCE, menuItemRows.size());
+        List<Object[]> rows = new ArrayList<>(menuItemRows.size());
+        for (int i = 0; i < menuItemRows.size(); i++) {
+            Object[] menuItemRow = menuItemRows.get(i);
+            Object[] row = new Object[menuItemRow.length + 1];
+            row[0] = menuItemIds[i];
+            System.arraycopy(menuItemRow, 0, row, 1, menuItemRow.length);
+            rows.add(row);
+        }
+        jdbcTemplate.batchUpdate(INSERT_MENU_ITEM, rows);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    public record FoodCategoryRef(Long foodCategoryId, Long restaurantId) {
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.fooddeliverysystem.repo;
 
+import com.example.fooddeliverysystem.dto.MenuItemSearchRow;
 import com.example.fooddeliverysystem.model.MenuItem;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MenuItemRepo extends JpaRepository<MenuItem, Long> {
 
@@ -15,4 +20,16 @@ public interface MenuItemRepo extends JpaRepository<MenuItem, Long> {
 
     @Query("SELECT mi from MenuItem mi WHERE mi.name = :name")
     Optional<MenuItem> searchMenuItemByName(String name);
+
+    @Query("SELECT mi from MenuItem mi JOIN FETCH mi.foodCategory fc JOIN FETCH fc.restaurantMenu r " +
+            "LEFT JOIN FETCH r.city WHERE r.restaurantId = :restaurantId AND mi.menuItemId IN :menuItemIds")
+    List<MenuItem> searchMenuItemsOfRestaurant(Long restaurantId, Collection<Long> menuItemIds);
+
+    // every menu item with the ids it can be searched by, streamed to build the search index
+    @org.springframework.data.jpa.repository.QueryHints(
+            @QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.fooddeliverysystem.dto.MenuItemSearchRow(mi.menuItemId, mi.name, mi.ingredients, " +
+            "mi.price, fc.foodCategoryId, r.restaurantId, c.cityId) " +
+            "FROM MenuItem mi LEFT JOIN mi.foodCategory fc LEFT JOIN fc.restaurantMenu r LEFT JOIN r.city c")
+    Stream<MenuItemSearchRow> streamMenuItemSearchRows();
 }
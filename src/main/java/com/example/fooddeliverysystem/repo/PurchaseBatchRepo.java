@@ -0,0 +1,147 @@
+package com.example.fooddeliverysystem.repo;
+
+import com.example.fooddeliverysystem.dto.IdempotentPurchase;
+import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.model.PurchaseLine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Plain JDBC writer used by the asynchronous purchase intake. A whole batch of purchases is
+ * written with one batched insert for the purchases and one for their purchase lines.
+ */
+@Repository
+public class PurchaseBatchRepo {
+
+    private static final String INSERT_PURCHASE = "INSERT INTO purchase " +
+            "(purchase_id, price, restaurant_id, customer_id, purchase_placed_time, estimated_delivery_time, " +
+            "actual_delivery_time, idempotency_key, idempotency_request_hash) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_IDEMPOTENT_PURCHASE = "SELECT purchase_id, idempotency_request_hash " +
+            "FROM purchase WHERE customer_id = ? AND idempotency_key = ?";
+
+    private static final String INSERT_PURCHASE_LINE = "INSERT INTO purchase_line " +
+            "(purchase_line_id, purchase_id, menu_item_id, menu_item_name, quantity, unit_price) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_ACTUAL_DELIVERY_TIME = "UPDATE purchase SET actual_delivery_time = ? " +
+            "WHERE purchase_id = ? AND actual_delivery_time IS NULL";
+
+    private static final String SELECT_DELIVERY_ESTIMATES = "SELECT purchase_id, restaurant_id, " +
+            "estimated_delivery_time, actual_delivery_time FROM purchase WHERE purchase_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator sequenceIdAllocator;
+
+    public PurchaseBatchRepo(JdbcTemplate jdbcTemplate, SequenceIdAllocator sequenceIdAllocator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceIdAllocator = sequenceIdAllocator;
+    }
+
+    @Transactional
+    public void insertPurchases(List<Purchase> purchases) {
+
+        long[] purchaseIds = sequenceIdAllocator.nextIds(Purchase.ID_SEQUENCE, purchases.size());
+        List<Object[]> purchaseRows = new ArrayList<>(purchases.size());
+        int purchaseLineCount = 0;
+        for (int i = 0; i < purchases.size(); i++) {
+            Purchase purchase = purchases.get(i);
+            purchase.setPurchaseId(purchaseIds[i]);
+            purchaseRows.add(new Object[]{
+                    purchase.getPurchaseId(),
+                    purchase.getPrice(),
+                    purchase.getRestaurant().getRestaurantId(),
+                    purchase.getCustomer().getCustomerId(),
+                    toTimestamp(purchase.getPurchasePlacedTime()),
+                    toTimestamp(purchase.getEstimatedDeliveryTime()),
+                    toTimestamp(purchase.getActualDeliveryTime()),
+                    purchase.getIdempotencyKey(),
+                    purchase.getIdempotencyRequestHash()
+            });
+            purchaseLineCount += purchase.getPurchaseLines().size();
+        }
+        jdbcTemplate.batchUpdate(INSERT_PURCHASE, purchaseRows);
+
+        long[] purchaseLineIds = sequenceIdAllocator.nextIds(PurchaseLine.ID_SEQUENCE, purchaseLineCount);
+        List<Object[]> purchaseLineRows = new ArrayList<>(purchaseLineCount);
+        for (Purchase purchase : purchases) {
+            for (PurchaseLine purchaseLine : purchase.getPurchaseLines()) {
+                purchaseLine.setPurchaseLineId(purchaseLineIds[purchaseLineRows.size()]);
+                purchaseLineRows.add(new Object[]{
+                        purchaseLine.getPurchaseLineId(),
+                        purchase.getPurchaseId(),
+                        purchaseLine.getMenuItemId(),
+                        purchaseLine.getMenuItemName(),
+                        purchaseLine.getQuantity(),
+                        purchaseLine.getUnitPrice()
+                });
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_PURCHASE_LINE, purchaseLineRows);
+    }
+
+    public Optional<IdempotentPurchase> searchIdempotentPurchase(Long customerId, String idempotencyKey) {
+        return jdbcTemplate.query(SELECT_IDEMPOTENT_PURCHASE,
+                        (resultSet, rowNum) -> new IdempotentPurchase(
+                                resultSet.getLong("purchase_id"), resultSet.getString("idempotency_request_hash")),
+                        customerId, idempotencyKey)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Restaurant, estimated and actual delivery time of the given purchases, read as plain columns
+     * without loading the entities. Unknown ids are simply missing from the map.
+     */
+    public Map<Long, DeliveryEstimate> searchDeliveryEstimates(Collection<Long> purchaseIds) {
+        Map<Long, DeliveryEstimate> estimates = new HashMap<>();
+        if (purchaseIds.isEmpty()) {
+            return estimates;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(purchaseIds.size(), "?"));
+        jdbcTemplate.query(String.format(SELECT_DELIVERY_ESTIMATES, placeholders), resultSet -> {
+            estimates.put(resultSet.getLong("purchase_id"), new DeliveryEstimate(
+                    resultSet.getLong("restaurant_id"),
+                    toLocalDateTime(resultSet.getTimestamp("estimated_delivery_time")),
+                    toLocalDateTime(resultSet.getTimestamp("actual_delivery_time"))));
+        }, purchaseIds.toArray());
+        return estimates;
+    }
+
+    /**
+     * Sets the actual delivery time of every purchase not delivered yet in one JDBC batch and returns
+     * the number of rows each statement updated, in the order of the given ids. A purchase that already
+     * has a delivery time is left as it is and counts 0, so concurrent confirmations deliver it once.
+     */
+    @Transactional
+    public int[] updateActualDeliveryTimes(List<Long> purchaseIds, List<LocalDateTime> actualDeliveryTimes) {
+        List<Object[]> rows = new ArrayList<>(purchaseIds.size());
+        for (int i = 0; i < purchaseIds.size(); i++) {
+            rows.add(new Object[]{toTimestamp(actualDeliveryTimes.get(i)), purchaseIds.get(i)});
+        }
+        return jdbcTemplate.batchUpdate(UPDATE_ACTUAL_DELIVERY_TIME, rows);
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime localDateTime) {
+        return localDateTime == null ? null : Timestamp.valueOf(localDateTime);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    public record DeliveryEstimate(Long restaurantId, LocalDateTime estimatedDeliveryTime,
+                                   LocalDateTime actualDeliveryTime) {
+    }
+}
@@ -1,9 +1,34 @@
 package com.example.fooddeliverysystem.repo;
 
+import com.example.fooddeliverysystem.dto.IdempotentPurchase;
 import com.example.fooddeliverysystem.model.Purchase;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface PurchaseRepo extends JpaRepository<Purchase, Long> {
+public interface PurchaseRepo extends JpaRepository<Purchase, Long>, PurchaseRepoCustom {
+
+    // restaurant, customer and purchase lines come back in the same select,
+    // the customers' roles in one batched select
+    @Override
+    @EntityGraph("Purchase.details")
+    @Query("SELECT DISTINCT p FROM Purchase p")
+    @org.springframework.data.jpa.repository.QueryHints(
+            @QueryHint(name = QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Purchase> findAll();
+
+    @Override
+    @EntityGraph("Purchase.details")
+    Optional<Purchase> findById(Long id);
+
+    @Query("SELECT new com.example.fooddeliverysystem.dto.IdempotentPurchase(p.purchaseId, p.idempotencyRequestHash) " +
+            "FROM Purchase p WHERE p.customer.customerId = :customerId AND p.idempotencyKey = :idempotencyKey")
+    Optional<IdempotentPurchase> searchIdempotentPurchase(Long customerId, String idempotencyKey);
 }
@@ -0,0 +1,23 @@
+package com.example.fooddeliverysystem.repo;
+
+import com.example.fooddeliverysystem.dto.PurchaseFilter;
+import com.example.fooddeliverysystem.model.Purchase;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PurchaseRepoCustom {
+
+    /**
+     * Keyset (seek) page of purchases ordered by placed time and id, newest first. The page starts right
+     * after the (afterPlacedTime, afterId) position, or at the newest purchase when both are null.
+     */
+    List<Purchase> searchPurchasesPage(PurchaseFilter filter, LocalDateTime afterPlacedTime, Long afterId, int limit);
+
+    /**
+     * Streams every purchase matching the filter in the same order as the pages, reading fetchSize rows per
+     * JDBC round trip. Must be consumed inside a transaction and closed afterwards.
+     */
+    Stream<Purchase> streamPurchases(PurchaseFilter filter, int fetchSize);
+}
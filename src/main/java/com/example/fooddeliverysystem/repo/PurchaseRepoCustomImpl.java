@@ -0,0 +1,90 @@
+package com.example.fooddeliverysystem.repo;
+
+import com.example.fooddeliverysystem.dto.PurchaseFilter;
+import com.example.fooddeliverysystem.model.Purchase;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PurchaseRepoCustomImpl implements PurchaseRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Purchase> searchPurchasesPage(PurchaseFilter filter, LocalDateTime afterPlacedTime, Long afterId,
+                                              int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Purchase> query = cb.createQuery(Purchase.class);
+        Root<Purchase> purchase = query.from(Purchase.class);
+        fetchToOneAssociations(purchase);
+
+        List<Predicate> predicates = filterPredicates(cb, purchase, filter);
+        if (afterPlacedTime != null && afterId != null) {
+            Path<LocalDateTime> placedTime = purchase.get("purchasePlacedTime");
+            predicates.add(cb.or(
+                    cb.lessThan(placedTime, afterPlacedTime),
+                    cb.and(cb.equal(placedTime, afterPlacedTime), cb.lessThan(purchase.<Long>get("purchaseId"), afterId))
+            ));
+        }
+
+        query.select(purchase)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(purchase.get("purchasePlacedTime")), cb.desc(purchase.get("purchaseId")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Purchase> streamPurchases(PurchaseFilter filter, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Purchase> query = cb.createQuery(Purchase.class);
+        Root<Purchase> purchase = query.from(Purchase.class);
+        fetchToOneAssociations(purchase);
+
+        query.select(purchase)
+                .where(filterPredicates(cb, purchase, filter).toArray(new Predicate[0]))
+                .orderBy(cb.desc(purchase.get("purchasePlacedTime")), cb.desc(purchase.get("purchaseId")));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    // collections can not be join fetched together with a row limit, purchase lines and roles are batch loaded
+    private void fetchToOneAssociations(Root<Purchase> purchase) {
+        purchase.fetch("restaurant", JoinType.LEFT).fetch("city", JoinType.LEFT);
+        purchase.fetch("customer", JoinType.LEFT).fetch("city", JoinType.LEFT);
+    }
+
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Purchase> purchase, PurchaseFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getRestaurantId() != null) {
+            predicates.add(cb.equal(purchase.get("restaurant").get("restaurantId"), filter.getRestaurantId()));
+        }
+        if (filter.getCustomerId() != null) {
+            predicates.add(cb.equal(purchase.get("customer").get("customerId"), filter.getCustomerId()));
+        }
+        if (filter.getPlacedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(purchase.<LocalDateTime>get("purchasePlacedTime"), filter.getPlacedFrom()));
+        }
+        if (filter.getPlacedTo() != null) {
+            predicates.add(cb.lessThan(purchase.<LocalDateTime>get("purchasePlacedTime"), filter.getPlacedTo()));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.fooddeliverysystem.repo;
+
+import com.example.fooddeliverysystem.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRepo extends JpaRepository<RefreshToken, Long> {
+
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.customer WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> searchRefreshTokenByTokenHash(String tokenHash);
+
+    // only one of the transactions revoking the same token updates the row, the others see 0
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.refreshTokenId = :refreshTokenId " +
+            "AND rt.revoked = false")
+    int revokeRefreshToken(Long refreshTokenId);
+
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.customer.customerId = :customerId " +
+            "AND rt.revoked = false")
+    int revokeRefreshTokensByCustomerId(Long customerId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.customer.customerId = :customerId")
+    int deleteRefreshTokensByCustomerId(Long customerId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.customer.customerId = :customerId AND rt.expiresAt < :now")
+    int deleteExpiredRefreshTokensByCustomerId(Long customerId, LocalDateTime now);
+}
@@ -1,9 +1,11 @@
 package com.example.fooddeliverysystem.repo;
 
+import com.example.fooddeliverysystem.dto.RestaurantMenuRow;
 import com.example.fooddeliverysystem.model.Restaurant;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface RestaurantRepo extends JpaRepository<Restaurant, Long> {
@@ -11,4 +13,11 @@ public interface RestaurantRepo extends JpaRepository<Restaurant, Long> {
 
     @Query("SELECT r from Restaurant r WHERE r.name = :restaurantName")
     Optional<Restaurant> searchRestaurantByName(String restaurantName);
+
+    // the restaurant, its food categories and their menu items as flat rows of one select
+    @Query("SELECT new com.example.fooddeliverysystem.dto.RestaurantMenuRow(r.restaurantId, r.name, r.address, " +
+            "fc.foodCategoryId, fc.foodCategoryName, mi.menuItemId, mi.name, mi.ingredients, mi.price, mi.timeToCook) " +
+            "FROM Restaurant r LEFT JOIN r.foodCategoryList fc LEFT JOIN fc.menuItems mi " +
+            "WHERE r.restaurantId = :restaurantId ORDER BY fc.foodCategoryId, mi.menuItemId")
+    List<RestaurantMenuRow> searchRestaurantMenu(Long restaurantId);
 }
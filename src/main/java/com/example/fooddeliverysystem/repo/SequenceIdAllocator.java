@@ -0,0 +1,56 @@
+package com.example.fooddeliverysystem.repo;
+
+import com.example.fooddeliverysystem.model.SequenceIds;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+/**
+ * Ids for the rows the JDBC batch writers insert without Hibernate, taken from the same sequences
+ * and in the same pooled blocks as the entities' ids (Hibernate's PooledOptimizer): a nextval value v
+ * stands for the ids v - ALLOCATION_SIZE + 1 .. v, except the initial value of a new sequence, which
+ * stands for the ids from itself up to the next value. Neither side can hand out an id of the other.
+ */
+@Repository
+public class SequenceIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public SequenceIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    /**
+     * The given number of unused ids of the sequence, one sequence call per ALLOCATION_SIZE ids.
+     */
+    public long[] nextIds(String sequenceName, int count) {
+        String nextValue = dialect.getSequenceNextValString(sequenceName);
+        long[] ids = new long[count];
+        int index = 0;
+        while (index < count) {
+            long first;
+            long last = nextValue(nextValue);
+            if (last == SequenceIds.INITIAL_VALUE) {
+                // the first value of a new sequence starts a block that ends at the next value
+                first = last;
+                last = nextValue(nextValue);
+            } else {
+                first = last - SequenceIds.ALLOCATION_SIZE + 1;
+            }
+            for (long id = first; id <= last && index < count; id++) {
+                ids[index++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private long nextValue(String nextValue) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(nextValue, Long.class));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.fooddeliverysystem.repo;
+
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.Customer;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.model.PurchaseLine;
+import com.example.fooddeliverysystem.model.Restaurant;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC writer used by the synthetic data generator. Each call inserts its rows with one
+ * batched insert, ids taken from the entities' sequences, and returns the ids in the order of the
+ * rows. On PostgreSQL, reWriteBatchedInserts=true on the JDBC url turns the batches into multi-row
+ * inserts.
+ */
+@Repository
+public class SyntheticDataBatchRepo {
+
+    private static final String INSERT_CITY = "INSERT INTO city (city_id, name, zipcode) VALUES (?, ?, ?)";
+
+    private static final String INSERT_RESTAURANT = "INSERT INTO restaurant " +
+            "(restaurant_id, name, address, city_id) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_FOOD_CATEGORY = "INSERT INTO food_category " +
+            "(food_category_id, food_category_name, restaurant_id) VALUES (?, ?, ?)";
+
+    private static final String INSERT_MENU_ITEM = "INSERT INTO menu_item " +
+            "(menu_item_id, category_id, name, ingredients, price, time_to_cook) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CUSTOMER = "INSERT INTO customer " +
+            "(customer_id, name, city_id, address, phone, email, password) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_CUSTOMER_ROLE = "INSERT INTO customer_roles (customer_id, role_id) VALUES (?, ?)";
+
+    private static final String INSERT_PURCHASE = "INSERT INTO purchase " +
+            "(purchase_id, price, restaurant_id, customer_id, purchase_placed_time, estimated_delivery_time, " +
+            "actual_delivery_time) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PURCHASE_LINE = "INSERT INTO purchase_line " +
+            "(purchase_line_id, purchase_id, menu_item_id, menu_item_name, quantity, unit_price) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator sequenceIdAllocator;
+
+    public SyntheticDataBatchRepo(JdbcTemplate jdbcTemplate, SequenceIdAllocator sequenceIdAllocator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceIdAllocator = sequenceIdAllocator;
+    }
+
+    /**
+     * Rows of (name, zipcode).
+     */
+    public long[] insertCities(List<Object[]> rows) {
+        return insert(City.ID_SEQUENCE, INSERT_CITY, rows);
+    }
+
+    /**
+     * Rows of (name, address, city_id).
+     */
+    public long[] insertRestaurants(List<Object[]> rows) {
+        return insert(Restaurant.ID_SEQUENCE, INSERT_RESTAURANT, rows);
+    }
+
+    /**
+     * Rows of (food_category_name, restaurant_id).
+     */
+    public long[] insertFoodCategories(List<Object[]> rows) {
+        return insert(FoodCategory.ID_SEQUENCE, INSERT_FOOD_CATEGORY, rows);
+    }
+
+    /**
+     * Rows of (category_id, name, ingredients, price, time_to_cook).
+     */
+    public long[] insertMenuItems(List<Object[]> rows) {
+        return insert(MenuItem.ID_SEQUENCE, INSERT_MENU_ITEM, rows);
+    }
+
+    /**
+     * Rows of (name, city_id, address, phone, email, password), every customer getting the given role.
+     */
+    public long[] insertCustomers(List<Object[]> rows, Long roleId) {
+        long[] customerIds = insert(Customer.ID_SEQUENCE, INSERT_CUSTOMER, rows);
+        List<Object[]> customerRoles = new ArrayList<>(customerIds.length);
+        for (long customerId : customerIds) {
+            customerRoles.add(new Object[]{customerId, roleId});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CUSTOMER_ROLE, customerRoles);
+        return customerIds;
+    }
+
+    /**
+     * Rows of (price, restaurant_id, customer_id, purchase_placed_time, estimated_delivery_time,
+     * actual_delivery_time).
+     */
+    public long[] insertPurchases(List<Object[]> rows) {
+        return insert(Purchase.ID_SEQUENCE, INSERT_PURCHASE, rows);
+    }
+
+    /**
+     * Rows of (purchase_id, menu_item_id, menu_item_name, quantity, unit_price).
+     */
+    public long[] insertPurchaseLines(List<Object[]> rows) {
+        return insert(PurchaseLine.ID_SEQUENCE, INSERT_PURCHASE_LINE, rows);
+    }
+
+    private long[] insert(String sequenceName, String sql, List<Object[]> rows) {
+        long[] ids = sequenceIdAllocator.nextIds(sequenceName, rows.size());
+        List<Object[]> rowsWithIds = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            Object[] rowWithId = new Object[row.length + 1];
+            rowWithId[0] = ids[i];
+            System.arraycopy(row, 0, rowWithId, 1, row.length);
+            rowsWithIds.add(rowWithId);
+        }
+        jdbcTemplate.batchUpdate(sql, rowsWithIds);
+        return ids;
+    }
+}
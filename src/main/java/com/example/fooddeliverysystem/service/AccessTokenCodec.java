@@ -0,0 +1,128 @@
+package com.example.fooddeliverysystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies the short lived access tokens: base64url(claims json) "." base64url(HMAC-SHA256
+ * of the first part). The claims carry the username, the authorities and the expiry, so a request
+ * with a valid token is authenticated without reading the customer or running BCrypt.
+ * <p>
+ * The key is auth.token.secret (base64, at least 32 bytes) and must be the same on every node. Without
+ * it a random key is generated, which only suits a single node: its tokens die with the process.
+ */
+@Component
+public class AccessTokenCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+    private final long ttlSeconds;
+    private final ThreadLocal<Mac> macs;
+
+    // the distinct authority sets are the role combinations, a handful, so they are built once
+    private final Map<List<String>, List<GrantedAuthority>> authorities = new ConcurrentHashMap<>();
+
+    public AccessTokenCodec(ObjectMapper objectMapper,
+                            @Value("${auth.token.secret:}") String secret,
+                            @Value("${auth.token.access-ttl-seconds:900}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttlSeconds;
+
+        byte[] key = secret.isBlank() ? randomKey() : Base64.getDecoder().decode(secret);
+        if (key.length < 32) {
+            throw new IllegalArgumentException("auth.token.secret must be at least 32 bytes long.");
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("The " + ALGORITHM + " mac is not available.", e);
+            }
+        });
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public String issue(String username, List<String> authorityNames) {
+        Claims claims = new Claims(username, authorityNames, Instant.now().getEpochSecond() + ttlSeconds);
+        try {
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return payload + "." + ENCODER.encodeToString(sign(payload));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The authentication the token stands for, or null when it is malformed, forged or expired.
+     */
+    public Authentication verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            // constant time, so the comparison does not leak how much of a forged signature is right
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return null;
+            }
+            Claims claims = objectMapper.readValue(DECODER.decode(payload), Claims.class);
+            if (claims.sub() == null || claims.exp() <= Instant.now().getEpochSecond()) {
+                return null;
+            }
+            List<String> authorityNames = claims.auth() == null ? List.of() : claims.auth();
+            return UsernamePasswordAuthenticationToken.authenticated(claims.sub(), null,
+                    authorities.computeIfAbsent(authorityNames, AccessTokenCodec::toAuthorities));
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static List<GrantedAuthority> toAuthorities(List<String> authorityNames) {
+        return authorityNames.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private record Claims(String sub, List<String> auth, long exp) {
+    }
+}
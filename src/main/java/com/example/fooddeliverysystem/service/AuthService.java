@@ -0,0 +1,12 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.AuthTokens;
+
+public interface AuthService {
+
+    AuthTokens login(String username, String password, String clientIp);
+
+    AuthTokens refresh(String refreshToken);
+
+    void logout(String refreshToken);
+}
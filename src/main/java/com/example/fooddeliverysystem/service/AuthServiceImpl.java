@@ -0,0 +1,144 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.AuthTokens;
+import com.example.fooddeliverysystem.exceptions.auth.InvalidCredentialsException;
+import com.example.fooddeliverysystem.exceptions.auth.InvalidRefreshTokenException;
+import com.example.fooddeliverysystem.model.Customer;
+import com.example.fooddeliverysystem.model.RefreshToken;
+import com.example.fooddeliverysystem.model.Role;
+import com.example.fooddeliverysystem.repo.CustomerRepo;
+import com.example.fooddeliverysystem.repo.RefreshTokenRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The only place where a password is checked with BCrypt: a login trades the password for an access
+ * token (see AccessTokenCodec) and a refresh token. Refresh tokens are single use, and presenting one
+ * that was already used revokes every refresh token of the customer, since either the customer or a
+ * thief holds a copy.
+ */
+@Service
+public class AuthServiceImpl implements AuthService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final CustomerRepo customerRepo;
+    private final RefreshTokenRepo refreshTokenRepo;
+    private final PasswordEncoder passwordEncoder;
+    private final AccessTokenCodec accessTokenCodec;
+    private final LoginThrottle loginThrottle;
+    private final long refreshTtlSeconds;
+
+    // compared against when the username does not exist, so that the answer takes as long as a wrong password
+    private final String unknownUserPasswordHash;
+
+    public AuthServiceImpl(CustomerRepo customerRepo, RefreshTokenRepo refreshTokenRepo,
+                           PasswordEncoder passwordEncoder, AccessTokenCodec accessTokenCodec,
+                           LoginThrottle loginThrottle,
+                           @Value("${auth.token.refresh-ttl-days:14}") long refreshTtlDays) {
+        this.customerRepo = customerRepo;
+        this.refreshTokenRepo = refreshTokenRepo;
+        this.passwordEncoder = passwordEncoder;
+        this.accessTokenCodec = accessTokenCodec;
+        this.loginThrottle = loginThrottle;
+        this.refreshTtlSeconds = ChronoUnit.DAYS.getDuration().getSeconds() * refreshTtlDays;
+        this.unknownUserPasswordHash = passwordEncoder.encode("unknown-user-password");
+    }
+
+    @Override
+    @Transactional
+    public AuthTokens login(String username, String password, String clientIp) {
+        if (username == null || password == null) {
+            throw new InvalidCredentialsException();
+        }
+        loginThrottle.check(username, clientIp);
+
+        Optional<Customer> customer = customerRepo.searchCustomerByName(username);
+        if (customer.isEmpty()) {
+            passwordEncoder.matches(password, unknownUserPasswordHash);
+            loginThrottle.recordFailure(username, clientIp);
+            throw new InvalidCredentialsException();
+        }
+        if (!passwordEncoder.matches(password, customer.get().getPassword())) {
+            loginThrottle.recordFailure(username, clientIp);
+            throw new InvalidCredentialsException();
+        }
+
+        refreshTokenRepo.deleteExpiredRefreshTokensByCustomerId(customer.get().getCustomerId(), LocalDateTime.now());
+        return issueTokens(customer.get());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthTokens refresh(String refreshToken) {
+        RefreshToken current = searchRefreshToken(refreshToken)
+                .orElseThrow(InvalidRefreshTokenException::new);
+        Customer customer = current.getCustomer();
+
+        if (!current.isRevoked() && !current.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new InvalidRefreshTokenException();
+        }
+        // the token is spent by a conditional update, so that of two concurrent refreshes with the same
+        // token only one gets new tokens and the other is handled as the replay it is
+        if (current.isRevoked() || refreshTokenRepo.revokeRefreshToken(current.getRefreshTokenId()) != 1) {
+            // a replayed token, the whole family is revoked and committed despite the exception
+            refreshTokenRepo.revokeRefreshTokensByCustomerId(customer.getCustomerId());
+            throw new InvalidRefreshTokenException();
+        }
+
+        return issueTokens(customer);
+    }
+
+    @Override
+    @Transactional
+    public void logout(String refreshToken) {
+        searchRefreshToken(refreshToken).ifPresent(token -> token.setRevoked(true));
+    }
+
+    private Optional<RefreshToken> searchRefreshToken(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+        return refreshTokenRepo.searchRefreshTokenByTokenHash(hash(refreshToken));
+    }
+
+    private AuthTokens issueTokens(Customer customer) {
+        List<String> authorityNames = customer.getRoles() == null ? List.of() : customer.getRoles().stream()
+                .map(Role::getName)
+                .toList();
+        String accessToken = accessTokenCodec.issue(customer.getName(), authorityNames);
+
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        refreshTokenRepo.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .customer(customer)
+                .expiresAt(LocalDateTime.now().plusSeconds(refreshTtlSeconds))
+                .build());
+
+        return new AuthTokens(accessToken, accessTokenCodec.getTtlSeconds(), refreshToken, refreshTtlSeconds);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
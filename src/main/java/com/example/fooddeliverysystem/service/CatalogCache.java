@@ -0,0 +1,158 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Restaurant;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.capitalize;
+
+/**
+ * Names of the read-through catalog caches filled by the @Cacheable reads of the city, restaurant,
+ * food category and menu item services, and the evictions their writes go through. An entity is
+ * evicted under every key it can be read by; entities that embed it (a menu item embeds its food
+ * category, restaurant and city) are dropped wholesale since the catalog changes rarely. The menu
+ * item search index copies the same ids and is marked stale along with the menu item caches.
+ */
+@Component
+public class CatalogCache {
+
+    public static final String CITIES = "cities";
+    public static final String CITIES_BY_NAME = "citiesByName";
+    public static final String RESTAURANTS = "restaurants";
+    public static final String RESTAURANTS_BY_NAME = "restaurantsByName";
+    public static final String FOOD_CATEGORIES = "foodCategories";
+    public static final String FOOD_CATEGORIES_BY_NAME = "foodCategoriesByName";
+    public static final String MENU_ITEMS = "menuItems";
+    public static final String MENU_ITEMS_BY_FOOD_CATEGORY = "menuItemsByFoodCategory";
+    public static final String CATALOG_LISTS = "catalogLists";
+    public static final String RESTAURANT_MENUS = "restaurantMenus";
+
+    public static final List<String> CACHE_NAMES = List.of(CITIES, CITIES_BY_NAME, RESTAURANTS, RESTAURANTS_BY_NAME,
+            FOOD_CATEGORIES, FOOD_CATEGORIES_BY_NAME, MENU_ITEMS, MENU_ITEMS_BY_FOOD_CATEGORY, CATALOG_LISTS,
+            RESTAURANT_MENUS);
+
+    // keys of the CATALOG_LISTS cache
+    public static final String ALL_CITIES = "cities";
+    public static final String ALL_RESTAURANTS = "restaurants";
+    public static final String ALL_FOOD_CATEGORIES = "foodCategories";
+    public static final String ALL_MENU_ITEMS = "menuItems";
+
+    private final CacheManager cacheManager;
+    private final MenuItemSearchIndex menuItemSearchIndex;
+
+    public CatalogCache(CacheManager cacheManager, MenuItemSearchIndex menuItemSearchIndex) {
+        this.cacheManager = cacheManager;
+        this.menuItemSearchIndex = menuItemSearchIndex;
+    }
+
+    public void evictCity(City city) {
+        evict(CITIES, city.getCityId());
+        evict(CITIES_BY_NAME, capitalize(city.getName()));
+        evict(CATALOG_LISTS, ALL_CITIES);
+        // restaurants embed their city and are removed along with it
+        clear(RESTAURANTS);
+        clear(RESTAURANTS_BY_NAME);
+        evict(CATALOG_LISTS, ALL_RESTAURANTS);
+        clearFoodCategories();
+    }
+
+    public void evictCityList() {
+        evict(CATALOG_LISTS, ALL_CITIES);
+    }
+
+    public void evictRestaurant(Restaurant restaurant) {
+        evict(RESTAURANTS, restaurant.getRestaurantId());
+        evict(RESTAURANTS_BY_NAME, capitalize(restaurant.getName()));
+        evict(CATALOG_LISTS, ALL_RESTAURANTS);
+        evict(RESTAURANT_MENUS, restaurant.getRestaurantId());
+        // food categories embed their restaurant and are removed along with it
+        clearFoodCategories();
+    }
+
+    public void evictRestaurantList() {
+        evict(CATALOG_LISTS, ALL_RESTAURANTS);
+    }
+
+    public void evictFoodCategory(FoodCategory foodCategory) {
+        evict(FOOD_CATEGORIES, foodCategory.getFoodCategoryId());
+        evict(FOOD_CATEGORIES_BY_NAME, capitalize(foodCategory.getFoodCategoryName()));
+        evict(CATALOG_LISTS, ALL_FOOD_CATEGORIES);
+        evictRestaurantMenu(foodCategory);
+        // menu items embed their food category and are removed along with it
+        clearMenuItems();
+    }
+
+    public void evictFoodCategoryList(FoodCategory foodCategory) {
+        evict(CATALOG_LISTS, ALL_FOOD_CATEGORIES);
+        evictRestaurantMenu(foodCategory);
+    }
+
+    public void evictMenuItem(MenuItem menuItem) {
+        evict(MENU_ITEMS, menuItem.getMenuItemId());
+        evictMenuItemLists(menuItem);
+    }
+
+    public void evictMenuItemLists(MenuItem menuItem) {
+        if (menuItem.getFoodCategory() != null) {
+            evict(MENU_ITEMS_BY_FOOD_CATEGORY, menuItem.getFoodCategory().getFoodCategoryId());
+        }
+        evict(CATALOG_LISTS, ALL_MENU_ITEMS);
+        evictRestaurantMenu(menuItem.getFoodCategory());
+    }
+
+    /**
+     * A bulk menu import only adds food categories and menu items to one restaurant.
+     */
+    public void evictMenuImport(Long restaurantId) {
+        evict(CATALOG_LISTS, ALL_FOOD_CATEGORIES);
+        evict(CATALOG_LISTS, ALL_MENU_ITEMS);
+        evict(RESTAURANT_MENUS, restaurantId);
+        clear(MENU_ITEMS_BY_FOOD_CATEGORY);
+        menuItemSearchIndex.invalidate();
+    }
+
+    // the menu of the restaurant the food category belongs to, or every menu when that is not known
+    private void evictRestaurantMenu(FoodCategory foodCategory) {
+        if (foodCategory == null || foodCategory.getRestaurantMenu() == null
+                || foodCategory.getRestaurantMenu().getRestaurantId() == null) {
+            clear(RESTAURANT_MENUS);
+            return;
+        }
+        evict(RESTAURANT_MENUS, foodCategory.getRestaurantMenu().getRestaurantId());
+    }
+
+    private void clearFoodCategories() {
+        clear(RESTAURANT_MENUS);
+        clear(FOOD_CATEGORIES);
+        clear(FOOD_CATEGORIES_BY_NAME);
+        evict(CATALOG_LISTS, ALL_FOOD_CATEGORIES);
+        clearMenuItems();
+    }
+
+    private void clearMenuItems() {
+        clear(MENU_ITEMS);
+        clear(MENU_ITEMS_BY_FOOD_CATEGORY);
+        menuItemSearchIndex.invalidate();
+        evict(CATALOG_LISTS, ALL_MENU_ITEMS);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
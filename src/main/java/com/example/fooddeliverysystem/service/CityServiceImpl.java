@@ -5,7 +5,9 @@ import com.example.fooddeliverysystem.exceptions.city.CityNotFoundByIdException;
 import com.example.fooddeliverysystem.exceptions.city.CityNotFoundByNameException;
 import com.example.fooddeliverysystem.model.City;
 import com.example.fooddeliverysystem.repo.CityRepo;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
@@ -15,18 +17,22 @@ import java.util.Optional;
 public class CityServiceImpl implements CityService {
 
     private final CityRepo cityRepo;
+    private final CatalogCache catalogCache;
 
-    public CityServiceImpl(CityRepo cityRepo) {
+    public CityServiceImpl(CityRepo cityRepo, CatalogCache catalogCache) {
         this.cityRepo = cityRepo;
+        this.catalogCache = catalogCache;
     }
 
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.CATALOG_LISTS, key = "T(com.example.fooddeliverysystem.service.CatalogCache).ALL_CITIES")
     public List<City> getCities() {
         return cityRepo.findAll();
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.CITIES_BY_NAME, key = "T(org.springframework.util.StringUtils).capitalize(#cityName)")
     public City getCityByName(String cityName) {
         String capitalizedCityName = StringUtils.capitalize(cityName);
         City city = cityRepo.searchCityByName(capitalizedCityName)
@@ -35,6 +41,7 @@ public class CityServiceImpl implements CityService {
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.CITIES, key = "#cityId")
     public City getCityById(Long cityId) {
         City city = cityRepo.findById(cityId)
                 .orElseThrow(() -> new CityNotFoundByIdException(cityId));
@@ -47,14 +54,20 @@ public class CityServiceImpl implements CityService {
         city1.ifPresentOrElse(x -> {
             throw new CityAlreadyExistsException(x.getName());
             },
-            () -> cityRepo.save(city)
+            () -> {
+                cityRepo.save(city);
+                catalogCache.evictCityList();
+            }
         );
 
 
     }
 
     @Override
+    @Transactional
     public void deleteCityById(Long cityId) {
+        Optional<City> city = cityRepo.findById(cityId);
         cityRepo.deleteById(cityId);
+        city.ifPresent(catalogCache::evictCity);
     }
 }
@@ -5,21 +5,28 @@ import com.example.fooddeliverysystem.exceptions.customer.CustomerNotFoundByIdEx
 import com.example.fooddeliverysystem.exceptions.customer.CustomerNotFoundByNameException;
 import com.example.fooddeliverysystem.model.Customer;
 import com.example.fooddeliverysystem.repo.CustomerRepo;
+import com.example.fooddeliverysystem.repo.RefreshTokenRepo;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepo customerRepo;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenRepo refreshTokenRepo;
+    private final JpaUserDetailsService jpaUserDetailsService;
 
-    public CustomerServiceImpl(CustomerRepo customerRepo, PasswordEncoder passwordEncoder) {
+    public CustomerServiceImpl(CustomerRepo customerRepo, PasswordEncoder passwordEncoder,
+                               RefreshTokenRepo refreshTokenRepo, JpaUserDetailsService jpaUserDetailsService) {
         this.customerRepo = customerRepo;
         this.passwordEncoder = passwordEncoder;
+        this.refreshTokenRepo = refreshTokenRepo;
+        this.jpaUserDetailsService = jpaUserDetailsService;
     }
 
     @Override
@@ -44,26 +51,39 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     public void addNewCustomer(Customer customer) {
 
-        Optional<Customer> customerOptional = customerRepo.searchCustomerByEmail(customer.getEmail());
-
-        customerOptional.ifPresentOrElse(
-                (x) -> {
-                    throw new CustomerAlreadyExistsException(x.getEmail());
-                },
-                () -> {
-                    customer.setPassword(passwordEncoder.encode(customer.getPassword()));
-                    customerRepo.save(customer);
-                }
-        );
-
+        // the name is the login of the customer, so it is as unique as the email
+        customerRepo.searchCustomerByEmail(customer.getEmail()).ifPresent(x -> {
+            throw new CustomerAlreadyExistsException("email", x.getEmail());
+        });
+        customerRepo.searchCustomerByName(customer.getName()).ifPresent(x -> {
+            throw new CustomerAlreadyExistsException("name", x.getName());
+        });
+
+        customer.setPassword(passwordEncoder.encode(customer.getPassword()));
+        try {
+            customerRepo.save(customer);
+        } catch (DataIntegrityViolationException e) {
+            // lost the race against a concurrent registration, the unique indexes kept the other one
+            if (customerRepo.searchCustomerByEmail(customer.getEmail()).isPresent()) {
+                throw new CustomerAlreadyExistsException("email", customer.getEmail());
+            }
+            if (customerRepo.searchCustomerByName(customer.getName()).isPresent()) {
+                throw new CustomerAlreadyExistsException("name", customer.getName());
+            }
+            throw e;
+        }
+        jpaUserDetailsService.evict(customer.getName());
     }
 
     @Override
+    @Transactional
     public void deleteCustomerById(Long customerId) {
-        customerRepo.findById(customerId)
+        Customer customer = customerRepo.findById(customerId)
                 .orElseThrow(() -> new CustomerNotFoundByIdException(customerId));
 
+        refreshTokenRepo.deleteRefreshTokensByCustomerId(customerId);
         customerRepo.deleteById(customerId);
+        jpaUserDetailsService.evict(customer.getName());
     }
 
 
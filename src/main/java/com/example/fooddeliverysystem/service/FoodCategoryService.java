@@ -3,7 +3,6 @@ package com.example.fooddeliverysystem.service;
 import com.example.fooddeliverysystem.model.FoodCategory;
 import org.springframework.stereotype.Service;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 public interface FoodCategoryService {
@@ -19,5 +18,5 @@ public interface FoodCategoryService {
 
     FoodCategory searchFoodCategoryById(Long foodCategoryId);
 
-    void updateFoodCategory(Long foodCategoryId, FoodCategory foodCategory) throws InvocationTargetException, IllegalAccessException, NoSuchMethodException;
+    void updateFoodCategory(Long foodCategoryId, FoodCategory foodCategory);
 }
@@ -8,12 +8,11 @@ import com.example.fooddeliverysystem.model.FoodCategory;
 import com.example.fooddeliverysystem.model.Restaurant;
 import com.example.fooddeliverysystem.repo.FoodCategoryRepo;
 import com.example.fooddeliverysystem.repo.RestaurantRepo;
-import org.apache.commons.beanutils.PropertyUtils;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,14 +21,20 @@ public class FoodCategoryServiceImpl implements FoodCategoryService{
 
     private final FoodCategoryRepo foodCategoryRepo;
     private final RestaurantRepo restaurantRepo;
+    private final CatalogCache catalogCache;
+    private final NonNullPropertyCopier nonNullPropertyCopier;
 
 
-    public FoodCategoryServiceImpl(FoodCategoryRepo foodCategoryRepo, RestaurantRepo restaurantRepo) {
+    public FoodCategoryServiceImpl(FoodCategoryRepo foodCategoryRepo, RestaurantRepo restaurantRepo,
+                                   CatalogCache catalogCache, NonNullPropertyCopier nonNullPropertyCopier) {
         this.foodCategoryRepo = foodCategoryRepo;
         this.restaurantRepo = restaurantRepo;
+        this.catalogCache = catalogCache;
+        this.nonNullPropertyCopier = nonNullPropertyCopier;
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.CATALOG_LISTS, key = "T(com.example.fooddeliverysystem.service.CatalogCache).ALL_FOOD_CATEGORIES")
     public List<FoodCategory> getAllFoodCategories() {
         return foodCategoryRepo.findAll();
     }
@@ -43,11 +48,16 @@ public class FoodCategoryServiceImpl implements FoodCategoryService{
                 (x) -> {
                     throw new FoodCategoryAlreadyExistsException(x.getFoodCategoryName());
                 },
-                () -> foodCategoryRepo.save(foodCategory)
+                () -> {
+                    foodCategoryRepo.save(foodCategory);
+                    catalogCache.evictFoodCategoryList(foodCategory);
+                }
         );
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.FOOD_CATEGORIES_BY_NAME,
+            key = "T(org.springframework.util.StringUtils).capitalize(#foodCategoryName)")
     public FoodCategory searchFoodCategoryByName(String foodCategoryName) {
 
         var foodCategory = foodCategoryRepo.searchFoodCategoryByName(StringUtils.capitalize(foodCategoryName))
@@ -71,45 +81,38 @@ public class FoodCategoryServiceImpl implements FoodCategoryService{
 
                     foodCategory.setRestaurantMenu(restaurant);
                     foodCategoryRepo.save(foodCategory);
+                    catalogCache.evictFoodCategoryList(foodCategory);
                 }
         );
     }
 
     @Override
+    @Transactional
     public void deleteFoodCategoryById(Long foodCategoryId) {
+        Optional<FoodCategory> foodCategory = foodCategoryRepo.findById(foodCategoryId);
         foodCategoryRepo.deleteById(foodCategoryId);
+        foodCategory.ifPresent(catalogCache::evictFoodCategory);
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.FOOD_CATEGORIES, key = "#foodCategoryId")
     public FoodCategory searchFoodCategoryById(Long foodCategoryId) {
         return foodCategoryRepo.findById(foodCategoryId)
                 .orElseThrow(() -> new FoodCategoryNotFoundByIdException(foodCategoryId));
     }
 
 
-    public void copyNonNullAttr(FoodCategory toBeUpdatedFoodCategory, FoodCategory foodCategory)
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
-
-        PropertyUtils.describe(foodCategory).entrySet()
-                .stream()
-                .filter(entry -> entry.getValue() != null)
-                .forEach(entry -> {
-                    try {
-                        PropertyUtils.setProperty(toBeUpdatedFoodCategory, entry.getKey(), entry.getValue());
-                    } catch (Exception e) {
-                        throw new RuntimeException("Food Category sent via HTTP can not be mapped to FoodCategory from the db.");
-                    }
-                });
-    }
     @Override
     @Transactional
-    public void updateFoodCategory(Long foodCategoryId, FoodCategory foodCategory)
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
+    public void updateFoodCategory(Long foodCategoryId, FoodCategory foodCategory) {
 
         FoodCategory toBeUpdatedFoodCategory = foodCategoryRepo.findById(foodCategoryId)
                 .orElseThrow(() -> new FoodCategoryNotFoundByIdException(foodCategoryId));
 
-        copyNonNullAttr(toBeUpdatedFoodCategory, foodCategory);
+        // evicted under the old name and, once copied, under the new one
+        catalogCache.evictFoodCategory(toBeUpdatedFoodCategory);
+        nonNullPropertyCopier.copyNonNullProperties(foodCategory, toBeUpdatedFoodCategory);
+        catalogCache.evictFoodCategory(toBeUpdatedFoodCategory);
 
     }
 }
@@ -1,30 +1,90 @@
 package com.example.fooddeliverysystem.service;
 
 import com.example.fooddeliverysystem.exceptions.customer.CustomerNotFoundByNameException;
-import com.example.fooddeliverysystem.model.Customer;
 import com.example.fooddeliverysystem.repo.CustomerRepo;
 import com.example.fooddeliverysystem.model.SecurityCustomer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Optional;
+import java.time.Duration;
 
+/**
+ * Loads the principals of HTTP Basic authentication, cached by username for
+ * auth.user-details-cache.ttl-seconds (at most auth.user-details-cache.maximum-size of them) so that
+ * repeated requests of a customer do not read the customer and its roles again. Writes that change a
+ * customer, its password or its roles evict it once they commit; the ttl bounds the staleness of
+ * writes made by other nodes. The hit rate is published as the cache.gets metric of the userDetails cache.
+ */
 @Component
 public class JpaUserDetailsService implements UserDetailsService {
 
+    public static final String CACHE_NAME = "userDetails";
+
     private final CustomerRepo customerRepo;
+    private final Cache<String, SecurityCustomer> principals;
 
-    public JpaUserDetailsService(CustomerRepo customerRepo) {
+    public JpaUserDetailsService(CustomerRepo customerRepo, MeterRegistry meterRegistry,
+                                 @Value("${auth.user-details-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${auth.user-details-cache.ttl-seconds:300}") long ttlSeconds) {
         this.customerRepo = customerRepo;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, CACHE_NAME);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        Optional<Customer> customer = customerRepo.searchCustomerByName(username);
-        return customer.map(SecurityCustomer::new)
-                .orElseThrow(() -> new CustomerNotFoundByNameException(username));
+        // an eviction waits for a load of the same username in flight, so it can not leave the old row behind;
+        // unknown usernames are not cached, so that a burst of them can not push out the real customers
+        SecurityCustomer securityCustomer = principals.get(username, name -> customerRepo.searchCustomerByName(name)
+                .map(SecurityCustomer::new)
+                .orElse(null));
+        if (securityCustomer == null) {
+            throw new CustomerNotFoundByNameException(username);
+        }
+        return securityCustomer;
+    }
+
+    /**
+     * Drops the cached principal of the customer once the current transaction commits.
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        afterCommit(() -> principals.invalidate(username));
+    }
+
+    /**
+     * Drops every cached principal once the current transaction commits, for changes of roles.
+     */
+    public void evictAll() {
+        afterCommit(principals::invalidateAll);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,177 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.PurchaseDeliveredEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory estimate of how busy every restaurant's kitchen is, used to compute delivery times
+ * without a database round trip.
+ *
+ * Each kitchen is modelled as a FIFO queue worked by a fixed number of stations: placing an order
+ * pushes the moment the kitchen becomes idle ("busy until") further by its cook time divided by the
+ * number of stations, and the estimate of a new order is its own cook time plus the wait for the
+ * current backlog plus the transport time. It is counted from the server clock the backlog is measured
+ * with, not from the placed time a client sent, which can be off by any skew. Delivery confirmations
+ * feed back how far ahead or behind the kitchen really is. Every operation is O(1) and only locks the
+ * kitchen it touches.
+ *
+ * An idle kitchen is the same as one never seen, so idle kitchens are dropped: when a cancellation or
+ * a delivery empties them, and by a sweep at most every purchase.eta.sweep-seconds for the ones whose
+ * backlog simply ran out. Only the kitchens with a backlog are kept in memory.
+ */
+@Component
+public class KitchenLoadEtaEngine {
+
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final int transportMinutes;
+    private final int stations;
+    private final long sweepMillis;
+    private final Clock clock;
+    private final ConcurrentMap<Long, Kitchen> kitchens = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepMillis;
+
+    @Autowired
+    public KitchenLoadEtaEngine(@Value("${purchase.eta.transport-minutes:30}") int transportMinutes,
+                                @Value("${purchase.eta.kitchen-stations:4}") int stations,
+                                @Value("${purchase.eta.sweep-seconds:60}") long sweepSeconds) {
+        this(transportMinutes, stations, sweepSeconds, Clock.systemDefaultZone());
+    }
+
+    public KitchenLoadEtaEngine(int transportMinutes, int stations, Clock clock) {
+        this(transportMinutes, stations, 60, clock);
+    }
+
+    public KitchenLoadEtaEngine(int transportMinutes, int stations, long sweepSeconds, Clock clock) {
+        this.transportMinutes = transportMinutes;
+        this.stations = Math.max(1, stations);
+        this.sweepMillis = TimeUnit.SECONDS.toMillis(sweepSeconds);
+        this.clock = clock;
+        this.nextSweepMillis = new AtomicLong(clock.millis() + sweepMillis);
+    }
+
+    /**
+     * Estimates the delivery time of a new order without changing the kitchen's state.
+     */
+    public LocalDateTime estimate(Long restaurantId, int cookMinutes) {
+        long nowMillis = clock.millis();
+        long waitMillis = restaurantId == null ? 0 : waitMillis(kitchens.get(restaurantId), nowMillis);
+        return deliveryTime(nowMillis, cookMinutes, waitMillis);
+    }
+
+    /**
+     * Estimates the delivery time of a new order and adds it to the restaurant's kitchen queue. An order
+     * that is then not stored must be taken back with cancelOrder.
+     */
+    public LocalDateTime placeOrder(Long restaurantId, int cookMinutes) {
+        long nowMillis = clock.millis();
+        if (restaurantId == null) {
+            return deliveryTime(nowMillis, cookMinutes, 0);
+        }
+        sweepIdleKitchens(nowMillis);
+
+        long workMillis = cookMinutes * MILLIS_PER_MINUTE / stations;
+        Kitchen kitchen = kitchens.compute(restaurantId, (id, current) ->
+                new Kitchen(Math.max(nowMillis, current == null ? 0 : current.busyUntilMillis()) + workMillis));
+        return deliveryTime(nowMillis, cookMinutes, kitchen.busyUntilMillis() - workMillis - nowMillis);
+    }
+
+    /**
+     * Takes back an order that was placed in the engine but could not be accepted or stored.
+     */
+    public void cancelOrder(Long restaurantId, int cookMinutes) {
+        if (restaurantId == null) {
+            return;
+        }
+        long nowMillis = clock.millis();
+        long workMillis = cookMinutes * MILLIS_PER_MINUTE / stations;
+        kitchens.computeIfPresent(restaurantId, (id, current) ->
+                busyUntil(nowMillis, current.busyUntilMillis() - workMillis));
+    }
+
+    /**
+     * Records the delivery of an order. Delivering earlier than estimated means the kitchen is ahead
+     * of its modelled backlog, delivering later means it is behind.
+     */
+    public void completeOrder(Long restaurantId, LocalDateTime estimatedDeliveryTime,
+                              LocalDateTime actualDeliveryTime) {
+        if (restaurantId == null) {
+            return;
+        }
+        long driftMillis = 0;
+        if (estimatedDeliveryTime != null && actualDeliveryTime != null) {
+            // a single odd delivery (e.g. confirmed hours late) must not skew the kitchen by more than a trip
+            long maxDriftMillis = transportMinutes * MILLIS_PER_MINUTE;
+            driftMillis = Math.max(-maxDriftMillis, Math.min(maxDriftMillis,
+                    Duration.between(estimatedDeliveryTime, actualDeliveryTime).toMillis()));
+        }
+        long nowMillis = clock.millis();
+        long drift = driftMillis;
+        // a late delivery pushes the backlog back, an early one pulls it forward, never into the past
+        kitchens.computeIfPresent(restaurantId, (id, current) ->
+                busyUntil(nowMillis, current.busyUntilMillis() + drift));
+    }
+
+    // after the commit of the delivery, so a rolled back one leaves the kitchen as it was
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseDelivered(PurchaseDeliveredEvent event) {
+        completeOrder(event.getRestaurantId(), event.getEstimatedDeliveryTime(), event.getActualDeliveryTime());
+    }
+
+    public long getBacklogMinutes(Long restaurantId) {
+        return waitMillis(kitchens.get(restaurantId), clock.millis()) / MILLIS_PER_MINUTE;
+    }
+
+    public int getTrackedKitchens() {
+        return kitchens.size();
+    }
+
+    /**
+     * Forgets the backlog of every kitchen.
+     */
+    public void clear() {
+        kitchens.clear();
+    }
+
+    private void sweepIdleKitchens(long nowMillis) {
+        long next = nextSweepMillis.get();
+        if (nowMillis < next || !nextSweepMillis.compareAndSet(next, nowMillis + sweepMillis)) {
+            return;
+        }
+        // removes an entry only if it still holds the idle value that was read
+        kitchens.entrySet().removeIf(entry -> entry.getValue().busyUntilMillis() <= nowMillis);
+    }
+
+    // null, which drops the kitchen, once the backlog is gone
+    private static Kitchen busyUntil(long nowMillis, long busyUntilMillis) {
+        return busyUntilMillis <= nowMillis ? null : new Kitchen(busyUntilMillis);
+    }
+
+    private static long waitMillis(Kitchen kitchen, long nowMillis) {
+        return kitchen == null ? 0 : Math.max(0, kitchen.busyUntilMillis() - nowMillis);
+    }
+
+    private LocalDateTime deliveryTime(long nowMillis, int cookMinutes, long waitMillis) {
+        // the wait is rounded up to whole minutes, like the rest of the delivery times
+        long waitMinutes = (waitMillis + MILLIS_PER_MINUTE - 1) / MILLIS_PER_MINUTE;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), clock.getZone())
+                .truncatedTo(ChronoUnit.MINUTES)
+                .plusMinutes(transportMinutes + cookMinutes + waitMinutes);
+    }
+
+    private record Kitchen(long busyUntilMillis) {
+    }
+}
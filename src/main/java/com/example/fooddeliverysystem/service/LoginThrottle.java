@@ -0,0 +1,163 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.exceptions.auth.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the failed logins (HTTP Basic and POST /api/v1/auth/login) per username and per client ip
+ * over a sliding window of auth.throttle.window-seconds, and rejects the next attempts of a username
+ * past auth.throttle.max-failures-per-username, or of an ip past auth.throttle.max-failures-per-ip,
+ * before the customer is read or BCrypt runs. Rejections are counted by login.throttle.rejected.
+ * <p>
+ * The counts live in fixed size count-min sketches, so the memory does not grow with the number of
+ * distinct usernames or ips an attack cycles through; a collision can only overestimate a count.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int BUCKETS = 6;
+    private static final int ROWS = 2;
+
+    private final boolean enabled;
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerIp;
+    private final long bucketMillis;
+    private final long retryAfterSeconds;
+
+    private final SlidingWindowSketch usernames;
+    private final SlidingWindowSketch clientIps;
+    private final Counter rejected;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${auth.throttle.enabled:true}") boolean enabled,
+                         @Value("${auth.throttle.window-seconds:60}") long windowSeconds,
+                         @Value("${auth.throttle.max-failures-per-username:10}") int maxFailuresPerUsername,
+                         @Value("${auth.throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                         @Value("${auth.throttle.slots:16384}") int slots) {
+        this.enabled = enabled;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.bucketMillis = Math.max(1, TimeUnit.SECONDS.toMillis(windowSeconds) / BUCKETS);
+        this.retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(bucketMillis));
+        this.usernames = new SlidingWindowSketch(slots);
+        this.clientIps = new SlidingWindowSketch(slots);
+        this.rejected = Counter.builder("login.throttle.rejected").register(meterRegistry);
+    }
+
+    /**
+     * Throws LoginThrottledException when the username or the ip has used up its failed attempts.
+     * Either can be null when it is not known.
+     */
+    public void check(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long bucket = currentBucket();
+        if ((username != null && usernames.count(username, bucket) >= maxFailuresPerUsername)
+                || (clientIp != null && clientIps.count(clientIp, bucket) >= maxFailuresPerIp)) {
+            rejected.increment();
+            throw new LoginThrottledException(retryAfterSeconds);
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long bucket = currentBucket();
+        if (username != null) {
+            usernames.increment(username, bucket);
+        }
+        if (clientIp != null) {
+            clientIps.increment(clientIp, bucket);
+        }
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    /**
+     * A count-min sketch per time bucket, in a ring of BUCKETS buckets reused as the window slides.
+     * Increments are atomic adds with no lock; a bucket is zeroed by the thread that wins the CAS of its
+     * epoch, so an increment racing with that reset may be lost, which only undercounts for a moment.
+     */
+    private static final class SlidingWindowSketch {
+
+        private final int mask;
+        private final int[] seeds = new int[ROWS];
+        private final AtomicLongArray epochs = new AtomicLongArray(BUCKETS);
+        private final AtomicIntegerArray counters;
+
+        private SlidingWindowSketch(int slots) {
+            int width = Integer.highestOneBit(Math.max(16, slots));
+            this.mask = width - 1;
+            this.counters = new AtomicIntegerArray(BUCKETS * ROWS * width);
+            // random seeds, so that nobody can pick usernames that collide with the one they want locked out
+            SecureRandom random = new SecureRandom();
+            for (int row = 0; row < ROWS; row++) {
+                seeds[row] = random.nextInt();
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                epochs.set(b, -1);
+            }
+        }
+
+        private void increment(String key, long epoch) {
+            int bucket = (int) (epoch % BUCKETS);
+            long bucketEpoch = epochs.get(bucket);
+            if (bucketEpoch < epoch && epochs.compareAndSet(bucket, bucketEpoch, epoch)) {
+                int from = bucket * ROWS * (mask + 1);
+                for (int i = from; i < from + ROWS * (mask + 1); i++) {
+                    counters.set(i, 0);
+                }
+            }
+            for (int row = 0; row < ROWS; row++) {
+                counters.incrementAndGet(index(bucket, row, key));
+            }
+        }
+
+        private int count(String key, long epoch) {
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < ROWS; row++) {
+                int sum = 0;
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    // only the buckets of the last BUCKETS epochs are part of the window
+                    if (epoch - epochs.get(bucket) < BUCKETS) {
+                        sum += counters.get(index(bucket, row, key));
+                    }
+                }
+                min = Math.min(min, sum);
+            }
+            return min;
+        }
+
+        private int index(int bucket, int row, String key) {
+            return (bucket * ROWS + row) * (mask + 1) + (hash(key, seeds[row]) & mask);
+        }
+
+        // murmur3 style mixing of the chars with a per sketch seed
+        private static int hash(String key, int seed) {
+            int h = seed;
+            for (int i = 0; i < key.length(); i++) {
+                int k = key.charAt(i) * 0xcc9e2d51;
+                k = Integer.rotateLeft(k, 15) * 0x1b873593;
+                h = Integer.rotateLeft(h ^ k, 13) * 5 + 0xe6546b64;
+            }
+            h ^= key.length();
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            return h ^ (h >>> 16);
+        }
+    }
+}
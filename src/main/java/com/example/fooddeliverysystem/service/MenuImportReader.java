@@ -0,0 +1,184 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.MenuImportRow;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental reader of a bulk menu import document, one menu item row at a time, so the document
+ * is never held in memory. Both formats carry the columns foodCategoryName, name, ingredients,
+ * price and timeToCook:
+ * <ul>
+ *     <li>json: an array of objects with those fields</li>
+ *     <li>csv: a header row naming those columns (in any order), then one row per menu item,
+ *     with fields containing commas, quotes or line breaks between double quotes</li>
+ * </ul>
+ * An IOException means the document can not be read any further.
+ */
+abstract class MenuImportReader {
+
+    static final String FOOD_CATEGORY_NAME = "foodCategoryName";
+    static final String NAME = "name";
+    static final String INGREDIENTS = "ingredients";
+    static final String PRICE = "price";
+    static final String TIME_TO_COOK = "timeToCook";
+
+    protected long row;
+
+    static MenuImportReader json(InputStream body, ObjectMapper objectMapper) throws IOException {
+        return new Json(objectMapper.getFactory().createParser(body));
+    }
+
+    static MenuImportReader csv(InputStream body) throws IOException {
+        return new Csv(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * The next row, or null once the document ends.
+     */
+    abstract MenuImportRow next() throws IOException;
+
+    long getRow() {
+        return row;
+    }
+
+    private static final class Json extends MenuImportReader {
+
+        private final JsonParser parser;
+
+        private Json(JsonParser parser) throws IOException {
+            this.parser = parser;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("The document must be a json array of menu items.");
+            }
+        }
+
+        @Override
+        MenuImportRow next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                return null;
+            }
+            row++;
+            if (token != JsonToken.START_OBJECT) {
+                // a scalar or an array in place of a menu item, skipped whole
+                parser.skipChildren();
+                return new MenuImportRow(row, null, null, null, null, null);
+            }
+            JsonNode item = parser.readValueAsTree();
+            return new MenuImportRow(row, text(item, FOOD_CATEGORY_NAME), text(item, NAME),
+                    text(item, INGREDIENTS), text(item, PRICE), text(item, TIME_TO_COOK));
+        }
+
+        private static String text(JsonNode item, String field) {
+            JsonNode value = item.get(field);
+            return value == null || value.isNull() || value.isContainerNode() ? null : value.asText();
+        }
+    }
+
+    private static final class Csv extends MenuImportReader {
+
+        private final Reader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private boolean ended;
+
+        private Csv(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IOException("The csv document must start with a header row.");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String column : List.of(FOOD_CATEGORY_NAME, NAME, INGREDIENTS, PRICE, TIME_TO_COOK)) {
+                if (!columns.containsKey(column.toLowerCase(Locale.ROOT))) {
+                    throw new IOException("The csv header has no " + column + " column.");
+                }
+            }
+        }
+
+        @Override
+        MenuImportRow next() throws IOException {
+            List<String> record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            row++;
+            return new MenuImportRow(row, field(record, FOOD_CATEGORY_NAME), field(record, NAME),
+                    field(record, INGREDIENTS), field(record, PRICE), field(record, TIME_TO_COOK));
+        }
+
+        private String field(List<String> record, String column) {
+            int index = columns.get(column.toLowerCase(Locale.ROOT));
+            return index < record.size() ? record.get(index) : null;
+        }
+
+        // the next non empty record, or null at the end of the document
+        private List<String> readRecord() throws IOException {
+            while (!ended) {
+                List<String> record = new ArrayList<>();
+                StringBuilder field = new StringBuilder();
+                boolean quoted = false;
+                boolean wasQuoted = false;
+                while (true) {
+                    int c = reader.read();
+                    if (c == -1) {
+                        if (quoted) {
+                            throw new IOException("A quoted csv field is not closed.");
+                        }
+                        ended = true;
+                        break;
+                    }
+                    if (quoted) {
+                        if (c != '"') {
+                            field.append((char) c);
+                        } else if (peek() == '"') {
+                            reader.read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                        quoted = true;
+                        wasQuoted = true;
+                    } else if (c == ',') {
+                        record.add(field.toString());
+                        field.setLength(0);
+                        wasQuoted = false;
+                    } else if (c == '\n') {
+                        break;
+                    } else if (c != '\r') {
+                        field.append((char) c);
+                    }
+                }
+                record.add(field.toString());
+                if (record.size() > 1 || !record.get(0).isBlank()) {
+                    return record;
+                }
+            }
+            return null;
+        }
+
+        private int peek() throws IOException {
+            reader.mark(1);
+            int c = reader.read();
+            reader.reset();
+            return c;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.MenuImportReport;
+
+import java.io.InputStream;
+
+public interface MenuImportService {
+
+    MenuImportReport importRestaurantMenuJson(Long restaurantId, InputStream body);
+
+    MenuImportReport importRestaurantMenuCsv(Long restaurantId, InputStream body);
+}
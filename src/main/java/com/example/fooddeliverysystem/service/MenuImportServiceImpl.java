@@ -0,0 +1,237 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.MenuImportReport;
+import com.example.fooddeliverysystem.dto.MenuImportRow;
+import com.example.fooddeliverysystem.exceptions.restaurant.InvalidMenuDocumentException;
+import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantNotFoundByIdException;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.repo.MenuImportBatchRepo;
+import com.example.fooddeliverysystem.repo.MenuImportBatchRepo.FoodCategoryRef;
+import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class MenuImportServiceImpl implements MenuImportService {
+
+    private final RestaurantRepo restaurantRepo;
+    private final MenuImportBatchRepo menuImportBatchRepo;
+    private final CatalogCache catalogCache;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public MenuImportServiceImpl(RestaurantRepo restaurantRepo, MenuImportBatchRepo menuImportBatchRepo,
+                                 CatalogCache catalogCache, ObjectMapper objectMapper,
+                                 @Value("${catalog.import.batch-size:500}") int batchSize) {
+        this.restaurantRepo = restaurantRepo;
+        this.menuImportBatchRepo = menuImportBatchRepo;
+        this.catalogCache = catalogCache;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public MenuImportReport importRestaurantMenuJson(Long restaurantId, InputStream body) {
+        checkRestaurant(restaurantId);
+        MenuImportReport report = new MenuImportReport(restaurantId);
+        try {
+            importRows(restaurantId, MenuImportReader.json(body, objectMapper), report);
+        } catch (IOException e) {
+            throw new InvalidMenuDocumentException(0, e.getMessage());
+        }
+        return report;
+    }
+
+    @Override
+    @Transactional
+    public MenuImportReport importRestaurantMenuCsv(Long restaurantId, InputStream body) {
+        checkRestaurant(restaurantId);
+        MenuImportReport report = new MenuImportReport(restaurantId);
+        try {
+            importRows(restaurantId, MenuImportReader.csv(body), report);
+        } catch (IOException e) {
+            throw new InvalidMenuDocumentException(0, e.getMessage());
+        }
+        return report;
+    }
+
+    private void checkRestaurant(Long restaurantId) {
+        if (!restaurantRepo.existsById(restaurantId)) {
+            throw new RestaurantNotFoundByIdException(restaurantId);
+        }
+    }
+
+    // reads and writes the rows chunk by chunk, a row that can not be imported is reported and skipped;
+    // a document that can not be read to its end rolls the whole import back
+    private void importRows(Long restaurantId, MenuImportReader reader, MenuImportReport report) {
+        Map<String, FoodCategoryRef> foodCategories = new HashMap<>();
+        Set<String> importedNames = new HashSet<>();
+        List<ValidRow> chunk = new ArrayList<>(batchSize);
+
+        while (true) {
+            MenuImportRow row;
+            try {
+                row = reader.next();
+            } catch (IOException e) {
+                throw new InvalidMenuDocumentException(reader.getRow() + 1, e.getMessage());
+            }
+            if (row == null) {
+                break;
+            }
+
+            ValidRow validRow = validate(row, report);
+            if (validRow == null) {
+                continue;
+            }
+            if (!importedNames.add(validRow.menuItem().getName())) {
+                report.rejected(row.getRow(), "The menu item " + validRow.menuItem().getName()
+                        + " appears more than once in the document.");
+                continue;
+            }
+            chunk.add(validRow);
+            if (chunk.size() == batchSize) {
+                writeChunk(restaurantId, chunk, foodCategories, report);
+                chunk.clear();
+            }
+        }
+        writeChunk(restaurantId, chunk, foodCategories, report);
+
+        if (report.getImportedMenuItems() > 0 || report.getCreatedFoodCategories() > 0) {
+            catalogCache.evictMenuImport(restaurantId);
+        }
+    }
+
+    // the constraints and messages of the FoodCategory and MenuItem entities
+    private ValidRow validate(MenuImportRow row, MenuImportReport report) {
+        List<String> messages = new ArrayList<>();
+        String foodCategoryName = trim(row.getFoodCategoryName());
+        String name = trim(row.getName());
+        String ingredients = trim(row.getIngredients());
+        BigDecimal price = number(row.getPrice(), "price", messages);
+        BigDecimal timeToCook = number(row.getTimeToCook(), "timeToCook", messages);
+
+        if (isBlank(foodCategoryName)) {
+            messages.add("The name of the food category should not be blank.");
+        }
+        if (isBlank(name)) {
+            messages.add("The name of the menu item cannot be null.");
+        }
+        if (isBlank(ingredients)) {
+            messages.add("The ingredients of the menu item cannot be null.");
+        }
+        if (isBlank(row.getPrice())) {
+            messages.add("The price of the menu item cannot be null.");
+        } else if (price != null && price.compareTo(BigDecimal.ONE) < 0) {
+            messages.add("The price of the menu item must be bigger than 0.");
+        }
+        if (isBlank(row.getTimeToCook())) {
+            messages.add("The timeToCook of the menu item cannot be null.");
+        } else if (timeToCook != null && timeToCook.compareTo(BigDecimal.TEN) < 0) {
+            messages.add("TimeToCook must be at least 10 minutes.");
+        }
+
+        if (!messages.isEmpty()) {
+            report.rejected(row.getRow(), String.join(" ", messages));
+            return null;
+        }
+        MenuItem menuItem = MenuItem.builder()
+                .name(name)
+                .ingredients(ingredients)
+                .price(price)
+                .timeToCook(timeToCook)
+                .build();
+        return new ValidRow(row.getRow(), foodCategoryName, menuItem);
+    }
+
+    // null for a missing value, and for a value that is not a number after reporting it
+    private static BigDecimal number(String value, String field, List<String> messages) {
+        if (isBlank(value)) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return new BigDecimal(trimmed);
+        } catch (NumberFormatException e) {
+            messages.add("The " + field + " " + trimmed + " is not a number.");
+            return null;
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private void writeChunk(Long restaurantId, List<ValidRow> chunk, Map<String, FoodCategoryRef> foodCategories,
+                            MenuImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<String> existingNames = menuImportBatchRepo.searchExistingMenuItemNames(
+                chunk.stream().map(row -> row.menuItem().getName()).collect(Collectors.toSet()));
+
+        List<ValidRow> newRows = new ArrayList<>(chunk.size());
+        for (ValidRow row : chunk) {
+            if (existingNames.contains(row.menuItem().getName())) {
+                report.rejected(row.row(), "The menu item " + row.menuItem().getName() + " already exists.");
+            } else {
+                newRows.add(row);
+            }
+        }
+
+        Set<String> unknownCategories = new LinkedHashSet<>();
+        for (ValidRow row : newRows) {
+            if (!foodCategories.containsKey(row.foodCategoryName())) {
+                unknownCategories.add(row.foodCategoryName());
+            }
+        }
+        foodCategories.putAll(menuImportBatchRepo.searchFoodCategoriesByName(unknownCategories));
+        unknownCategories.removeAll(foodCategories.keySet());
+        foodCategories.putAll(menuImportBatchRepo.insertFoodCategories(unknownCategories, restaurantId));
+        report.createdFoodCategories(unknownCategories.size());
+
+        List<Object[]> menuItemRows = new ArrayList<>(newRows.size());
+        for (ValidRow row : newRows) {
+            MenuItem menuItem = row.menuItem();
+            FoodCategoryRef foodCategory = foodCategories.get(row.foodCategoryName());
+            if (!restaurantId.equals(foodCategory.restaurantId())) {
+                // food category names are unique across restaurants (uk_food_category_name)
+                report.rejected(row.row(), "The food category " + row.foodCategoryName()
+                        + " belongs to another restaurant.");
+                continue;
+            }
+
+            menuItemRows.add(new Object[]{
+                    foodCategory.foodCategoryId(),
+                    menuItem.getName(),
+                    menuItem.getIngredients(),
+                    menuItem.getPrice(),
+                    menuItem.getTimeToCook()
+            });
+        }
+        menuImportBatchRepo.insertMenuItems(menuItemRows);
+        report.imported(menuItemRows.size());
+    }
+
+    private record ValidRow(long row, String foodCategoryName, MenuItem menuItem) {
+    }
+}
@@ -0,0 +1,381 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.MenuItemSearchHit;
+import com.example.fooddeliverysystem.dto.MenuItemSearchRow;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Node local inverted index over the names and ingredients of the menu items, ranking matches by
+ * term rarity (BM25 idf) with name matches weighted above ingredient matches.
+ * <p>
+ * It is built from one streamed select on the first search and kept up to date by the writes of
+ * MenuItemServiceImpl once they commit. Changes of food categories, restaurants and cities (which
+ * the index copies the ids of, and whose deletes cascade to the menu items) only mark it stale, so
+ * it is rebuilt on the next search. A rebuild fills a new index without holding any lock and
+ * publishes it in one swap; until then the searches are answered by the previous one.
+ * <p>
+ * The writes only reach the index of the node that made them. Every node also rebuilds its index once
+ * it is older than search.index.max-age-seconds (5 minutes by default), which bounds how long a
+ * search can miss a change made on another node.
+ * <p>
+ * It stays in process because it folds case and diacritics the same way on H2 and on PostgreSQL and
+ * ranks without a round trip. A catalog too large for the memory of a node would move to a tsvector
+ * column with a GIN index, added by a migration under db/vendor/postgresql.
+ */
+@Component
+public class MenuItemSearchIndex {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int INGREDIENT_WEIGHT = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final MenuItemRepo menuItemRepo;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long maxAgeMillis;
+    private final Clock clock;
+
+    // one rebuild at a time
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // the changes committed while a rebuild streams the menu items, replayed on the new index before it is published
+    private final List<Consumer<Index>> pendingChanges = new ArrayList<>();
+    private boolean rebuilding;
+    // null until the first search built it
+    private volatile Index index;
+    private volatile boolean stale = true;
+    // when the select of the current index started, the writes of other nodes after it are missing
+    private volatile long builtAtMillis;
+
+    @Autowired
+    public MenuItemSearchIndex(MenuItemRepo menuItemRepo, PlatformTransactionManager transactionManager,
+                               @Value("${search.index.max-age-seconds:300}") long maxAgeSeconds) {
+        this(menuItemRepo, transactionManager, maxAgeSeconds, Clock.systemDefaultZone());
+    }
+
+    public MenuItemSearchIndex(MenuItemRepo menuItemRepo, PlatformTransactionManager transactionManager,
+                               long maxAgeSeconds, Clock clock) {
+        this.menuItemRepo = menuItemRepo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxAgeMillis = TimeUnit.SECONDS.toMillis(maxAgeSeconds);
+        this.clock = clock;
+    }
+
+    /**
+     * Returns at most limit menu items matching any term of the query, best first, optionally only
+     * the ones of a restaurant and/or a city.
+     */
+    public List<MenuItemSearchHit> search(String query, Long restaurantId, Long cityId, int limit) {
+        String[] terms = Arrays.stream(tokenize(query)).distinct().toArray(String[]::new);
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (terms.length == 0) {
+            return List.of();
+        }
+        return ensureBuilt().search(terms, restaurantId, cityId, size);
+    }
+
+    /**
+     * Adds or replaces the menu item once the current transaction commits.
+     */
+    public void index(MenuItem menuItem) {
+        FoodCategory foodCategory = menuItem.getFoodCategory();
+        Restaurant restaurant = foodCategory == null ? null : foodCategory.getRestaurantMenu();
+        if (foodCategory != null && (foodCategory.getFoodCategoryId() == null || restaurant == null)) {
+            // only a reference to the food category was sent, its restaurant and city are read on the rebuild
+            invalidate();
+            return;
+        }
+
+        MenuItemSearchRow document = new MenuItemSearchRow(menuItem.getMenuItemId(), menuItem.getName(),
+                menuItem.getIngredients(), menuItem.getPrice(),
+                foodCategory == null ? null : foodCategory.getFoodCategoryId(),
+                restaurant == null ? null : restaurant.getRestaurantId(),
+                restaurant == null || restaurant.getCity() == null ? null : restaurant.getCity().getCityId());
+        afterCommit(() -> write(searchIndex -> searchIndex.put(document)));
+    }
+
+    /**
+     * Removes the menu item once the current transaction commits.
+     */
+    public void remove(Long menuItemId) {
+        afterCommit(() -> write(searchIndex -> searchIndex.delete(menuItemId)));
+    }
+
+    /**
+     * Marks the index stale once the current transaction commits, it is rebuilt on the next search.
+     */
+    public void invalidate() {
+        afterCommit(() -> stale = true);
+    }
+
+    public int size() {
+        Index current = index;
+        return current == null ? 0 : current.size();
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(NON_WORD.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static boolean inScope(MenuItemSearchRow document, Long restaurantId, Long cityId) {
+        return (restaurantId == null || restaurantId.equals(document.getRestaurantId()))
+                && (cityId == null || cityId.equals(document.getCityId()));
+    }
+
+    private Index ensureBuilt() {
+        Index current = index;
+        if (!stale && current != null && !expired()) {
+            return current;
+        }
+        // only the first search waits for the index, the next ones keep the previous index while another rebuilds it
+        if (current == null) {
+            rebuildLock.lock();
+        } else if (!rebuildLock.tryLock()) {
+            return current;
+        }
+        try {
+            if (stale || index == null || expired()) {
+                rebuild();
+            }
+            return index;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        synchronized (pendingChanges) {
+            // cleared before the select, so a write committed while it runs is in the result or replayed after it
+            stale = false;
+            builtAtMillis = clock.millis();
+            rebuilding = true;
+            pendingChanges.clear();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<MenuItemSearchRow> rows = menuItemRepo.streamMenuItemSearchRows()) {
+                    rows.forEach(rebuilt::put);
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (pendingChanges) {
+                rebuilding = false;
+                pendingChanges.clear();
+            }
+            stale = true;
+            throw e;
+        }
+
+        synchronized (pendingChanges) {
+            // replaying a change the select already saw leaves the same document behind
+            pendingChanges.forEach(rebuilt::apply);
+            rebuilding = false;
+            pendingChanges.clear();
+            index = rebuilt;
+        }
+    }
+
+    private boolean expired() {
+        return clock.millis() - builtAtMillis >= maxAgeMillis;
+    }
+
+    private void write(Consumer<Index> change) {
+        synchronized (pendingChanges) {
+            if (rebuilding) {
+                pendingChanges.add(change);
+            }
+            Index current = index;
+            if (current != null && current.apply(change)) {
+                stale = true;
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Index {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // documents by ordinal, a removed or replaced document leaves a null behind until the next rebuild
+        private final List<MenuItemSearchRow> documents = new ArrayList<>();
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private int removed;
+
+        private List<MenuItemSearchHit> search(String[] terms, Long restaurantId, Long cityId, int size) {
+            lock.readLock().lock();
+            try {
+                int live = documents.size() - removed;
+                Postings[] termPostings = new Postings[terms.length];
+                double[] idfs = new double[terms.length];
+                int termCount = 0;
+                for (String term : terms) {
+                    Postings matching = postings.get(term);
+                    if (matching == null) {
+                        continue;
+                    }
+                    int df = Math.min(matching.size, live);
+                    termPostings[termCount] = matching;
+                    idfs[termCount++] = Math.log(1 + (live - df + 0.5) / (df + 0.5));
+                }
+
+                // the worst of the best hits found so far on top, evicted by any better one
+                Comparator<MenuItemSearchHit> ranking = Comparator.comparingDouble(MenuItemSearchHit::getScore)
+                        .thenComparing(hit -> hit.getMenuItem().getMenuItemId(), Comparator.reverseOrder());
+                PriorityQueue<MenuItemSearchHit> best = new PriorityQueue<>(size + 1, ranking);
+
+                // the postings are ascending by ordinal, merging them visits every matching document once
+                int[] cursors = new int[termCount];
+                while (true) {
+                    int ordinal = Integer.MAX_VALUE;
+                    for (int t = 0; t < termCount; t++) {
+                        if (cursors[t] < termPostings[t].size) {
+                            ordinal = Math.min(ordinal, termPostings[t].ordinals[cursors[t]]);
+                        }
+                    }
+                    if (ordinal == Integer.MAX_VALUE) {
+                        break;
+                    }
+                    double score = 0;
+                    for (int t = 0; t < termCount; t++) {
+                        if (cursors[t] < termPostings[t].size && termPostings[t].ordinals[cursors[t]] == ordinal) {
+                            score += idfs[t] * termPostings[t].weights[cursors[t]++];
+                        }
+                    }
+
+                    MenuItemSearchRow document = documents.get(ordinal);
+                    if (document == null || !inScope(document, restaurantId, cityId)
+                            || (best.size() == size && score < best.peek().getScore())) {
+                        continue;
+                    }
+                    best.add(new MenuItemSearchHit(document, score));
+                    if (best.size() > size) {
+                        best.poll();
+                    }
+                }
+
+                List<MenuItemSearchHit> hits = new ArrayList<>(best);
+                hits.sort(ranking.reversed());
+                return hits;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // true once the removed documents are the majority, the index is then better rebuilt
+        private boolean apply(Consumer<Index> change) {
+            lock.writeLock().lock();
+            try {
+                change.accept(this);
+                return removed > documents.size() / 2;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private int size() {
+            lock.readLock().lock();
+            try {
+                return documents.size() - removed;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void put(MenuItemSearchRow document) {
+            delete(document.getMenuItemId());
+
+            int ordinal = documents.size();
+            documents.add(document);
+            ordinals.put(document.getMenuItemId(), ordinal);
+
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            for (String term : tokenize(document.getName())) {
+                weights.merge(term, NAME_WEIGHT, Integer::sum);
+            }
+            for (String term : tokenize(document.getIngredients())) {
+                weights.merge(term, INGREDIENT_WEIGHT, Integer::sum);
+            }
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new Postings()).add(ordinal, weight));
+        }
+
+        // the removed ordinals are skipped by the searches until the next rebuild
+        private void delete(Long menuItemId) {
+            Integer ordinal = ordinals.remove(menuItemId);
+            if (ordinal == null) {
+                return;
+            }
+            documents.set(ordinal, null);
+            removed++;
+        }
+    }
+
+    // ordinals of the documents containing a term, ascending, with the weight of the term in each
+    private static final class Postings {
+
+        private int[] ordinals = new int[4];
+        private short[] weights = new short[4];
+        private int size;
+
+        private void add(int ordinal, int weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = (short) Math.min(weight, Short.MAX_VALUE);
+            size++;
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.fooddeliverysystem.service;
 
+import com.example.fooddeliverysystem.dto.MenuItemSearchHit;
 import com.example.fooddeliverysystem.model.MenuItem;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 public interface MenuItemService {
@@ -12,11 +12,13 @@ public interface MenuItemService {
 
     MenuItem getMenuItemById(Long menuitemId);
 
+    List<MenuItemSearchHit> searchMenuItems(String query, Long restaurantId, Long cityId, int limit);
+
     List<MenuItem> getAllMenuItems();
 
     void addNewMenuItemToFoodCategory(MenuItem menuItem, Long foodCategoryId);
 
     void deleteMenuItem(Long menuitemId);
 
-    void updateMenuItem(Long menuitemId, MenuItem menuItem) throws InvocationTargetException, IllegalAccessException, NoSuchMethodException;
+    void updateMenuItem(Long menuitemId, MenuItem menuItem);
 }
@@ -1,6 +1,7 @@
 package com.example.fooddeliverysystem.service;
 
 
+import com.example.fooddeliverysystem.dto.MenuItemSearchHit;
 import com.example.fooddeliverysystem.exceptions.foodcategory.FoodCategoryNotFoundByIdException;
 import com.example.fooddeliverysystem.exceptions.menuitem.MenuItemAlreadyExistsException;
 import com.example.fooddeliverysystem.exceptions.menuitem.MenuItemNotFoundByIdException;
@@ -8,12 +9,11 @@ import com.example.fooddeliverysystem.model.FoodCategory;
 import com.example.fooddeliverysystem.model.MenuItem;
 import com.example.fooddeliverysystem.repo.FoodCategoryRepo;
 import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.apache.commons.beanutils.PropertyUtils;
 
 import java.awt.*;
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,19 +22,29 @@ public class MenuItemServiceImpl implements MenuItemService {
 
     private final MenuItemRepo menuItemRepo;
     private final FoodCategoryRepo foodCategoryRepo;
+    private final CatalogCache catalogCache;
+    private final MenuItemSearchIndex menuItemSearchIndex;
+    private final NonNullPropertyCopier nonNullPropertyCopier;
 
-    public MenuItemServiceImpl(MenuItemRepo menuItemRepo, FoodCategoryRepo foodCategoryRepo) {
+    public MenuItemServiceImpl(MenuItemRepo menuItemRepo, FoodCategoryRepo foodCategoryRepo,
+                               CatalogCache catalogCache, MenuItemSearchIndex menuItemSearchIndex,
+                               NonNullPropertyCopier nonNullPropertyCopier) {
         this.menuItemRepo = menuItemRepo;
         this.foodCategoryRepo = foodCategoryRepo;
+        this.catalogCache = catalogCache;
+        this.menuItemSearchIndex = menuItemSearchIndex;
+        this.nonNullPropertyCopier = nonNullPropertyCopier;
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.CATALOG_LISTS, key = "T(com.example.fooddeliverysystem.service.CatalogCache).ALL_MENU_ITEMS")
     public List<MenuItem> getAllMenuItems() {
         return menuItemRepo.findAll();
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CatalogCache.MENU_ITEMS_BY_FOOD_CATEGORY, key = "#foodcategoryid")
     public List<MenuItem> searchMenuItemsByFoodCategory(Long foodcategoryid) {
 
         foodCategoryRepo.findById(foodcategoryid)
@@ -45,6 +55,12 @@ public class MenuItemServiceImpl implements MenuItemService {
     }
 
     @Override
+    public List<MenuItemSearchHit> searchMenuItems(String query, Long restaurantId, Long cityId, int limit) {
+        return menuItemSearchIndex.search(query, restaurantId, cityId, limit);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CatalogCache.MENU_ITEMS, key = "#menuitemId")
     public MenuItem getMenuItemById(Long menuitemId) {
         return menuItemRepo.findById(menuitemId)
                 .orElseThrow(() -> new MenuItemNotFoundByIdException(menuitemId));
@@ -58,7 +74,11 @@ public class MenuItemServiceImpl implements MenuItemService {
                 (x) -> {
                     throw new MenuItemAlreadyExistsException(x.getName());
                 },
-                () -> menuItemRepo.save(menuItem)
+                () -> {
+                    menuItemRepo.save(menuItem);
+                    catalogCache.evictMenuItemLists(menuItem);
+                    menuItemSearchIndex.index(menuItem);
+                }
         );
     }
 
@@ -78,39 +98,33 @@ public class MenuItemServiceImpl implements MenuItemService {
 
                     menuItem.setFoodCategory(foodCategory);
                     menuItemRepo.save(menuItem);
+                    catalogCache.evictMenuItemLists(menuItem);
+                    menuItemSearchIndex.index(menuItem);
                 }
         );
     }
 
     @Override
+    @Transactional
     public void deleteMenuItem(Long menuitemId) {
+        Optional<MenuItem> menuItem = menuItemRepo.findById(menuitemId);
         menuItemRepo.deleteById(menuitemId);
-    }
-
-    public void copyNonNullAttr(MenuItem toBeUpdatedMenuItem, MenuItem menuItem)
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
-
-        PropertyUtils.describe(menuItem).entrySet()
-                .stream()
-                .filter(entry -> entry.getValue() != null)
-                .forEach(entry -> {
-                    try {
-                        PropertyUtils.setProperty(toBeUpdatedMenuItem, entry.getKey(), entry.getValue());
-                    } catch (Exception e) {
-                        throw new RuntimeException("Menu Item sent via HTTP can not be mapped to MenuItem from the db.");
-                    }
-                });
+        menuItem.ifPresent(catalogCache::evictMenuItem);
+        menuItemSearchIndex.remove(menuitemId);
     }
 
     @Override
     @Transactional
-    public void updateMenuItem(Long menuitemId, MenuItem menuItem)
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
+    public void updateMenuItem(Long menuitemId, MenuItem menuItem) {
 
         MenuItem toBeUpdatedMenuItem = menuItemRepo.findById(menuitemId)
                 .orElseThrow(() -> new MenuItemNotFoundByIdException(menuitemId));
 
-        this.copyNonNullAttr(toBeUpdatedMenuItem, menuItem);
+        // the update can move the item to another food category, both lists are evicted
+        catalogCache.evictMenuItem(toBeUpdatedMenuItem);
+        nonNullPropertyCopier.copyNonNullProperties(menuItem, toBeUpdatedMenuItem);
+        catalogCache.evictMenuItem(toBeUpdatedMenuItem);
+        menuItemSearchIndex.index(toBeUpdatedMenuItem);
     }
 
 }
@@ -0,0 +1,105 @@
+package com.example.fooddeliverysystem.service;
+
+import org.springframework.stereotype.Component;
+
+import javax.persistence.Id;
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Partial update (merge patch) of entities: copies every non null property of the object sent via
+ * HTTP onto the entity from the db. The getter / setter pairs of a type are introspected once and
+ * bound to lambdas through LambdaMetafactory, so a copy is plain interface calls with no reflection
+ * and no intermediate property map. Read only properties and the @Id are left untouched.
+ */
+@Component
+public class NonNullPropertyCopier {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final ClassValue<PropertyAccessor[]> accessors = new ClassValue<>() {
+        @Override
+        protected PropertyAccessor[] computeValue(Class<?> type) {
+            return introspect(type);
+        }
+    };
+
+    public <T> void copyNonNullProperties(T source, T target) {
+        for (PropertyAccessor accessor : accessors.get(source.getClass())) {
+            Object value = accessor.getter().apply(source);
+            if (value != null) {
+                accessor.setter().accept(target, value);
+            }
+        }
+    }
+
+    private static PropertyAccessor[] introspect(Class<?> type) {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(type, Object.class);
+            List<PropertyAccessor> accessors = new ArrayList<>();
+            for (PropertyDescriptor property : beanInfo.getPropertyDescriptors()) {
+                Method read = property.getReadMethod();
+                Method write = property.getWriteMethod();
+                if (read == null || write == null || isId(type, property.getName())) {
+                    continue;
+                }
+                accessors.add(new PropertyAccessor(getter(read), setter(write)));
+            }
+            return accessors.toArray(PropertyAccessor[]::new);
+        } catch (Throwable e) {
+            throw new IllegalStateException("The properties of " + type.getName() + " can not be bound.", e);
+        }
+    }
+
+    private static boolean isId(Class<?> type, String propertyName) {
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(propertyName)) {
+                    return field.isAnnotationPresent(Id.class);
+                }
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Method read) throws Throwable {
+        MethodHandle handle = LOOKUP.unreflect(read);
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                MethodType.methodType(boxed(read.getReturnType()), read.getDeclaringClass()));
+        return (Function<Object, Object>) callSite.getTarget().invoke();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Method write) throws Throwable {
+        MethodHandle handle = LOOKUP.unreflect(write);
+        CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                MethodType.methodType(BiConsumer.class),
+                MethodType.methodType(void.class, Object.class, Object.class),
+                handle,
+                MethodType.methodType(void.class, write.getDeclaringClass(), boxed(write.getParameterTypes()[0])));
+        return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private record PropertyAccessor(Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.PurchasePlacement;
+import com.example.fooddeliverysystem.exceptions.purchase.InvalidIdempotencyKeyException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIdempotencyKeyInUseException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIdempotencyKeyReusedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node local memory of the Idempotency-Key headers seen on purchase placement, bounded to
+ * purchase.idempotency.max-entries keys kept for purchase.idempotency.ttl-minutes. Keys belong to
+ * the customer who sent them and come with the hash of the request they were sent with. A repeated
+ * key is answered from here without pricing the purchase again; keys this node has not seen (or has
+ * already evicted) fall back to the (customer_id, idempotency_key) unique constraint of the purchase table.
+ */
+@Component
+public class PurchaseIdempotencyStore {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // insertion ordered with a fixed ttl, so the entries expire from the head
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+    public PurchaseIdempotencyStore(@Value("${purchase.idempotency.max-entries:100000}") int maxEntries,
+                                    @Value("${purchase.idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MINUTES.toNanos(ttlMinutes);
+    }
+
+    /**
+     * Claims the key of the customer for a new placement and returns null, or returns the replayed
+     * outcome of the placement that already used it with the same request.
+     */
+    public PurchasePlacement begin(Long customerId, String idempotencyKey, String requestHash) {
+        requireValidKey(idempotencyKey);
+
+        long now = System.nanoTime();
+        synchronized (entries) {
+            evictExpired(now);
+            Key key = new Key(customerId, idempotencyKey);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.requestHash().equals(requestHash)) {
+                    throw new PurchaseIdempotencyKeyReusedException(idempotencyKey);
+                }
+                if (entry.placement() == null) {
+                    throw new PurchaseIdempotencyKeyInUseException(idempotencyKey);
+                }
+                return entry.placement().asReplay();
+            }
+            entries.put(key, new Entry(null, requestHash, now + ttlNanos));
+            if (entries.size() > maxEntries) {
+                Iterator<Key> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+            return null;
+        }
+    }
+
+    public static void requireValidKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(MAX_KEY_LENGTH);
+        }
+    }
+
+    public void complete(Long customerId, String idempotencyKey, PurchasePlacement placement) {
+        synchronized (entries) {
+            Key key = new Key(customerId, idempotencyKey);
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entries.put(key, new Entry(placement, entry.requestHash(), entry.expiresAt()));
+            }
+        }
+    }
+
+    // a failed placement gives the key back so that the client can retry it
+    public void abandon(Long customerId, String idempotencyKey) {
+        synchronized (entries) {
+            Key key = new Key(customerId, idempotencyKey);
+            Entry entry = entries.get(key);
+            if (entry != null && entry.placement() == null) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue().expiresAt() - now <= 0) {
+            iterator.remove();
+        }
+    }
+
+    private record Key(Long customerId, String idempotencyKey) {
+    }
+
+    private record Entry(PurchasePlacement placement, String requestHash, long expiresAt) {
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.PurchaseIntakeReceipt;
+import com.example.fooddeliverysystem.dto.PurchaseTrackingEvent;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIntakeNotFoundByTrackingIdException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIntakeQueueFullException;
+import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.repo.PurchaseBatchRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in asynchronous intake for new purchases (purchase.intake.async-enabled=true).
+ * Request threads only price the purchase and offer it to a bounded queue; a single writer
+ * thread drains the queue and persists the purchases in JDBC batches of up to
+ * purchase.intake.batch-size, waiting at most purchase.intake.linger-ms for a batch to fill.
+ */
+@Component
+public class PurchaseIntakeQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseIntakeQueue.class);
+
+    private static final int MAX_TRACKED_RECEIPTS = 100_000;
+
+    private final PurchaseBatchRepo purchaseBatchRepo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long lingerMillis;
+
+    private final BlockingQueue<PendingPurchase> queue;
+    private final Map<String, PurchaseIntakeReceipt> receipts = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PurchaseIntakeReceipt> eldest) {
+                    return size() > MAX_TRACKED_RECEIPTS;
+                }
+            });
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public PurchaseIntakeQueue(PurchaseBatchRepo purchaseBatchRepo, ApplicationEventPublisher eventPublisher,
+                               @Value("${purchase.intake.async-enabled:false}") boolean enabled,
+                               @Value("${purchase.intake.capacity:10000}") int capacity,
+                               @Value("${purchase.intake.batch-size:200}") int batchSize,
+                               @Value("${purchase.intake.linger-ms:20}") long lingerMillis) {
+        this.purchaseBatchRepo = purchaseBatchRepo;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "purchase-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues the purchase and returns its tracking id. The onRejected callback runs if the purchase is
+     * not stored after all: when the queue is full, when it can not be written, and when the purchase
+     * was a retry of one already stored.
+     */
+    public String enqueue(Purchase purchase, Runnable onRejected) {
+        String trackingId = UUID.randomUUID().toString();
+        receipts.put(trackingId, new PurchaseIntakeReceipt(trackingId, PurchaseIntakeReceipt.Status.QUEUED, null));
+
+        if (!queue.offer(new PendingPurchase(trackingId, purchase, onRejected))) {
+            receipts.remove(trackingId);
+            onRejected.run();
+            throw new PurchaseIntakeQueueFullException(capacity);
+        }
+        return trackingId;
+    }
+
+    public PurchaseIntakeReceipt getReceipt(String trackingId) {
+        PurchaseIntakeReceipt receipt = receipts.get(trackingId);
+        if (receipt == null) {
+            throw new PurchaseIntakeNotFoundByTrackingIdException(trackingId);
+        }
+        return receipt;
+    }
+
+    private void drain() {
+        List<PendingPurchase> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPurchase first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // linger a little so that purchases arriving close together share one batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingPurchase next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<PendingPurchase> batch) {
+        try {
+            purchaseBatchRepo.insertPurchases(batch.stream().map(PendingPurchase::purchase).toList());
+            batch.forEach(this::markPersisted);
+        } catch (RuntimeException e) {
+            logger.warn("Batch of {} purchases could not be saved, retrying them one by one.", batch.size(), e);
+            // a single bad purchase must not take the rest of the batch down with it
+            for (PendingPurchase pendingPurchase : batch) {
+                try {
+                    purchaseBatchRepo.insertPurchases(List.of(pendingPurchase.purchase()));
+                    markPersisted(pendingPurchase);
+                } catch (RuntimeException ex) {
+                    pendingPurchase.onRejected().run();
+                    if (markDuplicate(pendingPurchase)) {
+                        continue;
+                    }
+                    logger.warn("Purchase with the tracking id {} could not be saved.", pendingPurchase.trackingId(), ex);
+                    receipts.put(pendingPurchase.trackingId(), new PurchaseIntakeReceipt(
+                            pendingPurchase.trackingId(), PurchaseIntakeReceipt.Status.FAILED, null));
+                }
+            }
+        }
+    }
+
+    // a retried placement whose Idempotency-Key the customer already stored for the same request resolves
+    // to the purchase stored first
+    private boolean markDuplicate(PendingPurchase pendingPurchase) {
+        Purchase purchase = pendingPurchase.purchase();
+        if (purchase.getIdempotencyKey() == null) {
+            return false;
+        }
+        return purchaseBatchRepo.searchIdempotentPurchase(purchase.getCustomer().getCustomerId(),
+                        purchase.getIdempotencyKey())
+                .filter(stored -> stored.getRequestHash() == null
+                        || stored.getRequestHash().equals(purchase.getIdempotencyRequestHash()))
+                .map(stored -> {
+                    receipts.put(pendingPurchase.trackingId(), new PurchaseIntakeReceipt(
+                            pendingPurchase.trackingId(), PurchaseIntakeReceipt.Status.PERSISTED,
+                            stored.getPurchaseId()));
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private void markPersisted(PendingPurchase pendingPurchase) {
+        receipts.put(pendingPurchase.trackingId(), new PurchaseIntakeReceipt(
+                pendingPurchase.trackingId(),
+                PurchaseIntakeReceipt.Status.PERSISTED,
+                pendingPurchase.purchase().getPurchaseId()));
+        eventPublisher.publishEvent(PurchaseTrackingEvent.of(pendingPurchase.purchase()));
+    }
+
+    private record PendingPurchase(String trackingId, Purchase purchase, Runnable onRejected) {
+    }
+}
@@ -1,16 +1,41 @@
 package com.example.fooddeliverysystem.service;
 
+import com.example.fooddeliverysystem.dto.DeliveryConfirmationDto;
+import com.example.fooddeliverysystem.dto.DeliveryConfirmationResult;
 import com.example.fooddeliverysystem.dto.PurchaseDto;
+import com.example.fooddeliverysystem.dto.PurchaseFilter;
+import com.example.fooddeliverysystem.dto.PurchaseIntakeReceipt;
+import com.example.fooddeliverysystem.dto.PurchasePage;
+import com.example.fooddeliverysystem.dto.PurchasePlacement;
+import com.example.fooddeliverysystem.dto.PurchaseRequestDto;
 import com.example.fooddeliverysystem.model.Purchase;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PurchaseService {
-    void addPurchase(PurchaseDto purchaseDto);
+    PurchasePlacement addPurchase(PurchaseDto purchaseDto, String idempotencyKey);
+
+    PurchasePlacement acceptPurchase(PurchaseDto purchaseDto, String idempotencyKey);
+
+    PurchasePlacement addPurchase(PurchaseRequestDto purchaseRequestDto, String customerName, String idempotencyKey);
+
+    PurchasePlacement acceptPurchase(PurchaseRequestDto purchaseRequestDto, String customerName,
+                                     String idempotencyKey);
+
+    PurchaseIntakeReceipt getIntakeReceipt(String trackingId);
 
     List<Purchase> getAllPurchases();
 
+    PurchaseFilter buildPurchaseFilter(Long restaurantId, Long customerId, String placedFrom, String placedTo);
+
+    PurchasePage getPurchasesPage(PurchaseFilter filter, String cursor, int size);
+
+    void forEachPurchase(PurchaseFilter filter, Consumer<Purchase> action);
+
     Purchase getPurchaseById(Long purchaseId);
 
     void updateActualDeliveryTime(Long purchaseId, String actualDeliveryTime);
+
+    List<DeliveryConfirmationResult> confirmDeliveries(List<DeliveryConfirmationDto> deliveryConfirmations);
 }
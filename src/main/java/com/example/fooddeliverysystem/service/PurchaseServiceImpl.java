@@ -1,82 +1,359 @@
 package com.example.fooddeliverysystem.service;
 
+import com.example.fooddeliverysystem.dto.DeliveryConfirmationDto;
+import com.example.fooddeliverysystem.dto.DeliveryConfirmationResult;
+import com.example.fooddeliverysystem.dto.IdempotentPurchase;
+import com.example.fooddeliverysystem.dto.PurchaseDeliveredEvent;
 import com.example.fooddeliverysystem.dto.PurchaseDto;
+import com.example.fooddeliverysystem.dto.PurchaseFilter;
+import com.example.fooddeliverysystem.dto.PurchaseIntakeReceipt;
+import com.example.fooddeliverysystem.dto.PurchaseItemDto;
+import com.example.fooddeliverysystem.dto.PurchasePage;
+import com.example.fooddeliverysystem.dto.PurchasePlacement;
+import com.example.fooddeliverysystem.dto.PurchaseRequestDto;
+import com.example.fooddeliverysystem.dto.PurchaseTrackingEvent;
 import com.example.fooddeliverysystem.exceptions.NoItemsWereSelectedException;
+import com.example.fooddeliverysystem.exceptions.customer.CustomerNotFoundByNameException;
+import com.example.fooddeliverysystem.exceptions.menuitem.MenuItemNotFoundByIdException;
 import com.example.fooddeliverysystem.exceptions.purchase.IncorrectDateFormatException;
+import com.example.fooddeliverysystem.exceptions.purchase.InvalidPurchaseCursorException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIdempotencyKeyReusedException;
 import com.example.fooddeliverysystem.exceptions.purchase.PurchaseNotFoundByIdException;
+import com.example.fooddeliverysystem.exceptions.purchase.TooManyDeliveryConfirmationsException;
+import com.example.fooddeliverysystem.model.Customer;
 import com.example.fooddeliverysystem.model.MenuItem;
 import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.model.PurchaseLine;
+import com.example.fooddeliverysystem.repo.CustomerRepo;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import com.example.fooddeliverysystem.repo.PurchaseBatchRepo;
 import com.example.fooddeliverysystem.repo.PurchaseRepo;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 
 @Service
 public class PurchaseServiceImpl implements PurchaseService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int MAX_DELIVERY_CONFIRMATIONS = 1000;
+
     private final PurchaseRepo purchaseRepo;
+    private final PurchaseBatchRepo purchaseBatchRepo;
+    private final MenuItemRepo menuItemRepo;
+    private final CustomerRepo customerRepo;
     private final DateTimeFormatter dateTimeFormatter;
+    private final PurchaseIntakeQueue purchaseIntakeQueue;
+    private final PurchaseIdempotencyStore purchaseIdempotencyStore;
+    private final KitchenLoadEtaEngine kitchenLoadEtaEngine;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PurchaseServiceImpl(PurchaseRepo purchaseRepo, DateTimeFormatter dateTimeFormatter) {
+    public PurchaseServiceImpl(PurchaseRepo purchaseRepo, PurchaseBatchRepo purchaseBatchRepo,
+                               MenuItemRepo menuItemRepo, CustomerRepo customerRepo,
+                               DateTimeFormatter dateTimeFormatter, PurchaseIntakeQueue purchaseIntakeQueue,
+                               PurchaseIdempotencyStore purchaseIdempotencyStore,
+                               KitchenLoadEtaEngine kitchenLoadEtaEngine, EntityManager entityManager,
+                               ApplicationEventPublisher eventPublisher) {
         this.purchaseRepo = purchaseRepo;
+        this.purchaseBatchRepo = purchaseBatchRepo;
+        this.menuItemRepo = menuItemRepo;
+        this.customerRepo = customerRepo;
         this.dateTimeFormatter = dateTimeFormatter;
+        this.purchaseIntakeQueue = purchaseIntakeQueue;
+        this.purchaseIdempotencyStore = purchaseIdempotencyStore;
+        this.kitchenLoadEtaEngine = kitchenLoadEtaEngine;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
     }
 
     private BigDecimal computeTimeToCook(Purchase purchase) {
-        MenuItem longestToCook = purchase.getMenuItems().stream()
+        MenuItem longestToCook = purchase.getPurchaseLines().stream()
+                .map(PurchaseLine::getMenuItem)
                 .max(Comparator.comparing(MenuItem::getTimeToCook))
                 .orElseThrow(NoItemsWereSelectedException::new);
         return longestToCook.getTimeToCook();
     }
 
     private void computeEstimatedDeliveryTime(Purchase purchase) {
-        // 30 minutes is the transportation time
-        purchase.setEstimatedDeliveryTime(
-                purchase.getPurchasePlacedTime().plusMinutes(30 + computeTimeToCook(purchase).intValue())
-        );
-//        return purchase;
+        // transportation time and the restaurant's current kitchen backlog are added by the engine, from the
+        // server clock rather than the placed time the client sent
+        purchase.setEstimatedDeliveryTime(kitchenLoadEtaEngine.placeOrder(
+                restaurantId(purchase),
+                computeTimeToCook(purchase).intValue()));
     }
-    @Override
-    public void addPurchase(PurchaseDto purchaseDto) {
 
-        Purchase purchase = new Purchase();
-        purchase.setRestaurant(purchaseDto.getRestaurant());
-        purchase.setCustomer(purchaseDto.getCustomer());
-        purchase.setMenuItems(purchaseDto.getMenuItems());
+    private static Long restaurantId(Purchase purchase) {
+        return purchase.getRestaurant() == null ? null : purchase.getRestaurant().getRestaurantId();
+    }
 
+    private LocalDateTime parsePurchasePlacedTime(String purchasePlacedTime) {
         //handling the purchasePlacedTime DATE
-        LocalDateTime realPurchasePlacedTime = null;
         try {
-            realPurchasePlacedTime = LocalDateTime
-                    .parse(purchaseDto.getPurchasePlacedTime(), dateTimeFormatter);
+            return LocalDateTime.parse(purchasePlacedTime, dateTimeFormatter);
         } catch (IncorrectDateFormatException e) {
             throw new IncorrectDateFormatException(
                     "The date should be in the format: yyyy-MM-dd HH:mm",
-                    purchaseDto.getPurchasePlacedTime(),
+                    purchasePlacedTime,
                     0
                     );
         }
-        purchase.setPurchasePlacedTime(realPurchasePlacedTime);
+    }
 
+    // one line per distinct menu item, ordering the same dish again only raises the quantity
+    private void addPurchaseLine(Map<Object, PurchaseLine> purchaseLines, Purchase purchase, MenuItem menuItem,
+                                 int quantity) {
+        Object key = menuItem.getMenuItemId() == null ? menuItem : menuItem.getMenuItemId();
+        PurchaseLine purchaseLine = purchaseLines.get(key);
+        if (purchaseLine != null) {
+            purchaseLine.setQuantity(purchaseLine.getQuantity() + quantity);
+            return;
+        }
+        purchaseLines.put(key, PurchaseLine.builder()
+                .purchase(purchase)
+                .menuItem(menuItem)
+                .menuItemId(menuItem.getMenuItemId())
+                .menuItemName(menuItem.getName())
+                .quantity(quantity)
+                .unitPrice(menuItem.getPrice())
+                .build());
+    }
 
+    private Purchase priceAndSchedule(Purchase purchase) {
         // setting the price of the order
-        Integer totalPrice = purchase.getMenuItems().stream()
-                .map((mi) -> mi.getPrice().intValue())
-                .reduce(0, Integer::sum);
+        BigDecimal totalPrice = purchase.getPurchaseLines().stream()
+                .map(line -> line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        purchase.setPrice(BigDecimal.valueOf(totalPrice));
+        purchase.setPrice(totalPrice);
 
         // setting the estimated arrival time
         computeEstimatedDeliveryTime(purchase);
 
-        purchaseRepo.save(purchase);
+        return purchase;
+    }
+
+    private Purchase buildPurchase(PurchaseDto purchaseDto) {
+
+        Purchase purchase = new Purchase();
+        purchase.setRestaurant(purchaseDto.getRestaurant());
+        purchase.setCustomer(purchaseDto.getCustomer());
+
+        Map<Object, PurchaseLine> purchaseLines = new LinkedHashMap<>();
+        purchaseDto.getMenuItems().forEach(menuItem -> addPurchaseLine(purchaseLines, purchase, menuItem, 1));
+        purchase.setPurchaseLines(new ArrayList<>(purchaseLines.values()));
+        purchase.setPurchasePlacedTime(parsePurchasePlacedTime(purchaseDto.getPurchasePlacedTime()));
+
+        return priceAndSchedule(purchase);
+    }
+
+    private Purchase buildPurchase(PurchaseRequestDto purchaseRequestDto, Customer customer) {
+
+        if (purchaseRequestDto.getItems() == null || purchaseRequestDto.getItems().isEmpty()) {
+            throw new NoItemsWereSelectedException();
+        }
+
+        // one query resolves the price and the time to cook of every ordered menu item
+        Set<Long> menuItemIds = purchaseRequestDto.getItems().stream()
+                .map(PurchaseItemDto::getMenuItemId)
+                .collect(Collectors.toSet());
+        Map<Long, MenuItem> menuItemsById = menuItemRepo
+                .searchMenuItemsOfRestaurant(purchaseRequestDto.getRestaurantId(), menuItemIds).stream()
+                .collect(Collectors.toMap(MenuItem::getMenuItemId, Function.identity()));
+
+        Purchase purchase = new Purchase();
+        Map<Object, PurchaseLine> purchaseLines = new LinkedHashMap<>();
+        for (PurchaseItemDto item : purchaseRequestDto.getItems()) {
+            MenuItem menuItem = menuItemsById.get(item.getMenuItemId());
+            if (menuItem == null) {
+                throw new MenuItemNotFoundByIdException(item.getMenuItemId());
+            }
+            addPurchaseLine(purchaseLines, purchase, menuItem, item.getQuantity() == null ? 1 : item.getQuantity());
+        }
+
+        purchase.setPurchaseLines(new ArrayList<>(purchaseLines.values()));
+        purchase.setRestaurant(purchase.getPurchaseLines().get(0).getMenuItem().getFoodCategory().getRestaurantMenu());
+        purchase.setCustomer(customer);
+        purchase.setPurchasePlacedTime(purchaseRequestDto.getPurchasePlacedTime() == null
+                ? LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES)
+                : parsePurchasePlacedTime(purchaseRequestDto.getPurchasePlacedTime()));
+
+        return priceAndSchedule(purchase);
+    }
+
+    @Override
+    public PurchasePlacement addPurchase(PurchaseDto purchaseDto, String idempotencyKey) {
+        return placeIdempotently(purchaseDto.getCustomer().getCustomerId(), idempotencyKey,
+                () -> requestHash(purchaseDto),
+                requestHash -> store(buildPurchase(purchaseDto), idempotencyKey, requestHash));
+    }
+
+    @Override
+    public PurchasePlacement acceptPurchase(PurchaseDto purchaseDto, String idempotencyKey) {
+        return placeIdempotently(purchaseDto.getCustomer().getCustomerId(), idempotencyKey,
+                () -> requestHash(purchaseDto),
+                requestHash -> enqueue(buildPurchase(purchaseDto), idempotencyKey, requestHash));
+    }
+
+    @Override
+    public PurchasePlacement addPurchase(PurchaseRequestDto purchaseRequestDto, String customerName,
+                                         String idempotencyKey) {
+        Customer customer = customerPlacing(customerName, idempotencyKey);
+        return placeIdempotently(customer.getCustomerId(), idempotencyKey,
+                () -> requestHash(purchaseRequestDto),
+                requestHash -> store(buildPurchase(purchaseRequestDto, customer), idempotencyKey, requestHash));
+    }
+
+    @Override
+    public PurchasePlacement acceptPurchase(PurchaseRequestDto purchaseRequestDto, String customerName,
+                                            String idempotencyKey) {
+        Customer customer = customerPlacing(customerName, idempotencyKey);
+        return placeIdempotently(customer.getCustomerId(), idempotencyKey,
+                () -> requestHash(purchaseRequestDto),
+                requestHash -> enqueue(buildPurchase(purchaseRequestDto, customer), idempotencyKey, requestHash));
+    }
+
+    // the key scope is the customer, a malformed key is refused before looking the customer up
+    private Customer customerPlacing(String customerName, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            PurchaseIdempotencyStore.requireValidKey(idempotencyKey);
+        }
+        return customerRepo.searchCustomerByName(customerName)
+                .orElseThrow(() -> new CustomerNotFoundByNameException(customerName));
+    }
+
+    /**
+     * SHA-256 of what the compact purchase request asks for, the same request always gives the same hash
+     * whatever the formatting of its json.
+     */
+    public static String requestHash(PurchaseRequestDto purchaseRequestDto) {
+        StringBuilder request = new StringBuilder("order|")
+                .append(purchaseRequestDto.getRestaurantId()).append('|')
+                .append(purchaseRequestDto.getPurchasePlacedTime());
+        if (purchaseRequestDto.getItems() != null) {
+            for (PurchaseItemDto item : purchaseRequestDto.getItems()) {
+                request.append('|').append(item.getMenuItemId()).append('x').append(item.getQuantity());
+            }
+        }
+        return sha256(request.toString());
+    }
+
+    private static String requestHash(PurchaseDto purchaseDto) {
+        StringBuilder request = new StringBuilder("purchase|")
+                .append(purchaseDto.getRestaurant().getRestaurantId()).append('|')
+                .append(purchaseDto.getCustomer().getCustomerId()).append('|')
+                .append(purchaseDto.getPurchasePlacedTime());
+        for (MenuItem menuItem : purchaseDto.getMenuItems()) {
+            request.append('|').append(menuItem.getMenuItemId() == null ? menuItem.getName() : menuItem.getMenuItemId());
+        }
+        return sha256(request.toString());
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // a repeated key is answered before any pricing or ETA work is done, keys are scoped to the customer
+    private PurchasePlacement placeIdempotently(Long customerId, String idempotencyKey, Supplier<String> request,
+                                                Function<String, PurchasePlacement> placement) {
+        if (idempotencyKey == null) {
+            return placement.apply(null);
+        }
+
+        String requestHash = request.get();
+        PurchasePlacement replay = purchaseIdempotencyStore.begin(customerId, idempotencyKey, requestHash);
+        if (replay != null) {
+            return replay;
+        }
+        try {
+            // the key may have been used on another node, or forgotten by this one
+            PurchasePlacement result = purchaseRepo.searchIdempotentPurchase(customerId, idempotencyKey)
+                    .map(stored -> replay(stored, idempotencyKey, requestHash))
+                    .orElseGet(() -> placement.apply(requestHash));
+            purchaseIdempotencyStore.complete(customerId, idempotencyKey, result);
+            return result;
+        } catch (RuntimeException e) {
+            purchaseIdempotencyStore.abandon(customerId, idempotencyKey);
+            throw e;
+        }
+    }
+
+    // purchases stored before the request hashes were kept have none, their keys replay whatever the request
+    private static PurchasePlacement replay(IdempotentPurchase stored, String idempotencyKey, String requestHash) {
+        if (stored.getRequestHash() != null && !stored.getRequestHash().equals(requestHash)) {
+            throw new PurchaseIdempotencyKeyReusedException(idempotencyKey);
+        }
+        return PurchasePlacement.stored(stored.getPurchaseId()).asReplay();
+    }
+
+    private PurchasePlacement store(Purchase purchase, String idempotencyKey, String requestHash) {
+        purchase.setIdempotencyKey(idempotencyKey);
+        purchase.setIdempotencyRequestHash(requestHash);
+        try {
+            purchaseRepo.save(purchase);
+        } catch (RuntimeException e) {
+            // the order never reaches the kitchen, the load it was placed with is taken back
+            releaseKitchenLoad(purchase);
+            if (idempotencyKey == null || !(e instanceof DataIntegrityViolationException)) {
+                throw e;
+            }
+            // lost the race against another node placing the same key, the unique constraint kept one row
+            return purchaseRepo.searchIdempotentPurchase(purchase.getCustomer().getCustomerId(), idempotencyKey)
+                    .map(stored -> replay(stored, idempotencyKey, requestHash))
+                    .orElseThrow(() -> e);
+        }
+        eventPublisher.publishEvent(PurchaseTrackingEvent.of(purchase));
+        return PurchasePlacement.stored(purchase.getPurchaseId());
+    }
+
+    private PurchasePlacement enqueue(Purchase purchase, String idempotencyKey, String requestHash) {
+        purchase.setIdempotencyKey(idempotencyKey);
+        purchase.setIdempotencyRequestHash(requestHash);
+        // refused by a full queue or failing to be written later, the order is taken back from the kitchen
+        return PurchasePlacement.accepted(purchaseIntakeQueue.enqueue(purchase, () -> releaseKitchenLoad(purchase)));
+    }
+
+    private void releaseKitchenLoad(Purchase purchase) {
+        kitchenLoadEtaEngine.cancelOrder(restaurantId(purchase), computeTimeToCook(purchase).intValue());
+    }
+
+    @Override
+    public PurchaseIntakeReceipt getIntakeReceipt(String trackingId) {
+        return purchaseIntakeQueue.getReceipt(trackingId);
     }
 
     @Override
@@ -85,6 +362,60 @@ public class PurchaseServiceImpl implements PurchaseService {
         return purchases;
     }
 
+    @Override
+    public PurchaseFilter buildPurchaseFilter(Long restaurantId, Long customerId, String placedFrom, String placedTo) {
+        return new PurchaseFilter(
+                restaurantId,
+                customerId,
+                placedFrom == null ? null : parsePurchasePlacedTime(placedFrom),
+                placedTo == null ? null : parsePurchasePlacedTime(placedTo));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PurchasePage getPurchasesPage(PurchaseFilter filter, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDateTime afterPlacedTime = null;
+        Long afterId = null;
+        if (cursor != null) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                        .split("~");
+                afterPlacedTime = LocalDateTime.parse(position[0]);
+                afterId = Long.valueOf(position[1]);
+            } catch (RuntimeException e) {
+                throw new InvalidPurchaseCursorException(cursor);
+            }
+        }
+
+        // one extra row tells us whether there is a next page without a count query
+        List<Purchase> purchases = purchaseRepo.searchPurchasesPage(filter, afterPlacedTime, afterId, pageSize + 1);
+        if (purchases.size() <= pageSize) {
+            return new PurchasePage(purchases, null);
+        }
+
+        List<Purchase> page = purchases.subList(0, pageSize);
+        Purchase last = page.get(pageSize - 1);
+        String nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getPurchasePlacedTime() + "~" + last.getPurchaseId()).getBytes(StandardCharsets.UTF_8));
+        return new PurchasePage(new ArrayList<>(page), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachPurchase(PurchaseFilter filter, Consumer<Purchase> action) {
+        try (Stream<Purchase> purchases = purchaseRepo.streamPurchases(filter, STREAM_FETCH_SIZE)) {
+            purchases.forEach(purchase -> {
+                action.accept(purchase);
+                // keep the persistence context (and the heap) flat whatever the number of rows
+                if (entityManager.contains(purchase)) {
+                    entityManager.detach(purchase);
+                }
+            });
+        }
+    }
+
     @Override
     public Purchase getPurchaseById(Long purchaseId) {
         return purchaseRepo.findById(purchaseId)
@@ -96,6 +427,8 @@ public class PurchaseServiceImpl implements PurchaseService {
     public void updateActualDeliveryTime(Long purchaseId, String actualDeliveryTime) {
         Purchase purchase = purchaseRepo.findById(purchaseId)
                 .orElseThrow(() -> new PurchaseNotFoundByIdException(purchaseId));
+        // correcting the time of a delivery already fed back to the kitchen is not a new delivery
+        boolean firstDelivery = purchase.getActualDeliveryTime() == null;
         try {
             purchase.setActualDeliveryTime(LocalDateTime.parse(actualDeliveryTime, dateTimeFormatter));
         } catch(IncorrectDateFormatException e){
@@ -105,5 +438,93 @@ public class PurchaseServiceImpl implements PurchaseService {
                     0
             );
         }
+        if (firstDelivery) {
+            eventPublisher.publishEvent(new PurchaseDeliveredEvent(restaurantId(purchase),
+                    purchase.getEstimatedDeliveryTime(), purchase.getActualDeliveryTime()));
+        }
+        eventPublisher.publishEvent(PurchaseTrackingEvent.of(purchase));
+    }
+
+    @Override
+    @Transactional
+    public List<DeliveryConfirmationResult> confirmDeliveries(List<DeliveryConfirmationDto> deliveryConfirmations) {
+        if (deliveryConfirmations.size() > MAX_DELIVERY_CONFIRMATIONS) {
+            throw new TooManyDeliveryConfirmationsException(MAX_DELIVERY_CONFIRMATIONS);
+        }
+
+        DeliveryConfirmationResult.Status[] statuses = new DeliveryConfirmationResult.Status[deliveryConfirmations.size()];
+        LocalDateTime[] deliveredAt = new LocalDateTime[deliveryConfirmations.size()];
+        Set<Long> confirmedIds = new HashSet<>();
+        for (int i = 0; i < deliveryConfirmations.size(); i++) {
+            DeliveryConfirmationDto confirmation = deliveryConfirmations.get(i);
+            // a null element or a missing field only fails its own confirmation
+            if (confirmation == null || confirmation.getPurchaseId() == null || confirmation.getDeliveredAt() == null) {
+                statuses[i] = DeliveryConfirmationResult.Status.INVALID;
+                continue;
+            }
+            try {
+                deliveredAt[i] = LocalDateTime.parse(confirmation.getDeliveredAt(), dateTimeFormatter);
+            } catch (DateTimeParseException e) {
+                statuses[i] = DeliveryConfirmationResult.Status.INVALID;
+                continue;
+            }
+            // a purchase is delivered once, a repeat within the batch is not a second delivery
+            if (!confirmedIds.add(confirmation.getPurchaseId())) {
+                statuses[i] = DeliveryConfirmationResult.Status.INVALID;
+            }
+        }
+
+        // one select for the whole batch instead of a findById per delivery, only plain columns are read
+        Map<Long, PurchaseBatchRepo.DeliveryEstimate> estimates = purchaseBatchRepo.searchDeliveryEstimates(
+                IntStream.range(0, statuses.length)
+                        .filter(i -> statuses[i] == null)
+                        .mapToObj(i -> deliveryConfirmations.get(i).getPurchaseId())
+                        .collect(Collectors.toSet()));
+
+        List<Integer> positions = new ArrayList<>();
+        List<Long> purchaseIds = new ArrayList<>();
+        List<LocalDateTime> actualDeliveryTimes = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] != null) {
+                continue;
+            }
+            Long purchaseId = deliveryConfirmations.get(i).getPurchaseId();
+            if (!estimates.containsKey(purchaseId)) {
+                statuses[i] = DeliveryConfirmationResult.Status.NOT_FOUND;
+                continue;
+            }
+            if (estimates.get(purchaseId).actualDeliveryTime() != null) {
+                statuses[i] = DeliveryConfirmationResult.Status.ALREADY_DELIVERED;
+                continue;
+            }
+            positions.add(i);
+            purchaseIds.add(purchaseId);
+            actualDeliveryTimes.add(deliveredAt[i]);
+        }
+
+        int[] updateCounts = purchaseBatchRepo.updateActualDeliveryTimes(purchaseIds, actualDeliveryTimes);
+        for (int j = 0; j < positions.size(); j++) {
+            int i = positions.get(j);
+            // the row can still disappear, or be delivered by a concurrent confirmation, between the select
+            // and the update; either way this is not the delivery that counts
+            if (updateCounts[j] == 0) {
+                statuses[i] = DeliveryConfirmationResult.Status.NOT_FOUND;
+                continue;
+            }
+            statuses[i] = DeliveryConfirmationResult.Status.UPDATED;
+            PurchaseBatchRepo.DeliveryEstimate estimate = estimates.get(purchaseIds.get(j));
+            eventPublisher.publishEvent(new PurchaseDeliveredEvent(estimate.restaurantId(),
+                    estimate.estimatedDeliveryTime(), actualDeliveryTimes.get(j)));
+            eventPublisher.publishEvent(new PurchaseTrackingEvent(purchaseIds.get(j), estimate.restaurantId(),
+                    PurchaseTrackingEvent.Status.DELIVERED, estimate.estimatedDeliveryTime(), actualDeliveryTimes.get(j)));
+        }
+
+        List<DeliveryConfirmationResult> results = new ArrayList<>(statuses.length);
+        for (int i = 0; i < statuses.length; i++) {
+            DeliveryConfirmationDto confirmation = deliveryConfirmations.get(i);
+            results.add(new DeliveryConfirmationResult(
+                    confirmation == null ? null : confirmation.getPurchaseId(), statuses[i]));
+        }
+        return results;
     }
 }
@@ -0,0 +1,335 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.dto.PurchaseTrackingEvent;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseTrackingUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pushes {@link PurchaseTrackingEvent}s to the server-sent event streams of the clients tracking a
+ * purchase or a restaurant's orders. An idle stream holds no request thread, only its registration
+ * here. Events and the periodic keep-alive comment are queued per stream, up to
+ * purchase.tracking.queue-size, and written by a small pool of sender threads, one stream at a time
+ * per thread, so that a slow client never holds up the request that published the event nor the
+ * other clients. A client whose queue overflows, or whose write takes longer than
+ * purchase.tracking.send-timeout-seconds, is dropped and its stream completed.
+ */
+@Component
+public class PurchaseTrackingHub {
+
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final long heartbeatSeconds;
+    private final int queueSize;
+    private final long sendTimeoutMillis;
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Map<Long, Set<Subscription>> purchaseSubscriptions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscription>> restaurantSubscriptions = new ConcurrentHashMap<>();
+    // the subscriptions a sender thread is writing to right now, dropped ones included
+    private final Set<Subscription> sendingSubscriptions = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService senders;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "purchase-tracking-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PurchaseTrackingHub(@Value("${purchase.tracking.timeout-minutes:30}") long timeoutMinutes,
+                               @Value("${purchase.tracking.max-subscribers:10000}") int maxSubscribers,
+                               @Value("${purchase.tracking.heartbeat-seconds:25}") long heartbeatSeconds,
+                               @Value("${purchase.tracking.sender-threads:4}") int senderThreads,
+                               @Value("${purchase.tracking.queue-size:32}") int queueSize,
+                               @Value("${purchase.tracking.send-timeout-seconds:10}") long sendTimeoutSeconds) {
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.queueSize = queueSize;
+        this.sendTimeoutMillis = TimeUnit.SECONDS.toMillis(sendTimeoutSeconds);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "purchase-tracking-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        // keeps proxies from closing idle streams and finds the clients that went away
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(this::dropStalledSends, sendTimeoutMillis, sendTimeoutMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        purchaseSubscriptions.values().forEach(subscriptions -> subscriptions.forEach(s -> s.emitter().complete()));
+        restaurantSubscriptions.values().forEach(subscriptions -> subscriptions.forEach(s -> s.emitter().complete()));
+    }
+
+    public SseEmitter subscribeToPurchase(Long purchaseId, PurchaseTrackingEvent currentState) {
+        Subscription subscription = subscribe(purchaseSubscriptions, purchaseId);
+        enqueue(subscription, purchaseEvent(currentState));
+        return subscription.emitter();
+    }
+
+    public SseEmitter subscribeToRestaurant(Long restaurantId) {
+        return subscribe(restaurantSubscriptions, restaurantId).emitter();
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    // after the commit of the publishing transaction, or right away when there is none
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseTrackingEvent(PurchaseTrackingEvent event) {
+        Set<Subscription> byPurchase = event.getPurchaseId() == null
+                ? null : purchaseSubscriptions.get(event.getPurchaseId());
+        Set<Subscription> byRestaurant = event.getRestaurantId() == null
+                ? null : restaurantSubscriptions.get(event.getRestaurantId());
+        if (byPurchase != null) {
+            byPurchase.forEach(subscription -> enqueue(subscription, purchaseEvent(event)));
+        }
+        if (byRestaurant != null) {
+            byRestaurant.forEach(subscription -> enqueue(subscription, purchaseEvent(event)));
+        }
+    }
+
+    /**
+     * Creates the emitter of a new stream.
+     */
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private Subscription subscribe(Map<Long, Set<Subscription>> subscriptions, Long key) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new PurchaseTrackingUnavailableException(maxSubscribers);
+        }
+
+        Subscription subscription = new Subscription(subscriptions, key, createEmitter(timeoutMillis), queueSize);
+        subscriptions.compute(key, (k, keySubscriptions) -> {
+            Set<Subscription> result = keySubscriptions == null ? ConcurrentHashMap.newKeySet() : keySubscriptions;
+            result.add(subscription);
+            return result;
+        });
+
+        subscription.emitter().onCompletion(() -> unsubscribe(subscription));
+        subscription.emitter().onTimeout(() -> unsubscribe(subscription));
+        subscription.emitter().onError(e -> unsubscribe(subscription));
+        return subscription;
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscription.subscriptions().computeIfPresent(subscription.key(), (k, keySubscriptions) -> {
+            if (keySubscriptions.remove(subscription)) {
+                subscribers.decrementAndGet();
+            }
+            return keySubscriptions.isEmpty() ? null : keySubscriptions;
+        });
+    }
+
+    // a builder is sent once, every stream gets its own
+    private static SseEmitter.SseEventBuilder purchaseEvent(PurchaseTrackingEvent event) {
+        return SseEmitter.event()
+                .name("purchase")
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private void enqueue(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        if (subscription.isClosed()) {
+            return;
+        }
+        if (!subscription.pending().offer(event)) {
+            // the client does not keep up with its events, it is dropped instead of buffered without bound
+            close(subscription);
+            return;
+        }
+        scheduleDrain(subscription);
+    }
+
+    // the emitter is completed by its own drain, so never while a send to it is in progress
+    private void close(Subscription subscription) {
+        subscription.close();
+        unsubscribe(subscription);
+        scheduleDrain(subscription);
+    }
+
+    private void scheduleDrain(Subscription subscription) {
+        if (!subscription.draining().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscription));
+        } catch (RejectedExecutionException e) {
+            // shutting down, the emitters are completed by stop
+            subscription.draining().set(false);
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        SseEmitter.SseEventBuilder event;
+        while (!subscription.isClosed() && (event = subscription.pending().poll()) != null) {
+            send(subscription, event);
+        }
+        if (subscription.isClosed()) {
+            subscription.pending().clear();
+            complete(subscription, null);
+            subscription.draining().set(false);
+            return;
+        }
+        subscription.draining().set(false);
+        // an event queued, or a close, after the last poll but before the flag was reset would wait otherwise
+        if (!subscription.pending().isEmpty() || subscription.isClosed()) {
+            scheduleDrain(subscription);
+        }
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        sendingSubscriptions.add(subscription);
+        subscription.sending();
+        try {
+            subscription.emitter().send(event);
+        } catch (IOException | IllegalStateException e) {
+            subscription.close();
+            unsubscribe(subscription);
+            complete(subscription, e);
+        } finally {
+            subscription.sent();
+            sendingSubscriptions.remove(subscription);
+        }
+    }
+
+    private static void complete(Subscription subscription, Throwable error) {
+        if (!subscription.completed().compareAndSet(false, true)) {
+            return;
+        }
+        if (error == null) {
+            subscription.emitter().complete();
+        } else {
+            subscription.emitter().completeWithError(error);
+        }
+    }
+
+    private void heartbeat() {
+        forEachSubscription(subscription -> enqueue(subscription, SseEmitter.event().comment("keep-alive")));
+    }
+
+    // a send blocked on a client that stopped reading is interrupted and the client dropped; a send that
+    // ignores the interrupt keeps its sender thread until the container's write timeout, but gets nothing more
+    private void dropStalledSends() {
+        long startedBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        sendingSubscriptions.forEach(subscription -> {
+            if (subscription.interruptSendStartedBefore(startedBefore)) {
+                close(subscription);
+            }
+        });
+    }
+
+    private void forEachSubscription(Consumer<Subscription> action) {
+        purchaseSubscriptions.values().forEach(subscriptions -> subscriptions.forEach(action));
+        restaurantSubscriptions.values().forEach(subscriptions -> subscriptions.forEach(action));
+    }
+
+    // identity equality on purpose, a record would hash the whole subscription map
+    private static final class Subscription {
+
+        private final Map<Long, Set<Subscription>> subscriptions;
+        private final Long key;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closed;
+
+        // the sender thread writing to the emitter and since when, guarded by this
+        private Thread sendingThread;
+        private long sendingSinceNanos;
+
+        private Subscription(Map<Long, Set<Subscription>> subscriptions, Long key, SseEmitter emitter,
+                             int queueSize) {
+            this.subscriptions = subscriptions;
+            this.key = key;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        private Map<Long, Set<Subscription>> subscriptions() {
+            return subscriptions;
+        }
+
+        private Long key() {
+            return key;
+        }
+
+        private SseEmitter emitter() {
+            return emitter;
+        }
+
+        private BlockingQueue<SseEmitter.SseEventBuilder> pending() {
+            return pending;
+        }
+
+        private AtomicBoolean draining() {
+            return draining;
+        }
+
+        private AtomicBoolean completed() {
+            return completed;
+        }
+
+        private boolean isClosed() {
+            return closed;
+        }
+
+        private void close() {
+            closed = true;
+        }
+
+        private synchronized void sending() {
+            sendingThread = Thread.currentThread();
+            sendingSinceNanos = System.nanoTime();
+        }
+
+        // an interrupt that came too late for the send must not hit the next one of the thread
+        private synchronized void sent() {
+            sendingThread = null;
+            Thread.interrupted();
+        }
+
+        private synchronized boolean interruptSendStartedBefore(long nanos) {
+            if (sendingThread == null || sendingSinceNanos - nanos > 0) {
+                return false;
+            }
+            sendingThread.interrupt();
+            return true;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.fooddeliverysystem.service;
 
+import com.example.fooddeliverysystem.dto.SerializedRestaurantMenu;
 import com.example.fooddeliverysystem.model.Restaurant;
 
 import java.util.List;
@@ -16,4 +17,6 @@ public interface RestaurantService {
     void deleteRestaurantById(Long restaurantId);
 
     void addNewRestaurant(Restaurant restaurant);
+
+    SerializedRestaurantMenu getRestaurantMenu(Long restaurantId);
 }
@@ -1,6 +1,9 @@
 package com.example.fooddeliverysystem.service;
 
 import ch.qos.logback.core.pattern.util.RestrictedEscapeUtil;
+import com.example.fooddeliverysystem.dto.RestaurantMenuDto;
+import com.example.fooddeliverysystem.dto.RestaurantMenuRow;
+import com.example.fooddeliverysystem.dto.SerializedRestaurantMenu;
 import com.example.fooddeliverysystem.exceptions.city.CityNotFoundByIdException;
 import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantAlreadyExistsException;
 import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantNotFoundByIdException;
@@ -9,9 +12,15 @@ import com.example.fooddeliverysystem.model.City;
 import com.example.fooddeliverysystem.model.Restaurant;
 import com.example.fooddeliverysystem.repo.CityRepo;
 import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,17 +33,26 @@ public class RestaurantServiceImpl implements RestaurantService {
 
     private final CityRepo cityRepo;
 
-    public RestaurantServiceImpl(RestaurantRepo restaurantRepo, CityRepo cityRepo) {
+    private final CatalogCache catalogCache;
+
+    private final ObjectMapper objectMapper;
+
+    public RestaurantServiceImpl(RestaurantRepo restaurantRepo, CityRepo cityRepo, CatalogCache catalogCache,
+                                 ObjectMapper objectMapper) {
         this.restaurantRepo = restaurantRepo;
         this.cityRepo = cityRepo;
+        this.catalogCache = catalogCache;
+        this.objectMapper = objectMapper;
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.CATALOG_LISTS, key = "T(com.example.fooddeliverysystem.service.CatalogCache).ALL_RESTAURANTS")
     public List<Restaurant> getRestaurants() {
         return restaurantRepo.findAll();
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.RESTAURANTS, key = "#restaurantId")
     public Restaurant getRestaurantById(Long restaurantId) {
         Restaurant restaurant = restaurantRepo.findById(restaurantId)
                 .orElseThrow(() -> new RestaurantNotFoundByIdException(restaurantId));
@@ -42,8 +60,11 @@ public class RestaurantServiceImpl implements RestaurantService {
     }
 
     @Override
+    @Transactional
     public void deleteRestaurantById(Long restaurantId) {
+        Optional<Restaurant> restaurant = restaurantRepo.findById(restaurantId);
         restaurantRepo.deleteById(restaurantId);
+        restaurant.ifPresent(catalogCache::evictRestaurant);
     }
 
     @Override
@@ -56,11 +77,13 @@ public class RestaurantServiceImpl implements RestaurantService {
                 },
                 () -> {
                     restaurantRepo.save(restaurant);
+                    catalogCache.evictRestaurantList();
                 }
         );
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogCache.RESTAURANTS_BY_NAME, key = "T(org.springframework.util.StringUtils).capitalize(#restaurantName)")
     public Restaurant getRestaurantByName(String restaurantName) {
 
         Restaurant restaurantResult = restaurantRepo.searchRestaurantByName(capitalize(restaurantName))
@@ -85,10 +108,54 @@ public class RestaurantServiceImpl implements RestaurantService {
 
                     restaurant.setCity(city);
                     restaurantRepo.save(restaurant);
+                    catalogCache.evictRestaurantList();
                 }
         );
 
     }
 
+    @Override
+    @Cacheable(cacheNames = CatalogCache.RESTAURANT_MENUS, key = "#restaurantId")
+    public SerializedRestaurantMenu getRestaurantMenu(Long restaurantId) {
+        List<RestaurantMenuRow> rows = restaurantRepo.searchRestaurantMenu(restaurantId);
+        if (rows.isEmpty()) {
+            throw new RestaurantNotFoundByIdException(restaurantId);
+        }
+
+        // the rows come ordered by food category, so a category's items are contiguous
+        RestaurantMenuRow first = rows.get(0);
+        RestaurantMenuDto menu = new RestaurantMenuDto(first.getRestaurantId(), first.getRestaurantName(),
+                first.getRestaurantAddress());
+        RestaurantMenuDto.FoodCategoryEntry foodCategory = null;
+        for (RestaurantMenuRow row : rows) {
+            if (row.getFoodCategoryId() == null) {
+                continue;
+            }
+            if (foodCategory == null || !foodCategory.getFoodCategoryId().equals(row.getFoodCategoryId())) {
+                foodCategory = new RestaurantMenuDto.FoodCategoryEntry(row.getFoodCategoryId(),
+                        row.getFoodCategoryName());
+                menu.getFoodCategories().add(foodCategory);
+            }
+            if (row.getMenuItemId() != null) {
+                foodCategory.getMenuItems().add(new RestaurantMenuDto.MenuItemEntry(row.getMenuItemId(),
+                        row.getMenuItemName(), row.getIngredients(), row.getPrice(), row.getTimeToCook()));
+            }
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(menu);
+            return new SerializedRestaurantMenu(json, etag(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("The menu of the restaurant " + restaurantId + " can not be serialized.", e);
+        }
+    }
 
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
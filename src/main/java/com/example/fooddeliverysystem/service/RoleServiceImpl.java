@@ -12,9 +12,11 @@ import java.util.Optional;
 public class RoleServiceImpl implements RoleService{
 
     private final RoleRepo roleRepo;
+    private final JpaUserDetailsService jpaUserDetailsService;
 
-    public RoleServiceImpl(RoleRepo roleRepo) {
+    public RoleServiceImpl(RoleRepo roleRepo, JpaUserDetailsService jpaUserDetailsService) {
         this.roleRepo = roleRepo;
+        this.jpaUserDetailsService = jpaUserDetailsService;
     }
 
 
@@ -38,5 +40,7 @@ public class RoleServiceImpl implements RoleService{
     @Override
     public void deleteRole(Long roleId) {
         roleRepo.deleteById(roleId);
+        // the cached principals carry the authorities of their roles
+        jpaUserDetailsService.evictAll();
     }
 }
@@ -0,0 +1,324 @@
+package com.example.fooddeliverysystem.service;
+
+import com.example.fooddeliverysystem.model.Role;
+import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import com.example.fooddeliverysystem.repo.RoleRepo;
+import com.example.fooddeliverysystem.repo.SyntheticDataBatchRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Fills an empty database with production-like volumes: cities, restaurants with their menus,
+ * customers and a history of purchases. The rows are written through batched JDBC inserts, one
+ * transaction per batch, and only the ids are kept in memory, so millions of rows take minutes.
+ * <p>
+ * The data is shaped like real traffic: restaurants and customers are spread over the cities, a few
+ * restaurants get most of the orders, orders go to restaurants of the customer's own city, most of
+ * them are placed around lunch and dinner and on Fridays and weekends, and the ones of the last two
+ * hours are not delivered yet. The same random seed gives the same data.
+ */
+@Component
+public class SyntheticDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final String[] DISHES = {"Pizza", "Burger", "Salad", "Soup", "Pasta", "Curry", "Sushi", "Tacos",
+            "Shawarma", "Risotto", "Ciorba", "Sarmale", "Mici", "Papanasi", "Ramen", "Falafel"};
+    private static final String[] STYLES = {"Classic", "Spicy", "Vegan", "Double", "Smoked", "Garden", "Royal",
+            "Rustic", "Crispy", "Homemade"};
+    private static final String[] INGREDIENTS = {"tomato", "mozzarella", "basil", "chicken", "beef", "pork", "rice",
+            "noodles", "garlic", "onion", "peppers", "mushrooms", "cheese", "sour cream", "dill", "chickpeas"};
+
+    // relative share of the orders placed in each hour of the day, peaking at lunch and at dinner
+    private static final int[] HOUR_WEIGHTS = {1, 1, 0, 0, 0, 0, 1, 2, 3, 3, 4, 8, 16, 14, 8, 4, 4, 6, 10, 14, 12, 7,
+            4, 2};
+
+    private static final String ROLE_NAME = "USER";
+    private static final int UNDELIVERED_HOURS = 2;
+
+    private final SyntheticDataBatchRepo syntheticDataBatchRepo;
+    private final RestaurantRepo restaurantRepo;
+    private final RoleRepo roleRepo;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final Volumes configuredVolumes;
+
+    public SyntheticDataGenerator(SyntheticDataBatchRepo syntheticDataBatchRepo, RestaurantRepo restaurantRepo,
+                                  RoleRepo roleRepo, PasswordEncoder passwordEncoder,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${seed.cities:2000}") int cities,
+                                  @Value("${seed.restaurants:100000}") int restaurants,
+                                  @Value("${seed.food-categories-per-restaurant:5}") int foodCategoriesPerRestaurant,
+                                  @Value("${seed.menu-items-per-food-category:6}") int menuItemsPerFoodCategory,
+                                  @Value("${seed.customers:1000000}") int customers,
+                                  @Value("${seed.purchases:5000000}") int purchases,
+                                  @Value("${seed.days:90}") int days,
+                                  @Value("${seed.batch-size:1000}") int batchSize,
+                                  @Value("${seed.random-seed:42}") long randomSeed,
+                                  @Value("${seed.customer-password:parola1234}") String customerPassword) {
+        this.syntheticDataBatchRepo = syntheticDataBatchRepo;
+        this.restaurantRepo = restaurantRepo;
+        this.roleRepo = roleRepo;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.configuredVolumes = new Volumes(cities, restaurants, foodCategoriesPerRestaurant,
+                menuItemsPerFoodCategory, customers, purchases, days, batchSize, randomSeed, customerPassword);
+    }
+
+    /**
+     * How much data to generate. Every customer gets the same password, hashed once.
+     */
+    public record Volumes(int cities, int restaurants, int foodCategoriesPerRestaurant, int menuItemsPerFoodCategory,
+                          int customers, int purchases, int days, int batchSize, long randomSeed,
+                          String customerPassword) {
+
+        int menuItemsPerRestaurant() {
+            return foodCategoriesPerRestaurant * menuItemsPerFoodCategory;
+        }
+    }
+
+    /**
+     * The number of rows written, and how long it took.
+     */
+    public record Report(int cities, int restaurants, int foodCategories, int menuItems, int customers,
+                         int purchases, int purchaseLines, long elapsedMillis) {
+    }
+
+    /**
+     * Generates the seed.* volumes, unless the database already has restaurants.
+     */
+    public Report generate() {
+        if (restaurantRepo.count() > 0) {
+            logger.info("The database already has restaurants, no synthetic data is generated.");
+            return new Report(0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return generate(configuredVolumes);
+    }
+
+    public Report generate(Volumes volumes) {
+        long start = System.currentTimeMillis();
+        Random random = new Random(volumes.randomSeed());
+
+        long[] cityIds = insertInBatches(volumes.cities(), volumes.batchSize(), "cities",
+                syntheticDataBatchRepo::insertCities,
+                c -> new Object[]{"City " + c, String.format("%06d", c % 1_000_000)});
+
+        long[] restaurantIds = insertInBatches(volumes.restaurants(), volumes.batchSize(), "restaurants",
+                syntheticDataBatchRepo::insertRestaurants,
+                r -> new Object[]{"Restaurant " + r, "Strada " + STYLES[r % STYLES.length] + " " + (1 + r % 250),
+                        cityIds[r % cityIds.length]});
+
+        int foodCategories = volumes.restaurants() * volumes.foodCategoriesPerRestaurant();
+        long[] foodCategoryIds = insertInBatches(foodCategories, volumes.batchSize(), "food categories",
+                syntheticDataBatchRepo::insertFoodCategories,
+                f -> new Object[]{foodCategoryName(f, dish(f / volumes.foodCategoriesPerRestaurant(),
+                        f % volumes.foodCategoriesPerRestaurant())),
+                        restaurantIds[f / volumes.foodCategoriesPerRestaurant()]});
+
+        // the attributes of a menu item follow from its index, so only its id has to be remembered
+        int menuItems = foodCategories * volumes.menuItemsPerFoodCategory();
+        long[] menuItemIds = insertInBatches(menuItems, volumes.batchSize(), "menu items",
+                syntheticDataBatchRepo::insertMenuItems,
+                m -> {
+                    int foodCategory = m / volumes.menuItemsPerFoodCategory();
+                    return new Object[]{foodCategoryIds[foodCategory],
+                            menuItemName(m, dish(foodCategory / volumes.foodCategoriesPerRestaurant(),
+                                    foodCategory % volumes.foodCategoriesPerRestaurant())),
+                            ingredients(m), price(m), timeToCook(m)};
+                });
+
+        Long roleId = roleRepo.searchRoleByName(ROLE_NAME)
+                .orElseGet(() -> roleRepo.save(new Role(null, ROLE_NAME)))
+                .getRoleId();
+        String passwordHash = passwordEncoder.encode(volumes.customerPassword());
+        long[] customerIds = insertInBatches(volumes.customers(), volumes.batchSize(), "customers",
+                rows -> syntheticDataBatchRepo.insertCustomers(rows, roleId),
+                c -> new Object[]{"customer" + c, cityIds[c % cityIds.length], "Strada Florilor " + (1 + c % 500),
+                        String.format("07%08d", c % 100_000_000), "customer" + c + "@mail.ro", passwordHash});
+
+        int purchaseLines = insertPurchases(volumes, random, restaurantIds, menuItemIds, customerIds);
+
+        Report report = new Report(cityIds.length, restaurantIds.length, foodCategoryIds.length, menuItemIds.length,
+                customerIds.length, volumes.purchases(), purchaseLines, System.currentTimeMillis() - start);
+        logger.info("Generated {}", report);
+        return report;
+    }
+
+    private long[] insertInBatches(int count, int batchSize, String what, RowWriter writer, IntFunction<Object[]> row) {
+        long[] ids = new long[count];
+        for (int from = 0; from < count; from += batchSize) {
+            int to = Math.min(count, from + batchSize);
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                rows.add(row.apply(i));
+            }
+            long[] batchIds = transactionTemplate.execute(status -> writer.insert(rows));
+            System.arraycopy(batchIds, 0, ids, from, batchIds.length);
+        }
+        logger.info("Generated {} {}.", count, what);
+        return ids;
+    }
+
+    private int insertPurchases(Volumes volumes, Random random, long[] restaurantIds, long[] menuItemIds,
+                                long[] customerIds) {
+        LocalDateTime now = LocalDateTime.now().withSecond(0).withNano(0);
+        int cities = volumes.cities();
+        int purchaseLines = 0;
+
+        for (int from = 0; from < volumes.purchases(); from += volumes.batchSize()) {
+            int to = Math.min(volumes.purchases(), from + volumes.batchSize());
+            List<Object[]> purchases = new ArrayList<>(to - from);
+            List<Object[][]> lines = new ArrayList<>(to - from);
+
+            for (int p = from; p < to; p++) {
+                int restaurant = popularRestaurant(random, volumes.restaurants());
+                // the customers of a city are the ones whose index leaves its remainder
+                int city = restaurant % cities;
+                int customersInCity = Math.max(1, (volumes.customers() - city + cities - 1) / cities);
+                int customer = Math.min(volumes.customers() - 1, city + random.nextInt(customersInCity) * cities);
+
+                Object[][] purchaseLineRows = purchaseLines(random, volumes, restaurant, menuItemIds);
+                BigDecimal price = BigDecimal.ZERO;
+                int cookMinutes = 0;
+                for (Object[] line : purchaseLineRows) {
+                    price = price.add(((BigDecimal) line[4]).multiply(BigDecimal.valueOf((Integer) line[3])));
+                    cookMinutes = Math.max(cookMinutes, (Integer) line[5]);
+                }
+
+                LocalDateTime placed = placedTime(random, now, volumes.days());
+                LocalDateTime estimated = placed.plusMinutes(30 + cookMinutes + random.nextInt(20));
+                LocalDateTime delivered = placed.isAfter(now.minusHours(UNDELIVERED_HOURS)) ? null
+                        : estimated.plusMinutes(Math.round(random.nextGaussian() * 8));
+                purchases.add(new Object[]{price, restaurantIds[restaurant], customerIds[customer],
+                        Timestamp.valueOf(placed), Timestamp.valueOf(estimated),
+                        delivered == null ? null : Timestamp.valueOf(delivered)});
+                lines.add(purchaseLineRows);
+            }
+
+            purchaseLines += transactionTemplate.execute(status -> {
+                long[] purchaseIds = syntheticDataBatchRepo.insertPurchases(purchases);
+                List<Object[]> lineRows = new ArrayList<>();
+                for (int i = 0; i < purchaseIds.length; i++) {
+                    for (Object[] line : lines.get(i)) {
+                        lineRows.add(new Object[]{purchaseIds[i], line[0], line[1], line[3], line[4]});
+                    }
+                }
+                return syntheticDataBatchRepo.insertPurchaseLines(lineRows).length;
+            });
+            if (to % (volumes.batchSize() * 100) == 0) {
+                logger.info("Generated {} of {} purchases.", to, volumes.purchases());
+            }
+        }
+        logger.info("Generated {} purchases with {} purchase lines.", volumes.purchases(), purchaseLines);
+        return purchaseLines;
+    }
+
+    // one to three distinct dishes of the restaurant: (menu_item_id, name, index, quantity, unit price, cook minutes)
+    private static Object[][] purchaseLines(Random random, Volumes volumes, int restaurant, long[] menuItemIds) {
+        int roll = random.nextInt(10);
+        int dishes = Math.min(volumes.menuItemsPerRestaurant(), roll < 6 ? 1 : roll < 9 ? 2 : 3);
+        Object[][] lines = new Object[dishes][];
+        int first = restaurant * volumes.menuItemsPerRestaurant();
+        int offset = random.nextInt(volumes.menuItemsPerRestaurant());
+        for (int d = 0; d < dishes; d++) {
+            int m = first + (offset + d) % volumes.menuItemsPerRestaurant();
+            int foodCategory = m / volumes.menuItemsPerFoodCategory();
+            lines[d] = new Object[]{menuItemIds[m],
+                    menuItemName(m, dish(foodCategory / volumes.foodCategoriesPerRestaurant(),
+                            foodCategory % volumes.foodCategoriesPerRestaurant())),
+                    m, random.nextInt(5) == 0 ? 2 : 1, price(m), timeToCook(m).intValue()};
+        }
+        return lines;
+    }
+
+    // a few restaurants get most of the orders: the index is skewed towards the low end
+    private static int popularRestaurant(Random random, int restaurants) {
+        double u = random.nextDouble();
+        return Math.min(restaurants - 1, (int) (restaurants * u * u * u));
+    }
+
+    private static LocalDateTime placedTime(Random random, LocalDateTime now, int days) {
+        while (true) {
+            LocalDate day = now.toLocalDate().minusDays(random.nextInt(Math.max(1, days)));
+            // Fridays and weekends are busier, a weekday is kept with a lower probability
+            DayOfWeek dayOfWeek = day.getDayOfWeek();
+            boolean busyDay = dayOfWeek == DayOfWeek.FRIDAY || dayOfWeek == DayOfWeek.SATURDAY
+                    || dayOfWeek == DayOfWeek.SUNDAY;
+            if (!busyDay && random.nextInt(10) >= 7) {
+                continue;
+            }
+            LocalDateTime placed = day.atTime(hour(random), random.nextInt(60));
+            if (!placed.isAfter(now)) {
+                return placed;
+            }
+        }
+    }
+
+    private static int hour(Random random) {
+        int total = 0;
+        for (int weight : HOUR_WEIGHTS) {
+            total += weight;
+        }
+        int ticket = random.nextInt(total);
+        for (int hour = 0; hour < HOUR_WEIGHTS.length; hour++) {
+            ticket -= HOUR_WEIGHTS[hour];
+            if (ticket < 0) {
+                return hour;
+            }
+        }
+        return 12;
+    }
+
+    private static String dish(int restaurant, int foodCategory) {
+        return DISHES[(restaurant * 7 + foodCategory) % DISHES.length];
+    }
+
+    // the index keeps the names unique, the food categories are looked up by name alone
+    private static String foodCategoryName(int foodCategory, String dish) {
+        return dish + " " + foodCategory;
+    }
+
+    // the index keeps the names unique, as the menu imports expect them to be
+    private static String menuItemName(int menuItem, String dish) {
+        return STYLES[mix(menuItem) % STYLES.length] + " " + dish + " " + menuItem;
+    }
+
+    private static String ingredients(int menuItem) {
+        int hash = mix(menuItem);
+        return INGREDIENTS[hash % INGREDIENTS.length] + ", " + INGREDIENTS[(hash >>> 8) % INGREDIENTS.length] + ", "
+                + INGREDIENTS[(hash >>> 16) % INGREDIENTS.length];
+    }
+
+    private static BigDecimal price(int menuItem) {
+        return BigDecimal.valueOf(15 + mix(menuItem) % 70);
+    }
+
+    private static BigDecimal timeToCook(int menuItem) {
+        return BigDecimal.valueOf(10 + (mix(menuItem) >>> 8) % 35);
+    }
+
+    private static int mix(int value) {
+        int hash = value * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & Integer.MAX_VALUE;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        long[] insert(List<Object[]> rows);
+    }
+}
@@ -0,0 +1,53 @@
+-- Purchases keep one line per distinct menu item with its quantity, instead of one purchase_menuitems row
+-- per unit ordered. The existing rows are folded into lines; the name and the unit price the lines keep
+-- are taken from the current menu, the baseline schema never stored them.
+CREATE TABLE purchase_line
+(
+    purchase_line_id bigint NOT NULL,
+    purchase_id      bigint,
+    menu_item_id     bigint,
+    menu_item_name   varchar(255),
+    quantity         integer,
+    unit_price       numeric(19, 2),
+    CONSTRAINT pk_purchase_line PRIMARY KEY (purchase_line_id),
+    CONSTRAINT fk_purchase_line_purchase FOREIGN KEY (purchase_id) REFERENCES purchase (purchase_id),
+    CONSTRAINT fk_purchase_line_menu_item FOREIGN KEY (menu_item_id) REFERENCES menu_item (menu_item_id)
+);
+
+INSERT INTO purchase_line (purchase_line_id, purchase_id, menu_item_id, menu_item_name, quantity, unit_price)
+SELECT ROW_NUMBER() OVER (ORDER BY pm.purchase_id, pm.menu_item_id),
+       pm.purchase_id,
+       pm.menu_item_id,
+       mi.name,
+       COUNT(*),
+       mi.price
+FROM purchase_menuitems pm
+         JOIN menu_item mi ON mi.menu_item_id = pm.menu_item_id
+GROUP BY pm.purchase_id, pm.menu_item_id, mi.name, mi.price;
+
+DROP TABLE purchase_menuitems;
+
+-- client supplied Idempotency-Key of a purchase placement
+ALTER TABLE purchase ADD COLUMN idempotency_key varchar(255);
+ALTER TABLE purchase ADD CONSTRAINT uk_purchase_idempotency_key UNIQUE (idempotency_key);
+
+CREATE TABLE refresh_token
+(
+    refresh_token_id bigint      NOT NULL,
+    token_hash       varchar(64) NOT NULL,
+    customer_id      bigint      NOT NULL,
+    expires_at       timestamp   NOT NULL,
+    revoked          boolean     NOT NULL,
+    CONSTRAINT pk_refresh_token PRIMARY KEY (refresh_token_id),
+    CONSTRAINT uk_refresh_token_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_token_customer FOREIGN KEY (customer_id) REFERENCES customer (customer_id)
+);
+
+-- the ids come from the pooled sequences of V4 now, a row inserted through the identity would collide with them
+ALTER TABLE city ALTER COLUMN city_id DROP IDENTITY;
+ALTER TABLE restaurant ALTER COLUMN restaurant_id DROP IDENTITY;
+ALTER TABLE food_category ALTER COLUMN food_category_id DROP IDENTITY;
+ALTER TABLE menu_item ALTER COLUMN menu_item_id DROP IDENTITY;
+ALTER TABLE role ALTER COLUMN role_id DROP IDENTITY;
+ALTER TABLE customer ALTER COLUMN customer_id DROP IDENTITY;
+ALTER TABLE purchase ALTER COLUMN purchase_id DROP IDENTITY;
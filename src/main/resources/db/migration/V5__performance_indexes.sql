@@ -0,0 +1,50 @@
+-- PostgreSQL does not index foreign keys by itself: without these, every join from a parent and every
+-- lookup of a parent's children reads the whole child table. QueryPlanIntegrationTests runs EXPLAIN on
+-- the repository queries and fails when one of them scans a large table.
+
+-- foreign keys
+CREATE INDEX idx_restaurant_city ON restaurant (city_id);
+CREATE INDEX idx_food_category_restaurant ON food_category (restaurant_id);
+CREATE INDEX idx_menu_item_food_category ON menu_item (category_id);
+CREATE INDEX idx_customer_city ON customer (city_id);
+CREATE INDEX idx_purchase_line_purchase ON purchase_line (purchase_id);
+CREATE INDEX idx_purchase_line_menu_item ON purchase_line (menu_item_id);
+CREATE INDEX idx_refresh_token_customer ON refresh_token (customer_id);
+
+-- a customer has each role once, the primary key also serves the lookup of the roles of a customer;
+-- the baseline kept the roles in a list, so a role given twice is stored once first
+CREATE TABLE customer_roles_distinct AS
+SELECT DISTINCT customer_id, role_id
+FROM customer_roles;
+DELETE FROM customer_roles;
+INSERT INTO customer_roles (customer_id, role_id)
+SELECT customer_id, role_id
+FROM customer_roles_distinct;
+DROP TABLE customer_roles_distinct;
+ALTER TABLE customer_roles ADD CONSTRAINT pk_customer_roles PRIMARY KEY (customer_id, role_id);
+CREATE INDEX idx_customer_roles_role ON customer_roles (role_id);
+
+-- the keyset pages of purchases (newest first) over all purchases, of a restaurant and of a customer;
+-- the last two also index the foreign keys of purchase
+CREATE INDEX idx_purchase_placed_time ON purchase (purchase_placed_time DESC, purchase_id DESC);
+CREATE INDEX idx_purchase_restaurant_placed_time ON purchase (restaurant_id, purchase_placed_time DESC, purchase_id DESC);
+CREATE INDEX idx_purchase_customer_placed_time ON purchase (customer_id, purchase_placed_time DESC, purchase_id DESC);
+
+-- the search*ByName lookups; the services already refuse duplicates, the unique indexes also stop
+-- two concurrent requests from both getting past that check.
+-- Customers used to be checked by email only. A name taken twice broke the login of all of its customers,
+-- as the lookup by name found more than one. The oldest customer keeps the name, the later ones get their
+-- id appended to it.
+UPDATE customer SET name = name || '-' || customer_id
+WHERE customer_id NOT IN (SELECT MIN(customer_id) FROM customer GROUP BY name);
+CREATE UNIQUE INDEX uk_city_name ON city (name);
+CREATE UNIQUE INDEX uk_restaurant_name ON restaurant (name);
+CREATE UNIQUE INDEX uk_menu_item_name ON menu_item (name);
+CREATE UNIQUE INDEX uk_customer_name ON customer (name);
+CREATE UNIQUE INDEX uk_customer_email ON customer (email);
+CREATE UNIQUE INDEX uk_role_name ON role (name);
+-- a food category name is unique across all restaurants, as addNewFoodCategory, the lookup by name and
+-- the menu import assume; a name given twice before is made unique the same way as a customer name
+UPDATE food_category SET food_category_name = food_category_name || '-' || food_category_id
+WHERE food_category_id NOT IN (SELECT MIN(food_category_id) FROM food_category GROUP BY food_category_name);
+CREATE UNIQUE INDEX uk_food_category_name ON food_category (food_category_name);
@@ -0,0 +1,6 @@
+-- An Idempotency-Key is unique per customer: two customers may pick the same key without one of them being
+-- answered with the purchase of the other. The hash of the request that used the key tells a replay apart
+-- from a different request reusing it.
+ALTER TABLE purchase DROP CONSTRAINT uk_purchase_idempotency_key;
+ALTER TABLE purchase ADD CONSTRAINT uk_purchase_customer_idempotency_key UNIQUE (customer_id, idempotency_key);
+ALTER TABLE purchase ADD COLUMN idempotency_request_hash varchar(64);
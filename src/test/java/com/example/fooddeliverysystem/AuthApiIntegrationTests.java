@@ -0,0 +1,279 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.Customer;
+import com.example.fooddeliverysystem.model.Role;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.CustomerRepo;
+import com.example.fooddeliverysystem.repo.RefreshTokenRepo;
+import com.example.fooddeliverysystem.repo.RoleRepo;
+import com.example.fooddeliverysystem.service.JpaUserDetailsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthApiIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JpaUserDetailsService jpaUserDetailsService;
+
+    @Autowired
+    private CityRepo cityRepo;
+    @Autowired
+    private RoleRepo roleRepo;
+    @Autowired
+    private CustomerRepo customerRepo;
+    @Autowired
+    private RefreshTokenRepo refreshTokenRepo;
+
+    @BeforeEach
+    public void seed() {
+        Role user = roleRepo.save(new Role(null, "USER"));
+        Role admin = roleRepo.save(new Role(null, "ADMIN"));
+        City city = cityRepo.save(City.builder().name("Bucuresti").zipcode("111111").build());
+        customerRepo.save(Customer.builder()
+                .name("andrei").city(city).address("Strada 1").phone("0712345678").email("andrei@mail.ro")
+                .password(passwordEncoder.encode("andreiparola1")).roles(List.of(user, admin)).build());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        refreshTokenRepo.deleteAll();
+        customerRepo.deleteAll();
+        roleRepo.deleteAll();
+        cityRepo.deleteAll();
+        // the repos bypass the services, so the cached principals are dropped here
+        jpaUserDetailsService.evictAll();
+    }
+
+    private JsonNode login(String username, String password) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"" + username + "\", \"password\": \"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode refresh(String refreshToken) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    @Test
+    @DisplayName("""
+            When we log in with the right password, the access token authenticates the next calls with the
+            authorities of the customer, and a wrong password gets an UNAUTHORIZED status code.
+            """)
+    public void loginIssuesAnAccessTokenTest() throws Exception {
+
+        String accessToken = login("andrei", "andreiparola1").get("accessToken").asText();
+
+        mockMvc.perform(get("/api/v1/city")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"andrei\", \"password\": \"wrongparola1\"}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"nobody\", \"password\": \"andreiparola1\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the API with a tampered or malformed access token, we get an UNAUTHORIZED status code
+            with a Bearer invalid_token challenge.
+            """)
+    public void tamperedAccessTokenIsRejectedTest() throws Exception {
+
+        String accessToken = login("andrei", "andreiparola1").get("accessToken").asText();
+        String payload = accessToken.substring(0, accessToken.indexOf('.'));
+        String signature = accessToken.substring(accessToken.indexOf('.') + 1);
+        String forgedPayload = payload.substring(0, payload.length() - 2)
+                + (payload.endsWith("A") ? "B" : "A") + payload.charAt(payload.length() - 1);
+
+        for (String token : List.of(forgedPayload + "." + signature, payload + ".", "not-a-token")) {
+            mockMvc.perform(get("/api/v1/city")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            When we refresh, the refresh token is rotated; replaying the old one gets an UNAUTHORIZED status code
+            and revokes its successor too, and a logged out refresh token can not be used any more.
+            """)
+    public void refreshTokensAreRotatedAndRevocableTest() throws Exception {
+
+        String firstRefreshToken = login("andrei", "andreiparola1").get("refreshToken").asText();
+        JsonNode refreshed = refresh(firstRefreshToken);
+        String secondRefreshToken = refreshed.get("refreshToken").asText();
+
+        mockMvc.perform(get("/api/v1/city")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed.get("accessToken").asText()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"" + firstRefreshToken + "\"}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"" + secondRefreshToken + "\"}"))
+                .andExpect(status().isUnauthorized());
+
+        String thirdRefreshToken = login("andrei", "andreiparola1").get("refreshToken").asText();
+        mockMvc.perform(post("/api/v1/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"" + thirdRefreshToken + "\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"" + thirdRefreshToken + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("""
+            When the same refresh token is presented by several requests at once, only one of them gets new tokens
+            and the others get an UNAUTHORIZED status code.
+            """)
+    public void concurrentRefreshesWithTheSameTokenTest() throws Exception {
+
+        String refreshToken = login("andrei", "andreiparola1").get("refreshToken").asText();
+        int requests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/v1/auth/refresh")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"refreshToken\": \"" + refreshToken + "\"}"))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                results.add(status.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(1, results.stream().filter(status -> status == 200).count(), results.toString());
+            assertEquals(requests - 1, results.stream().filter(status -> status == 401).count(), results.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the API with HTTP Basic several times, the customer is loaded once and then served from
+            the userDetails cache, and once the customer is deleted the cached principal is evicted.
+            """)
+    public void basicAuthPrincipalIsCachedUntilTheCustomerChangesTest() throws Exception {
+
+        Customer customer = customerRepo.searchCustomerByName("andrei").orElseThrow();
+        double hitsBefore = meterRegistry.get("cache.gets")
+                .tag("cache", JpaUserDetailsService.CACHE_NAME).tag("result", "hit").functionCounter().count();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/v1/city").with(httpBasic("andrei", "andreiparola1")))
+                    .andExpect(status().isOk());
+        }
+        assertEquals(2, meterRegistry.get("cache.gets")
+                .tag("cache", JpaUserDetailsService.CACHE_NAME).tag("result", "hit").functionCounter().count()
+                - hitsBefore);
+
+        mockMvc.perform(delete("/api/v1/customer/id/" + customer.getCustomerId())
+                        .with(httpBasic("andrei", "andreiparola1")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/city").with(httpBasic("andrei", "andreiparola1")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("""
+            When a username has failed to log in 10 times, its next attempts get a TOO_MANY_REQUESTS status code
+            with a Retry-After header even with the right password, and other usernames are not affected.
+            """)
+    public void failedLoginsAreThrottledPerUsernameTest() throws Exception {
+
+        City city = cityRepo.searchCityByName("Bucuresti").orElseThrow();
+        customerRepo.save(Customer.builder()
+                .name("mihai").city(city).address("Strada 2").phone("0712345679").email("mihai@mail.ro")
+                .password(passwordEncoder.encode("mihaiparola1")).roles(List.of()).build());
+
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/api/v1/city").with(httpBasic("mihai", "wrongparola" + i)))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(get("/api/v1/city").with(httpBasic("mihai", "mihaiparola1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"mihai\", \"password\": \"mihaiparola1\"}"))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(get("/api/v1/city").with(httpBasic("andrei", "andreiparola1")))
+                .andExpect(status().isOk());
+    }
+}
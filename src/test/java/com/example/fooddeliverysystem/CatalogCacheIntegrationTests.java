@@ -0,0 +1,227 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.FoodCategoryRepo;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "catalog.cache.enabled=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+public class CatalogCacheIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CityRepo cityRepo;
+    @Autowired
+    private RestaurantRepo restaurantRepo;
+    @Autowired
+    private FoodCategoryRepo foodCategoryRepo;
+    @Autowired
+    private MenuItemRepo menuItemRepo;
+
+    @BeforeEach
+    public void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        menuItemRepo.deleteAll();
+        foodCategoryRepo.deleteAll();
+        restaurantRepo.deleteAll();
+        cityRepo.deleteAll();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    @DisplayName("""
+            When we read the same city by id and by name several times, only the first read of every key goes
+            to the db and the hits are counted in the cache metrics.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void repeatedCityReadsAreServedFromTheCache() throws Exception {
+
+        City city = cityRepo.save(City.builder().name("Cluj").zipcode("400000").build());
+        double hitsBefore = meterRegistry.get("cache.gets")
+                .tag("cache", "cities").tag("result", "hit").functionCounter().count();
+
+        Statistics statistics = statistics();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/v1/city/id/" + city.getCityId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value("Cluj"));
+        }
+        mockMvc.perform(get("/api/v1/city/cluj"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/city/Cluj"))
+                .andExpect(status().isOk());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(2, meterRegistry.get("cache.gets")
+                .tag("cache", "cities").tag("result", "hit").functionCounter().count() - hitsBefore);
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "cities").functionCounter());
+    }
+
+    @Test
+    @DisplayName("""
+            When we delete a cached city, it is evicted by id and by name and the next reads get a NOT_FOUND
+            status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void deletedCityIsEvicted() throws Exception {
+
+        City city = cityRepo.save(City.builder().name("Iasi").zipcode("700000").build());
+
+        mockMvc.perform(get("/api/v1/city/id/" + city.getCityId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/city/Iasi"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/v1/city/" + city.getCityId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/city/id/" + city.getCityId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/city/Iasi"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("""
+            When we update a cached menu item, the next reads by id and by food category return the new price.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void updatedMenuItemIsEvicted() throws Exception {
+
+        City city = cityRepo.save(City.builder().name("Brasov").zipcode("500000").build());
+        Restaurant restaurant = restaurantRepo.save(Restaurant.builder()
+                .name("Pizzeria").address("Strada 1").city(city).build());
+        FoodCategory foodCategory = foodCategoryRepo.save(FoodCategory.builder()
+                .foodCategoryName("Pizza").restaurantMenu(restaurant).build());
+        MenuItem menuItem = menuItemRepo.save(MenuItem.builder()
+                .name("Margherita").ingredients("tomato, mozzarella").price(BigDecimal.valueOf(30))
+                .timeToCook(BigDecimal.valueOf(15)).foodCategory(foodCategory).build());
+
+        mockMvc.perform(get("/api/v1/menuitem/id/" + menuItem.getMenuItemId()))
+                .andExpect(jsonPath("$.price").value(30));
+        mockMvc.perform(get("/api/v1/menuitem/" + foodCategory.getFoodCategoryId()))
+                .andExpect(jsonPath("$[0].price").value(30));
+
+        mockMvc.perform(put("/api/v1/menuitem/" + menuItem.getMenuItemId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Margherita\", \"ingredients\": \"tomato, mozzarella\", " +
+                                "\"price\": 34, \"timeToCook\": 15}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/menuitem/id/" + menuItem.getMenuItemId()))
+                .andExpect(jsonPath("$.price").value(34));
+        mockMvc.perform(get("/api/v1/menuitem/" + foodCategory.getFoodCategoryId()))
+                .andExpect(jsonPath("$[0].price").value(34));
+    }
+
+    @Test
+    @DisplayName("""
+            When we read the menu of a restaurant, it is built with one select, repeated reads and reads with a
+            matching If-None-Match skip the db, and after a menu item update the menu has a new ETag.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void restaurantMenuIsCachedWithAnETag() throws Exception {
+
+        City city = cityRepo.save(City.builder().name("Sibiu").zipcode("550000").build());
+        Restaurant restaurant = restaurantRepo.save(Restaurant.builder()
+                .name("Trattoria").address("Strada 2").city(city).build());
+        FoodCategory pizza = foodCategoryRepo.save(FoodCategory.builder()
+                .foodCategoryName("Pizza").restaurantMenu(restaurant).build());
+        foodCategoryRepo.save(FoodCategory.builder()
+                .foodCategoryName("Desert").restaurantMenu(restaurant).build());
+        MenuItem menuItem = menuItemRepo.save(MenuItem.builder()
+                .name("Margherita").ingredients("tomato, mozzarella").price(BigDecimal.valueOf(30))
+                .timeToCook(BigDecimal.valueOf(15)).foodCategory(pizza).build());
+        menuItemRepo.save(MenuItem.builder()
+                .name("Diavola").ingredients("tomato, salami").price(BigDecimal.valueOf(35))
+                .timeToCook(BigDecimal.valueOf(15)).foodCategory(pizza).build());
+
+        Statistics statistics = statistics();
+
+        String etag = mockMvc.perform(get("/api/v1/restaurant/" + restaurant.getRestaurantId() + "/menu"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Trattoria"))
+                .andExpect(jsonPath("$.foodCategories.length()").value(2))
+                .andExpect(jsonPath("$.foodCategories[0].menuItems.length()").value(2))
+                .andExpect(jsonPath("$.foodCategories[0].menuItems[0].name").value("Margherita"))
+                .andExpect(jsonPath("$.foodCategories[1].menuItems.length()").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/v1/restaurant/" + restaurant.getRestaurantId() + "/menu"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get("/api/v1/restaurant/" + restaurant.getRestaurantId() + "/menu")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        mockMvc.perform(put("/api/v1/menuitem/" + menuItem.getMenuItemId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\": 32}"))
+                .andExpect(status().isOk());
+
+        String newEtag = mockMvc.perform(get("/api/v1/restaurant/" + restaurant.getRestaurantId() + "/menu")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.foodCategories[0].menuItems[0].price").value(32))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+}
@@ -7,6 +7,7 @@ import com.example.fooddeliverysystem.exceptions.menuitem.MenuItemNotFoundByIdEx
 import com.example.fooddeliverysystem.model.*;
 import com.example.fooddeliverysystem.repo.CustomerRepo;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -24,9 +26,13 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -239,16 +245,18 @@ public class CustomerApiIntegrationTests {
         Customer customer1 = Customer.builder()
                 .customerId(Long.valueOf(1))
                 .city(city)
-                .address("adr1")
+                .address("Strada 1")
                 .name("name1")
-                .password(passwordEncoder.encode("parola1"))
-                .email("email1")
+                .email("name1@mail.com")
                 .phone("1111111111")
                 .roles(List.of(user))
                 .build();
 
+        // the password is write only, so it is added to the request by hand
         ObjectMapper mapper = new ObjectMapper();
-        String requestJson = mapper.writeValueAsString(customer1);
+        String requestJson = mapper.<ObjectNode>valueToTree(customer1)
+                .put("password", "parola123")
+                .toString();
 
         when(customerRepo.searchCustomerByEmail(customer1.getEmail())).thenReturn(Optional.of(customer1));
 
@@ -259,6 +267,69 @@ public class CustomerApiIntegrationTests {
                 .andExpect(status().isFound());
     }
 
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/customer with a new email but the name of an existing
+            customer, we expect to get a CustomerAlreadyExistsException and a FOUND status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addCustomerWithExistingName() throws Exception {
+
+        Customer existing = Customer.builder().customerId(Long.valueOf(1)).name("name1").email("other@mail.com").build();
+
+        when(customerRepo.searchCustomerByEmail("name1@mail.com")).thenReturn(Optional.empty());
+        when(customerRepo.searchCustomerByName("name1")).thenReturn(Optional.of(existing));
+
+        mockMvc.perform(post("/api/v1/customer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(newCustomerJson()))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof CustomerAlreadyExistsException))
+                .andExpect(status().isFound())
+                .andExpect(jsonPath("$.message").value("Customer with name name1 already exists."));
+        verify(customerRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/customer and a concurrent registration takes the name between
+            the check and the insert, we expect the unique index violation to be reported as a
+            CustomerAlreadyExistsException with a FOUND status code instead of a server error.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addCustomerLosingTheRaceForTheName() throws Exception {
+
+        Customer concurrent = Customer.builder().customerId(Long.valueOf(2)).name("name1").email("other@mail.com").build();
+
+        when(customerRepo.searchCustomerByEmail("name1@mail.com")).thenReturn(Optional.empty());
+        when(customerRepo.searchCustomerByName("name1")).thenReturn(Optional.empty(), Optional.of(concurrent));
+        when(customerRepo.save(any())).thenThrow(new DataIntegrityViolationException("uk_customer_name"));
+
+        mockMvc.perform(post("/api/v1/customer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(newCustomerJson()))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof CustomerAlreadyExistsException))
+                .andExpect(status().isFound())
+                .andExpect(jsonPath("$.message").value("Customer with name name1 already exists."));
+    }
+
+    // a valid new customer, the password is write only, so it is added to the request by hand
+    private static String newCustomerJson() {
+        Role user = new Role();
+        user.setRoleId(Long.valueOf(1));
+        user.setName("USER");
+        Customer customer = Customer.builder()
+                .city(City.builder().cityId(Long.valueOf(1)).name("Bucuresti").zipcode("111111").build())
+                .address("Strada 1")
+                .name("name1")
+                .email("name1@mail.com")
+                .phone("1111111111")
+                .roles(List.of(user))
+                .build();
+        return new ObjectMapper().<ObjectNode>valueToTree(customer)
+                .put("password", "parola123")
+                .toString();
+    }
+
     @Test
     @DisplayName("""
             When we call the endpoint POST /api/v1/customer with valid credentials and 
@@ -280,16 +351,18 @@ public class CustomerApiIntegrationTests {
         Customer customer1 = Customer.builder()
                 .customerId(Long.valueOf(1))
                 .city(city)
-                .address("adr1")
+                .address("Strada 1")
                 .name("name1")
-                .password(passwordEncoder.encode("parola1"))
-                .email("email1")
+                .email("name1@mail.com")
                 .phone("1111111111")
                 .roles(List.of(user))
                 .build();
 
+        // the password is write only, so it is added to the request by hand
         ObjectMapper mapper = new ObjectMapper();
-        String requestJson = mapper.writeValueAsString(customer1);
+        String requestJson = mapper.<ObjectNode>valueToTree(customer1)
+                .put("password", "parola123")
+                .toString();
 
         when(customerRepo.searchCustomerByEmail(customer1.getEmail())).thenReturn(Optional.empty());
 
@@ -0,0 +1,146 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.model.*;
+import com.example.fooddeliverysystem.repo.*;
+import com.example.fooddeliverysystem.service.KitchenLoadEtaEngine;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the kitchen learns of a delivery once it is committed, so the class gets a database of its own
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:delivery;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DeliveryFeedbackIntegrationTests {
+
+    private static final LocalDateTime ESTIMATED_DELIVERY_TIME = LocalDateTime.of(2022, 6, 8, 13, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private KitchenLoadEtaEngine kitchenLoadEtaEngine;
+
+    @Autowired
+    private CityRepo cityRepo;
+    @Autowired
+    private RestaurantRepo restaurantRepo;
+    @Autowired
+    private CustomerRepo customerRepo;
+    @Autowired
+    private PurchaseRepo purchaseRepo;
+
+    private Restaurant restaurant;
+    private Customer customer;
+
+    @BeforeAll
+    public void seed() {
+        City city = cityRepo.save(City.builder().name("Bucuresti").zipcode("111111").build());
+        restaurant = restaurantRepo.save(Restaurant.builder()
+                .name("Rest1").address("Adresa 1").city(city).build());
+        customer = customerRepo.save(Customer.builder()
+                .name("andrei").city(city).address("Strada 1").phone("0722222222")
+                .email("andrei@mail.com").password("andreiparola1").build());
+    }
+
+    // a backlog of 10 minutes: 40 minutes of cooking on the 4 stations of the kitchen
+    @BeforeEach
+    public void loadKitchen() {
+        kitchenLoadEtaEngine.clear();
+        kitchenLoadEtaEngine.placeOrder(restaurant.getRestaurantId(), 40);
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint PUT /api/v1/purchase/delivered with the same purchase twice, only the first
+            confirmation is a delivery and the repeat is INVALID; a later batch confirming it again gets
+            ALREADY_DELIVERED. The kitchen backlog is moved by the drift of the first delivery only.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void repeatedConfirmationsMoveTheBacklogOnceTest() throws Exception {
+
+        Long purchaseId = placedPurchase();
+
+        mockMvc.perform(put("/api/v1/purchase/delivered")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" +
+                                "{\"purchaseId\": " + purchaseId + ", \"deliveredAt\": \"2022-06-08 13:20\"}," +
+                                "{\"purchaseId\": " + purchaseId + ", \"deliveredAt\": \"2022-06-08 13:20\"}" +
+                                "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("INVALID"));
+        // 10 minutes of backlog plus 20 minutes late, less the milliseconds the test took
+        assertBacklogOfAbout(30);
+
+        mockMvc.perform(put("/api/v1/purchase/delivered")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"purchaseId\": " + purchaseId + ", \"deliveredAt\": \"2022-06-08 13:25\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("ALREADY_DELIVERED"));
+        assertBacklogOfAbout(30);
+
+        assertEquals(LocalDateTime.of(2022, 6, 8, 13, 20),
+                purchaseRepo.findById(purchaseId).orElseThrow().getActualDeliveryTime());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint PUT /api/v1/purchase/{id} for a purchase and then again to correct its
+            delivery time, the kitchen backlog is moved by the drift of the first delivery only.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void correctedDeliveryTimeDoesNotMoveTheBacklogTest() throws Exception {
+
+        Long purchaseId = placedPurchase();
+
+        mockMvc.perform(put("/api/v1/purchase/" + purchaseId)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("2022-06-08 13:20"))
+                .andExpect(status().isOk());
+        assertBacklogOfAbout(30);
+
+        mockMvc.perform(put("/api/v1/purchase/" + purchaseId)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("2022-06-08 13:25"))
+                .andExpect(status().isOk());
+        assertBacklogOfAbout(30);
+
+        assertEquals(LocalDateTime.of(2022, 6, 8, 13, 25),
+                purchaseRepo.findById(purchaseId).orElseThrow().getActualDeliveryTime());
+    }
+
+    private Long placedPurchase() {
+        return purchaseRepo.save(Purchase.builder()
+                .restaurant(restaurant)
+                .customer(customer)
+                .price(BigDecimal.valueOf(35))
+                .purchasePlacedTime(ESTIMATED_DELIVERY_TIME.minusMinutes(50))
+                .estimatedDeliveryTime(ESTIMATED_DELIVERY_TIME)
+                .purchaseLines(new ArrayList<>())
+                .build()).getPurchaseId();
+    }
+
+    private void assertBacklogOfAbout(long minutes) {
+        long backlogMinutes = kitchenLoadEtaEngine.getBacklogMinutes(restaurant.getRestaurantId());
+        assertTrue(backlogMinutes == minutes || backlogMinutes == minutes - 1, "backlog of " + backlogMinutes);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.service.KitchenLoadEtaEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class KitchenLoadEtaEngineTests {
+
+    private static final Long RESTAURANT_ID = 1L;
+    // the time the clock of the engine starts at
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2022, 6, 8, 12, 0);
+
+    private final MutableClock clock = new MutableClock();
+    // 30 minutes of transport, 2 stations, a sweep every 60 seconds
+    private final KitchenLoadEtaEngine kitchenLoadEtaEngine = new KitchenLoadEtaEngine(30, 2, 60, clock);
+
+    @Test
+    @DisplayName("""
+            Orders of the same kitchen queue behind each other: the first one only waits for its own cook time,
+            the next ones also wait for the backlog in front of them, while other kitchens are not affected.
+            """)
+    public void ordersQueueBehindEachOtherTest() {
+
+        assertEquals(START_TIME.plusMinutes(30 + 20), kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20));
+        assertEquals(START_TIME.plusMinutes(30 + 20 + 10), kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20));
+        assertEquals(START_TIME.plusMinutes(30 + 20 + 20), kitchenLoadEtaEngine.estimate(RESTAURANT_ID, 20));
+        assertEquals(START_TIME.plusMinutes(30 + 20), kitchenLoadEtaEngine.estimate(2L, 20));
+    }
+
+    @Test
+    @DisplayName("""
+            The cook time of an order is shared by the stations of the kitchen: with 2 stations a 20 minute order
+            adds 10 minutes of backlog, with 4 stations it adds 5.
+            """)
+    public void stationsShareTheWorkTest() {
+
+        kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20);
+        assertEquals(10, kitchenLoadEtaEngine.getBacklogMinutes(RESTAURANT_ID));
+
+        KitchenLoadEtaEngine biggerKitchen = new KitchenLoadEtaEngine(30, 4, clock);
+        biggerKitchen.placeOrder(RESTAURANT_ID, 20);
+        assertEquals(5, biggerKitchen.getBacklogMinutes(RESTAURANT_ID));
+    }
+
+    @Test
+    @DisplayName("""
+            The backlog of a kitchen decays as time passes, estimates shrink with it and once it ran out a new
+            order only waits for its own cook time.
+            """)
+    public void backlogDecaysOverTimeTest() {
+
+        kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20);
+        kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20);
+        assertEquals(20, kitchenLoadEtaEngine.getBacklogMinutes(RESTAURANT_ID));
+
+        clock.advance(Duration.ofMinutes(15));
+        assertEquals(5, kitchenLoadEtaEngine.getBacklogMinutes(RESTAURANT_ID));
+        assertEquals(START_TIME.plusMinutes(15 + 30 + 20 + 5), kitchenLoadEtaEngine.estimate(RESTAURANT_ID, 20));
+
+        clock.advance(Duration.ofMinutes(10));
+        assertEquals(0, kitchenLoadEtaEngine.getBacklogMinutes(RESTAURANT_ID));
+        assertEquals(START_TIME.plusMinutes(25 + 30 + 20), kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20));
+    }
+
+    @Test
+    @DisplayName("""
+            A cancelled order gives its share of the backlog back, and a delivery confirmed later than estimated
+            pushes the backlog back by the delay, at most by one transport time.
+            """)
+    public void cancellationsAndDeliveriesAdjustTheBacklogTest() {
+
+        kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20);
+        kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20);
+        kitchenLoadEtaEngine.cancelOrder(RESTAURANT_ID, 20);
+        assertEquals(10, kitchenLoadEtaEngine.getBacklogMinutes(RESTAURANT_ID));
+
+        LocalDateTime estimated = START_TIME.plusMinutes(50);
+        kitchenLoadEtaEngine.completeOrder(RESTAURANT_ID, estimated, estimated.plusMinutes(5));
+        assertEquals(15, kitchenLoadEtaEngine.getBacklogMinutes(RESTAURANT_ID));
+
+        kitchenLoadEtaEngine.completeOrder(RESTAURANT_ID, estimated, estimated.plusHours(3));
+        assertEquals(45, kitchenLoadEtaEngine.getBacklogMinutes(RESTAURANT_ID));
+    }
+
+    @Test
+    @DisplayName("""
+            Idle kitchens are not kept in memory: a kitchen is dropped when a cancellation or an early delivery
+            empties its backlog, and kitchens whose backlog ran out are dropped by the next sweep. Estimates
+            never add a kitchen.
+            """)
+    public void idleKitchensAreDroppedTest() {
+
+        kitchenLoadEtaEngine.estimate(RESTAURANT_ID, 20);
+        assertEquals(0, kitchenLoadEtaEngine.getTrackedKitchens());
+
+        kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20);
+        kitchenLoadEtaEngine.cancelOrder(RESTAURANT_ID, 20);
+        assertEquals(0, kitchenLoadEtaEngine.getTrackedKitchens());
+
+        kitchenLoadEtaEngine.placeOrder(RESTAURANT_ID, 20);
+        LocalDateTime estimated = START_TIME.plusMinutes(50);
+        kitchenLoadEtaEngine.completeOrder(RESTAURANT_ID, estimated, estimated.minusMinutes(10));
+        assertEquals(0, kitchenLoadEtaEngine.getTrackedKitchens());
+
+        kitchenLoadEtaEngine.placeOrder(1L, 20);
+        kitchenLoadEtaEngine.placeOrder(2L, 2);
+        assertEquals(2, kitchenLoadEtaEngine.getTrackedKitchens());
+
+        // restaurant 2 ran out of backlog after a minute, the sweep runs once 60 seconds passed
+        clock.advance(Duration.ofSeconds(61));
+        kitchenLoadEtaEngine.placeOrder(3L, 20);
+        assertEquals(2, kitchenLoadEtaEngine.getTrackedKitchens());
+        assertEquals(0, kitchenLoadEtaEngine.getBacklogMinutes(2L));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2022-06-08T12:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
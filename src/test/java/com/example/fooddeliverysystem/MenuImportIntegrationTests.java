@@ -0,0 +1,204 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.exceptions.restaurant.InvalidMenuDocumentException;
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.FoodCategoryRepo;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "catalog.import.batch-size=2")
+@AutoConfigureMockMvc
+public class MenuImportIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CityRepo cityRepo;
+    @Autowired
+    private RestaurantRepo restaurantRepo;
+    @Autowired
+    private FoodCategoryRepo foodCategoryRepo;
+    @Autowired
+    private MenuItemRepo menuItemRepo;
+
+    private Restaurant pizzeria;
+
+    @BeforeEach
+    public void seed() {
+        City city = cityRepo.save(City.builder().name("Cluj").zipcode("400000").build());
+        pizzeria = restaurantRepo.save(Restaurant.builder().name("Pizzeria").address("Strada 1").city(city).build());
+        Restaurant bistro = restaurantRepo.save(Restaurant.builder().name("Bistro").address("Strada 2").city(city).build());
+        FoodCategory pizza = foodCategoryRepo.save(FoodCategory.builder()
+                .foodCategoryName("Pizza").restaurantMenu(pizzeria).build());
+        foodCategoryRepo.save(FoodCategory.builder().foodCategoryName("Salads").restaurantMenu(bistro).build());
+        menuItemRepo.save(MenuItem.builder().name("Pizza Margherita").ingredients("tomato, mozzarella")
+                .price(BigDecimal.valueOf(30)).timeToCook(BigDecimal.valueOf(15)).foodCategory(pizza).build());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        menuItemRepo.deleteAll();
+        foodCategoryRepo.deleteAll();
+        restaurantRepo.deleteAll();
+        cityRepo.deleteAll();
+    }
+
+    @Test
+    @DisplayName("""
+            When we import a json menu, the valid rows are added to existing and new food categories of the
+            restaurant and every other row is reported with its reason, without stopping the import.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void importJsonMenuReportsRowErrors() throws Exception {
+
+        String menu = """
+                [
+                  {"foodCategoryName": "Pizza", "name": "Pizza Diavola", "ingredients": "salami", "price": 35, "timeToCook": 15},
+                  {"foodCategoryName": "Pizza", "name": "Pizza Margherita", "ingredients": "tomato", "price": 30, "timeToCook": 15},
+                  {"foodCategoryName": "Desserts", "name": "Tiramisu", "ingredients": "mascarpone", "price": "18.5", "timeToCook": 10},
+                  {"foodCategoryName": "Desserts", "name": "Papanasi", "ingredients": "cheese", "price": "cheap", "timeToCook": 5},
+                  {"foodCategoryName": "Salads", "name": "Caesar", "ingredients": "chicken", "price": 25, "timeToCook": 10},
+                  {"foodCategoryName": "Pizza", "name": "Pizza Diavola", "ingredients": "salami", "price": 35, "timeToCook": 15},
+                  {"foodCategoryName": "Desserts", "name": "Cannoli", "ingredients": "ricotta", "price": 16, "timeToCook": 10}
+                ]
+                """;
+
+        mockMvc.perform(post("/api/v1/restaurant/" + pizzeria.getRestaurantId() + "/menu")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(menu))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedMenuItems").value(3))
+                .andExpect(jsonPath("$.createdFoodCategories").value(1))
+                .andExpect(jsonPath("$.rejectedRows").value(4))
+                .andExpect(jsonPath("$.errors[*].row").value(containsInAnyOrder(2, 4, 5, 6)));
+
+        assertEquals(4, menuItemRepo.count());
+        FoodCategory desserts = foodCategoryRepo.searchFoodCategoryByName("Desserts").orElseThrow();
+        assertEquals(pizzeria.getRestaurantId(), desserts.getRestaurantMenu().getRestaurantId());
+        assertEquals(2, menuItemRepo.searchMenuItemsByFoodCategory(desserts.getFoodCategoryId()).size());
+    }
+
+    @Test
+    @DisplayName("""
+            When we import a menu whose chunk needs two new food categories, both are created together and
+            take consecutive ids.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void importMenuCreatesTheFoodCategoriesOfAChunkTogether() throws Exception {
+
+        String menu = """
+                [
+                  {"foodCategoryName": "Soups", "name": "Ciorba de burta", "ingredients": "tripe", "price": 20, "timeToCook": 10},
+                  {"foodCategoryName": "Grill", "name": "Mici", "ingredients": "minced meat", "price": 22, "timeToCook": 15}
+                ]
+                """;
+
+        mockMvc.perform(post("/api/v1/restaurant/" + pizzeria.getRestaurantId() + "/menu")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(menu))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedMenuItems").value(2))
+                .andExpect(jsonPath("$.createdFoodCategories").value(2));
+
+        FoodCategory soups = foodCategoryRepo.searchFoodCategoryByName("Soups").orElseThrow();
+        FoodCategory grill = foodCategoryRepo.searchFoodCategoryByName("Grill").orElseThrow();
+        assertEquals(soups.getFoodCategoryId() + 1, grill.getFoodCategoryId());
+    }
+
+    @Test
+    @DisplayName("""
+            When we import a csv menu with quoted fields, the rows are imported, and a row with a missing field
+            is reported.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void importCsvMenu() throws Exception {
+
+        String menu = """
+                name,foodCategoryName,price,timeToCook,ingredients
+                Pizza Capricciosa,Pizza,38,15,"tomato, ham, ""funghi"", artichokes"
+
+                "Pizza
+                Bianca",Pizza,33,15,mozzarella
+                Pizza Vegana,Pizza,,15,vegetables
+                """;
+
+        mockMvc.perform(post("/api/v1/restaurant/" + pizzeria.getRestaurantId() + "/menu")
+                        .contentType("text/csv")
+                        .content(menu))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedMenuItems").value(2))
+                .andExpect(jsonPath("$.rejectedRows").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("The price of the menu item cannot be null."));
+
+        MenuItem capricciosa = menuItemRepo.searchMenuItemByName("Pizza Capricciosa").orElseThrow();
+        assertEquals("tomato, ham, \"funghi\", artichokes", capricciosa.getIngredients());
+        assertTrue(menuItemRepo.searchMenuItemByName("Pizza\nBianca").isPresent());
+    }
+
+    @Test
+    @DisplayName("""
+            When we import a csv menu cut in a quoted field, or a json document that is not an array, we expect an
+            InvalidMenuDocumentException and a BAD_REQUEST status code, and none of the rows to be imported.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void importUnreadableMenu() throws Exception {
+
+        String menu = """
+                name,foodCategoryName,price,timeToCook,ingredients
+                Pizza Capricciosa,Pizza,38,15,ham
+                Pizza Rustica,Pizza,36,15,"sausage
+                """;
+
+        mockMvc.perform(post("/api/v1/restaurant/" + pizzeria.getRestaurantId() + "/menu")
+                        .contentType("text/csv")
+                        .content(menu))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof InvalidMenuDocumentException))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/restaurant/" + pizzeria.getRestaurantId() + "/menu")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Pizza Capricciosa\"}"))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof InvalidMenuDocumentException))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1, menuItemRepo.count());
+    }
+
+    @Test
+    @DisplayName("""
+            When we import a menu for a restaurant that does not exist, we expect a NOT_FOUND status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void importMenuOfUnknownRestaurant() throws Exception {
+
+        mockMvc.perform(post("/api/v1/restaurant/" + (pizzeria.getRestaurantId() + 1000) + "/menu")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.dto.MenuItemSearchHit;
+import com.example.fooddeliverysystem.dto.MenuItemSearchRow;
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import com.example.fooddeliverysystem.service.MenuItemSearchIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MenuItemSearchIndexTests {
+
+    private final MenuItemRepo menuItemRepo = mock(MenuItemRepo.class);
+    private final Clock clock = mock(Clock.class);
+    private final MenuItemSearchIndex menuItemSearchIndex =
+            new MenuItemSearchIndex(menuItemRepo, mock(PlatformTransactionManager.class), 300, clock);
+
+    private static MenuItemSearchRow row(long menuItemId, String name, String ingredients) {
+        return new MenuItemSearchRow(menuItemId, name, ingredients, BigDecimal.valueOf(30), 1L, 1L, 1L);
+    }
+
+    private List<String> search(String query, int limit) {
+        return menuItemSearchIndex.search(query, null, null, limit).stream()
+                .map(hit -> hit.getMenuItem().getName())
+                .toList();
+    }
+
+    @Test
+    @DisplayName("""
+            While the index is rebuilt, the searches are answered by the previous index without waiting for the
+            select, and a menu item written while the select runs is in the rebuilt index.
+            """)
+    public void searchDuringRebuildTest() throws Exception {
+
+        when(menuItemRepo.streamMenuItemSearchRows())
+                .thenReturn(Stream.of(row(1, "Pizza Margherita", "tomato sauce, mozzarella")))
+                .thenAnswer(invocation -> Stream.of(
+                                row(1, "Pizza Margherita", "tomato sauce, mozzarella"),
+                                row(2, "Pizza Diavola", "tomato sauce, spicy salami"))
+                        .peek(row -> {
+                            if (row.getMenuItemId() != 1) {
+                                return;
+                            }
+                            // another search while this one is streaming the menu items
+                            List<String> previous = CompletableFuture.supplyAsync(() -> search("pizza", 10))
+                                    .orTimeout(5, TimeUnit.SECONDS)
+                                    .join();
+                            assertEquals(List.of("Pizza Margherita"), previous);
+                            // and a write committed in the meantime
+                            menuItemSearchIndex.index(quattroFormaggi());
+                        }));
+
+        assertEquals(List.of("Pizza Margherita"), search("pizza", 10));
+
+        menuItemSearchIndex.invalidate();
+        assertEquals(List.of("Pizza Margherita", "Pizza Diavola", "Pizza Quattro Formaggi"), search("pizza", 10));
+        assertEquals(3, menuItemSearchIndex.size());
+    }
+
+    @Test
+    @DisplayName("""
+            A search returns the best hits up to the limit: rarer terms and name matches score higher, equal
+            scores rank the lower id first, and removed menu items are not returned.
+            """)
+    public void searchRanksTheBestHitsTest() {
+
+        when(menuItemRepo.streamMenuItemSearchRows()).thenAnswer(invocation -> Stream.of(
+                row(1, "Pizza Margherita", "tomato sauce, mozzarella, basil"),
+                row(2, "Pizza Diavola", "tomato sauce, mozzarella, spicy salami"),
+                row(3, "Caprese", "tomato, mozzarella, basil"),
+                row(4, "Pizza Funghi", "tomato sauce, mushrooms"),
+                row(5, "Pizza Prosciutto", "tomato sauce, ham")));
+
+        assertEquals(List.of("Pizza Margherita", "Caprese", "Pizza Diavola"), search("basil mozzarella", 3));
+        assertEquals(List.of("Pizza Margherita", "Pizza Diavola"), search("pizza", 2));
+
+        menuItemSearchIndex.remove(1L);
+        List<MenuItemSearchHit> hits = menuItemSearchIndex.search("basil", null, null, 10);
+        assertEquals(1, hits.size());
+        assertEquals("Caprese", hits.get(0).getMenuItem().getName());
+    }
+
+    @Test
+    @DisplayName("""
+            An index older than its max age is rebuilt on the next search, so a menu item written on another
+            node is found after at most the max age.
+            """)
+    public void searchRebuildsAnExpiredIndexTest() {
+
+        when(menuItemRepo.streamMenuItemSearchRows())
+                .thenReturn(Stream.of(row(1, "Pizza Margherita", "tomato sauce, mozzarella")))
+                .thenReturn(Stream.of(
+                        row(1, "Pizza Margherita", "tomato sauce, mozzarella"),
+                        row(2, "Pizza Diavola", "tomato sauce, spicy salami")));
+
+        when(clock.millis()).thenReturn(0L);
+        assertEquals(List.of("Pizza Margherita"), search("pizza", 10));
+
+        when(clock.millis()).thenReturn(299_999L);
+        assertEquals(List.of("Pizza Margherita"), search("pizza", 10));
+
+        when(clock.millis()).thenReturn(300_000L);
+        assertEquals(List.of("Pizza Margherita", "Pizza Diavola"), search("pizza", 10));
+    }
+
+    private static MenuItem quattroFormaggi() {
+        City city = City.builder().cityId(1L).name("Cluj").zipcode("400000").build();
+        Restaurant restaurant = Restaurant.builder().restaurantId(1L).name("Pizzeria").city(city).build();
+        FoodCategory foodCategory = FoodCategory.builder()
+                .foodCategoryId(1L).foodCategoryName("Pizza").restaurantMenu(restaurant).build();
+        return MenuItem.builder().menuItemId(3L).name("Pizza Quattro Formaggi").ingredients("mozzarella, gorgonzola")
+                .price(BigDecimal.valueOf(38)).foodCategory(foodCategory).build();
+    }
+}
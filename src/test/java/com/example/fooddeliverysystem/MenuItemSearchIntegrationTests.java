@@ -0,0 +1,157 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.FoodCategoryRepo;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import com.example.fooddeliverysystem.service.MenuItemSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MenuItemSearchIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CityRepo cityRepo;
+    @Autowired
+    private RestaurantRepo restaurantRepo;
+    @Autowired
+    private FoodCategoryRepo foodCategoryRepo;
+    @Autowired
+    private MenuItemRepo menuItemRepo;
+    @Autowired
+    private MenuItemSearchIndex menuItemSearchIndex;
+
+    private City cluj;
+    private Restaurant pizzeria;
+    private Restaurant bistro;
+    private FoodCategory pizza;
+
+    @BeforeEach
+    public void seed() {
+        cluj = cityRepo.save(City.builder().name("Cluj").zipcode("400000").build());
+        City iasi = cityRepo.save(City.builder().name("Iasi").zipcode("700000").build());
+        pizzeria = restaurantRepo.save(Restaurant.builder().name("Pizzeria").address("Strada 1").city(cluj).build());
+        bistro = restaurantRepo.save(Restaurant.builder().name("Bistro").address("Strada 2").city(iasi).build());
+        pizza = foodCategoryRepo.save(FoodCategory.builder().foodCategoryName("Pizza").restaurantMenu(pizzeria).build());
+        FoodCategory salads = foodCategoryRepo.save(FoodCategory.builder()
+                .foodCategoryName("Salads").restaurantMenu(bistro).build());
+
+        menuItemRepo.save(menuItem("Pizza Margherita", "tomato sauce, mozzarella, basil", pizza));
+        menuItemRepo.save(menuItem("Pizza Diavola", "tomato sauce, mozzarella, spicy salami", pizza));
+        menuItemRepo.save(menuItem("Caprese", "tomato, mozzarella di bufala, basil", salads));
+        menuItemRepo.save(menuItem("Salată de vinete", "vinete coapte, ceapă", salads));
+        // seeded through the repos, the index does not see these writes
+        menuItemSearchIndex.invalidate();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        menuItemRepo.deleteAll();
+        foodCategoryRepo.deleteAll();
+        restaurantRepo.deleteAll();
+        cityRepo.deleteAll();
+    }
+
+    private static MenuItem menuItem(String name, String ingredients, FoodCategory foodCategory) {
+        return MenuItem.builder().name(name).ingredients(ingredients).price(BigDecimal.valueOf(30))
+                .timeToCook(BigDecimal.valueOf(15)).foodCategory(foodCategory).build();
+    }
+
+    @Test
+    @DisplayName("""
+            When we search the menu items, the ones matching the rarer terms and matching them in the name rank
+            first, diacritics and case are ignored, and the results can be scoped to a restaurant or a city.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void searchRanksAndScopesMenuItems() throws Exception {
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "diavola mozzarella"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].menuItem.name").value("Pizza Diavola"));
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "BASIL").param("limit", "1"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "salata ceapa"))
+                .andExpect(jsonPath("$[0].menuItem.name").value("Salată de vinete"));
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "mozzarella")
+                        .param("restaurantId", pizzeria.getRestaurantId().toString()))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].menuItem.restaurantId").value(pizzeria.getRestaurantId()));
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "mozzarella")
+                        .param("cityId", cluj.getCityId().toString()))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", " , "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("""
+            When we add, update and delete menu items after the index is built, the next searches see the changes.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void searchFollowsMenuItemWrites() throws Exception {
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "quattro"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(post("/api/v1/menuitem/" + pizza.getFoodCategoryId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Pizza Quattro Formaggi\", \"ingredients\": \"mozzarella, gorgonzola\", " +
+                                "\"price\": 38, \"timeToCook\": 15}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "quattro")
+                        .param("restaurantId", pizzeria.getRestaurantId().toString()))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].menuItem.price").value(38));
+
+        Long margheritaId = menuItemRepo.searchMenuItemByName("Pizza Margherita").orElseThrow().getMenuItemId();
+        mockMvc.perform(put("/api/v1/menuitem/" + margheritaId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Pizza Marinara\", \"ingredients\": \"tomato sauce, garlic, oregano\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "margherita"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "garlic"))
+                .andExpect(jsonPath("$[0].menuItem.name").value("Pizza Marinara"));
+
+        mockMvc.perform(delete("/api/v1/menuitem/" + margheritaId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/menuitem/search").param("q", "marinara"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.fooddeliverysystem;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricsIntegrationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("""
+            When we call the API and then scrape GET /actuator/prometheus as an admin, we get the latency
+            histograms of the endpoint, of the service methods (with the exception a call ended with) and of
+            the security filter chain, along with the connection pool and Hibernate statement counts. The service
+            method and filter chain histograms start at a lower bucket than the endpoint ones.
+            """)
+    @WithMockUser(username = "andrei", authorities = "ADMIN")
+    public void prometheusScrapeTest() throws Exception {
+
+        mockMvc.perform(get("/api/v1/city"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/city/id/999999"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("uri=\"/api/v1/city/id/{id_no}\"")))
+                .andExpect(content().string(containsString(
+                        "service_method_seconds_count{class=\"CityServiceImpl\",exception=\"none\",method=\"getCities\",}")))
+                .andExpect(content().string(containsString(
+                        "service_method_seconds_count{class=\"CityServiceImpl\",exception=\"CityNotFoundByIdException\",method=\"getCityById\",}")))
+                .andExpect(content().string(containsString("security_filterchain_seconds_bucket{")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                // the service methods and the filter chain are bucketed from 50 microseconds, the endpoints from 1 ms
+                .andExpect(content().string(containsString(
+                        "service_method_seconds_bucket{class=\"CityServiceImpl\",exception=\"none\",method=\"getCities\",le=\"5.0E-5\",}")))
+                .andExpect(content().string(containsString("security_filterchain_seconds_bucket{outcome=\"passed\",le=\"5.0E-5\",}")))
+                .andExpect(content().string(not(containsString("uri=\"/api/v1/city\",le=\"5.0E-5\",}"))));
+    }
+
+    @Test
+    @DisplayName("""
+            When we scrape GET /actuator/prometheus without the ADMIN authority, we get a 403 Forbidden
+            response status.
+            """)
+    @WithMockUser(username = "andrei", authorities = "USER")
+    public void prometheusScrapeNeedsAdminTest() throws Exception {
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+}
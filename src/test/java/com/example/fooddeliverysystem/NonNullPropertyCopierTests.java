@@ -0,0 +1,125 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.service.NonNullPropertyCopier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.Id;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class NonNullPropertyCopierTests {
+
+    private final NonNullPropertyCopier nonNullPropertyCopier = new NonNullPropertyCopier();
+
+    private static MenuItem margherita() {
+        return MenuItem.builder()
+                .menuItemId(1L)
+                .name("Pizza Margherita")
+                .ingredients("tomato sauce, mozzarella")
+                .price(BigDecimal.valueOf(30))
+                .timeToCook(BigDecimal.valueOf(15))
+                .build();
+    }
+
+    @Test
+    @DisplayName("""
+            When the source has null properties, the target keeps its values for them and only the non null
+            properties of the source are copied.
+            """)
+    public void nullPropertiesLeaveTargetUnchangedTest() {
+
+        MenuItem target = margherita();
+        MenuItem patch = MenuItem.builder().name("Pizza Marinara").price(BigDecimal.valueOf(25)).build();
+
+        nonNullPropertyCopier.copyNonNullProperties(patch, target);
+
+        assertEquals("Pizza Marinara", target.getName());
+        assertEquals(BigDecimal.valueOf(25), target.getPrice());
+        assertEquals("tomato sauce, mozzarella", target.getIngredients());
+        assertEquals(BigDecimal.valueOf(15), target.getTimeToCook());
+    }
+
+    @Test
+    @DisplayName("""
+            When the source has an @Id or a property without a setter, they are not copied onto the target.
+            """)
+    public void idAndReadOnlyPropertiesAreSkippedTest() {
+
+        MenuItem target = margherita();
+        nonNullPropertyCopier.copyNonNullProperties(MenuItem.builder().menuItemId(2L).name("Pizza Diavola").build(),
+                target);
+        assertEquals(1L, target.getMenuItemId());
+        assertEquals("Pizza Diavola", target.getName());
+
+        Dish dish = new Dish(1L, "Caprese", 1);
+        nonNullPropertyCopier.copyNonNullProperties(new Dish(2L, "Tiramisu", 2), dish);
+        assertEquals(1L, dish.getDishId());
+        assertEquals("Tiramisu", dish.getName());
+        assertEquals(1, dish.getVersion());
+    }
+
+    @Test
+    @DisplayName("""
+            When one copier is used for several entity types, every type is copied with its own properties.
+            """)
+    public void copiesSeveralEntityTypesTest() {
+
+        Restaurant restaurant = Restaurant.builder().restaurantId(1L).name("Rest1").build();
+        FoodCategory targetCategory = FoodCategory.builder()
+                .foodCategoryId(1L).foodCategoryName("Pizza").restaurantMenu(restaurant).build();
+        MenuItem targetItem = margherita();
+
+        nonNullPropertyCopier.copyNonNullProperties(MenuItem.builder().ingredients("tomato sauce").build(), targetItem);
+        nonNullPropertyCopier.copyNonNullProperties(FoodCategory.builder().foodCategoryName("Pizze").build(),
+                targetCategory);
+        nonNullPropertyCopier.copyNonNullProperties(MenuItem.builder().timeToCook(BigDecimal.TEN).build(), targetItem);
+
+        assertEquals("Pizze", targetCategory.getFoodCategoryName());
+        assertSame(restaurant, targetCategory.getRestaurantMenu());
+        assertEquals(1L, targetCategory.getFoodCategoryId());
+        assertEquals("Pizza Margherita", targetItem.getName());
+        assertEquals("tomato sauce", targetItem.getIngredients());
+        assertEquals(BigDecimal.TEN, targetItem.getTimeToCook());
+    }
+
+    // a type with a read only property, like a version the db maintains
+    public static class Dish {
+
+        @Id
+        private Long dishId;
+        private String name;
+        private final Integer version;
+
+        public Dish(Long dishId, String name, Integer version) {
+            this.dishId = dishId;
+            this.name = name;
+            this.version = version;
+        }
+
+        public Long getDishId() {
+            return dishId;
+        }
+
+        public void setDishId(Long dishId) {
+            this.dishId = dishId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.exceptions.auth.PasswordHashingUnavailableException;
+import com.example.fooddeliverysystem.service.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PasswordHashingExecutorTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor(meterRegistry, 1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // a stand in for BCrypt that holds its thread until the test releases it
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{hashed}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @AfterEach
+    public void stop() {
+        release.countDown();
+        passwordHashingExecutor.stop();
+    }
+
+    @Test
+    @DisplayName("""
+            When every hashing thread is busy and the queue is full, the next hash is rejected right away with
+            PasswordHashingUnavailableException, and the queue depth, the rejections and the hash latency are
+            published as metrics.
+            """)
+    public void saturatedPoolRejectsFastTest() throws Exception {
+
+        PasswordEncoder passwordEncoder = passwordHashingExecutor.bounded(slowEncoder);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("first1"));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(
+                () -> passwordEncoder.matches("second1", "{hashed}second1"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (passwordHashingExecutor.getQueueDepth() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, meterRegistry.get("password.hashing.queue.depth").gauge().value());
+
+        long start = System.nanoTime();
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.encode("third1"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("{hashed}first1", running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("password.hashing").tag("operation", "matches").timer().count());
+    }
+}
@@ -1,18 +1,33 @@
 package com.example.fooddeliverysystem;
 
+import com.example.fooddeliverysystem.dto.DeliveryConfirmationDto;
+import com.example.fooddeliverysystem.dto.IdempotentPurchase;
 import com.example.fooddeliverysystem.dto.PurchaseDto;
+import com.example.fooddeliverysystem.dto.PurchaseItemDto;
+import com.example.fooddeliverysystem.dto.PurchaseRequestDto;
 import com.example.fooddeliverysystem.exceptions.menuitem.MenuItemNotFoundByIdException;
 import com.example.fooddeliverysystem.exceptions.purchase.IncorrectDateFormatException;
+import com.example.fooddeliverysystem.exceptions.purchase.InvalidIdempotencyKeyException;
+import com.example.fooddeliverysystem.exceptions.purchase.InvalidPurchaseCursorException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIdempotencyKeyReusedException;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIntakeNotFoundByTrackingIdException;
 import com.example.fooddeliverysystem.exceptions.purchase.PurchaseNotFoundByIdException;
+import com.example.fooddeliverysystem.exceptions.purchase.TooManyDeliveryConfirmationsException;
 import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantNotFoundByIdException;
 import com.example.fooddeliverysystem.model.*;
+import com.example.fooddeliverysystem.repo.CustomerRepo;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
 import com.example.fooddeliverysystem.repo.PurchaseRepo;
+import com.example.fooddeliverysystem.service.KitchenLoadEtaEngine;
+import com.example.fooddeliverysystem.service.PurchaseServiceImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,22 +36,42 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
+import java.util.UUID;
 
 
 import com.fasterxml.jackson.datatype.jsr310.*;
@@ -48,6 +83,10 @@ public class PurchaseApiIntegrationTests {
     @MockBean
     private PurchaseRepo purchaseRepo;
     @MockBean
+    private MenuItemRepo menuItemRepo;
+    @MockBean
+    private CustomerRepo customerRepo;
+    @MockBean
     private PasswordEncoder passwordEncoder;
     public DateTimeFormatter dateTimeFormatter() {
         return DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
@@ -56,6 +95,14 @@ public class PurchaseApiIntegrationTests {
 
     @Autowired
     private MockMvc mockMvc;
+    @Autowired
+    private KitchenLoadEtaEngine kitchenLoadEtaEngine;
+
+    // the kitchen queues live in the shared application context, every test starts with idle kitchens
+    @BeforeEach
+    public void resetKitchens() {
+        kitchenLoadEtaEngine.clear();
+    }
 
     @Test
     @DisplayName("""
@@ -120,7 +167,9 @@ public class PurchaseApiIntegrationTests {
                 .price(BigDecimal.valueOf(12))
                 .restaurant(restaurant)
                 .purchasePlacedTime(LocalDateTime.parse("2022-06-18 14:30", dateTimeFormatter))
-                .menuItems(List.of(menuItem1))
+                .purchaseLines(List.of(PurchaseLine.builder()
+                        .menuItem(menuItem1).menuItemName(menuItem1.getName())
+                        .quantity(1).unitPrice(menuItem1.getPrice()).build()))
                 .build();
 
         Purchase purchase2 = Purchase.builder()
@@ -128,7 +177,13 @@ public class PurchaseApiIntegrationTests {
                 .price(BigDecimal.valueOf(14))
                 .restaurant(restaurant)
                 .purchasePlacedTime(LocalDateTime.parse("2022-07-09 16:45", dateTimeFormatter))
-                .menuItems(List.of(menuItem1, menuItem2))
+                .purchaseLines(List.of(
+                        PurchaseLine.builder()
+                                .menuItem(menuItem1).menuItemName(menuItem1.getName())
+                                .quantity(1).unitPrice(menuItem1.getPrice()).build(),
+                        PurchaseLine.builder()
+                                .menuItem(menuItem2).menuItemName(menuItem2.getName())
+                                .quantity(2).unitPrice(menuItem2.getPrice()).build()))
                 .build();
 
         List<Purchase> purchases = List.of(purchase1, purchase2);
@@ -151,10 +206,107 @@ public class PurchaseApiIntegrationTests {
                 .andExpect(content().json(responseJson));
     }
 
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/page with valid credentials and more purchases
+            than the page size, we expect to get one page of purchases and a cursor for the next page.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void getPurchasesPageTest() throws Exception {
+
+        DateTimeFormatter dateTimeFormatter = dateTimeFormatter();
+
+        Purchase purchase1 = Purchase.builder()
+                .purchaseId(Long.valueOf(2))
+                .price(BigDecimal.valueOf(14))
+                .purchasePlacedTime(LocalDateTime.parse("2022-07-09 16:45", dateTimeFormatter))
+                .build();
+
+        Purchase purchase2 = Purchase.builder()
+                .purchaseId(Long.valueOf(1))
+                .price(BigDecimal.valueOf(12))
+                .purchasePlacedTime(LocalDateTime.parse("2022-06-18 14:30", dateTimeFormatter))
+                .build();
+
+        when(purchaseRepo.searchPurchasesPage(any(), eq(null), eq(null), eq(2)))
+                .thenReturn(List.of(purchase1, purchase2));
+
+        mockMvc.perform(get("/api/v1/purchase/page").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.purchases.length()").value(1))
+                .andExpect(jsonPath("$.purchases[0].purchaseId").value(2))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/page with valid credentials and a cursor that was not
+            issued by the server, we expect to get an InvalidPurchaseCursorException and a BAD_REQUEST status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void getPurchasesPageWithInvalidCursor() throws Exception {
+
+        mockMvc.perform(get("/api/v1/purchase/page").param("cursor", "not-a-cursor"))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof InvalidPurchaseCursorException))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/stream with valid credentials, we expect to get
+            every purchase as one JSON document per line.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void streamPurchasesTest() throws Exception {
+
+        Purchase purchase1 = Purchase.builder()
+                .purchaseId(Long.valueOf(2))
+                .price(BigDecimal.valueOf(14))
+                .build();
+
+        Purchase purchase2 = Purchase.builder()
+                .purchaseId(Long.valueOf(1))
+                .price(BigDecimal.valueOf(12))
+                .build();
+
+        when(purchaseRepo.streamPurchases(any(), anyInt())).thenReturn(Stream.of(purchase1, purchase2));
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/purchase/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"purchaseId\":2"));
+        assertTrue(lines[1].contains("\"purchaseId\":1"));
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/stream with valid credentials, we expect the stream
+            to be given an explicit timeout of 5 minutes instead of the one of the servlet container.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void streamPurchasesTimeoutTest() throws Exception {
+
+        when(purchaseRepo.streamPurchases(any(), anyInt())).thenReturn(Stream.empty());
+
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/purchase/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(TimeUnit.MINUTES.toMillis(5), mvcResult.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk());
+    }
+
     @Test
     @DisplayName("""
             When we call the endpoint GET /api/v1/purchase/id/{id} with valid credentials and a non valid id,
-            we expect to get a PurchaseNotFoundByIdException and a NOT_FOUND status code.
+            we expect to get a stackless PurchaseNotFoundByIdException, a NOT_FOUND status code and a json error body.
             """)
     @WithMockUser(username = "andrei", password = "andreiparola1")
     public void getPurchaseWithNonValidId() throws Exception {
@@ -165,6 +317,25 @@ public class PurchaseApiIntegrationTests {
 
         mockMvc.perform(get("/api/v1/purchase/id/" + notValidId))
                 .andExpect(result -> assertTrue(result.getResolvedException() instanceof PurchaseNotFoundByIdException))
+                .andExpect(result -> assertEquals(0, result.getResolvedException().getStackTrace().length))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.error").value("Not Found"))
+                .andExpect(jsonPath("$.message").value("The purchase with the id: 1 could not have been found."));
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/intake/{tracking_id} with valid credentials and an
+            unknown tracking id, we expect to get a PurchaseIntakeNotFoundByTrackingIdException and a NOT_FOUND
+            status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void getIntakeReceiptWithUnknownTrackingId() throws Exception {
+
+        mockMvc.perform(get("/api/v1/purchase/intake/" + "unknown-tracking-id"))
+                .andExpect(result -> assertTrue(
+                        result.getResolvedException() instanceof PurchaseIntakeNotFoundByTrackingIdException))
                 .andExpect(status().isNotFound());
     }
 
@@ -352,6 +523,424 @@ public class PurchaseApiIntegrationTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/purchase/order with valid credentials, valid authorities,
+            and a menu item id that does not belong to the restaurant, we expect to get a
+            MenuItemNotFoundByIdException and a NOT_FOUND status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addOrderWithUnknownMenuItem() throws Exception {
+
+        PurchaseRequestDto purchaseRequestDto = PurchaseRequestDto.builder()
+                .restaurantId(Long.valueOf(1))
+                .items(List.of(new PurchaseItemDto(Long.valueOf(7), 1)))
+                .build();
+
+        when(customerRepo.searchCustomerByName("andrei"))
+                .thenReturn(Optional.of(Customer.builder().customerId(Long.valueOf(1)).name("andrei").build()));
+        when(menuItemRepo.searchMenuItemsOfRestaurant(eq(Long.valueOf(1)), anyCollection())).thenReturn(List.of());
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof MenuItemNotFoundByIdException))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/purchase/order with valid credentials, valid authorities,
+            and valid menu item ids, we expect the price to be computed from the menu items stored in the db
+            and a 200 OK status code. The estimated delivery time counts from the server clock, not from the
+            placed time the client sent.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addOrder() throws Exception {
+
+        Restaurant restaurant = Restaurant.builder()
+                .restaurantId(Long.valueOf(1))
+                .name("Rest1")
+                .address("Adresa 1")
+                .build();
+
+        FoodCategory foodCategory = FoodCategory.builder()
+                .foodCategoryId(Long.valueOf(1))
+                .foodCategoryName("foodcateg1")
+                .restaurantMenu(restaurant)
+                .build();
+
+        MenuItem menuItem = MenuItem.builder()
+                .menuItemId(Long.valueOf(7))
+                .name("Meat Pizza")
+                .price(BigDecimal.valueOf(35))
+                .timeToCook(BigDecimal.valueOf(20))
+                .foodCategory(foodCategory)
+                .build();
+
+        Customer customer = Customer.builder()
+                .customerId(Long.valueOf(1))
+                .name("andrei")
+                .build();
+
+        PurchaseRequestDto purchaseRequestDto = PurchaseRequestDto.builder()
+                .restaurantId(Long.valueOf(1))
+                .purchasePlacedTime("2022-06-08 16:45")
+                .items(List.of(new PurchaseItemDto(Long.valueOf(7), 2)))
+                .build();
+
+        when(menuItemRepo.searchMenuItemsOfRestaurant(eq(Long.valueOf(1)), anyCollection()))
+                .thenReturn(List.of(menuItem));
+        when(customerRepo.searchCustomerByName("andrei")).thenReturn(Optional.of(customer));
+
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(status().isOk());
+        LocalDateTime after = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+        ArgumentCaptor<Purchase> savedPurchase = ArgumentCaptor.forClass(Purchase.class);
+        verify(purchaseRepo).save(savedPurchase.capture());
+        assertEquals(BigDecimal.valueOf(70), savedPurchase.getValue().getPrice());
+        // 30 minutes of transport and 20 of cooking in an idle kitchen
+        LocalDateTime estimatedDeliveryTime = savedPurchase.getValue().getEstimatedDeliveryTime();
+        assertFalse(estimatedDeliveryTime.isBefore(before.plusMinutes(50)));
+        assertFalse(estimatedDeliveryTime.isAfter(after.plusMinutes(50)));
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/purchase/order twice with the same Idempotency-Key,
+            we expect the purchase to be stored once and the retry to be answered as a replay.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addOrderTwiceWithSameIdempotencyKey() throws Exception {
+
+        Restaurant restaurant = Restaurant.builder()
+                .restaurantId(Long.valueOf(6))
+                .name("Rest1")
+                .address("Adresa 1")
+                .build();
+
+        FoodCategory foodCategory = FoodCategory.builder()
+                .foodCategoryId(Long.valueOf(1))
+                .foodCategoryName("foodcateg1")
+                .restaurantMenu(restaurant)
+                .build();
+
+        MenuItem menuItem = MenuItem.builder()
+                .menuItemId(Long.valueOf(8))
+                .name("Meat Pizza")
+                .price(BigDecimal.valueOf(35))
+                .timeToCook(BigDecimal.valueOf(20))
+                .foodCategory(foodCategory)
+                .build();
+
+        Customer customer = Customer.builder()
+                .customerId(Long.valueOf(1))
+                .name("andrei")
+                .build();
+
+        PurchaseRequestDto purchaseRequestDto = PurchaseRequestDto.builder()
+                .restaurantId(Long.valueOf(6))
+                .purchasePlacedTime("2022-06-08 16:45")
+                .items(List.of(new PurchaseItemDto(Long.valueOf(8), 1)))
+                .build();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        when(menuItemRepo.searchMenuItemsOfRestaurant(eq(Long.valueOf(6)), anyCollection()))
+                .thenReturn(List.of(menuItem));
+        when(customerRepo.searchCustomerByName("andrei")).thenReturn(Optional.of(customer));
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+
+        ArgumentCaptor<Purchase> savedPurchase = ArgumentCaptor.forClass(Purchase.class);
+        verify(purchaseRepo, times(1)).save(savedPurchase.capture());
+        assertEquals(idempotencyKey, savedPurchase.getValue().getIdempotencyKey());
+        verify(menuItemRepo, times(1)).searchMenuItemsOfRestaurant(eq(Long.valueOf(6)), anyCollection());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/purchase/order with an Idempotency-Key already stored in the db
+            (by another node), we expect a replay without pricing or storing the purchase again.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addOrderWithIdempotencyKeyStoredInDb() throws Exception {
+
+        PurchaseRequestDto purchaseRequestDto = PurchaseRequestDto.builder()
+                .restaurantId(Long.valueOf(6))
+                .items(List.of(new PurchaseItemDto(Long.valueOf(8), 1)))
+                .build();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        when(customerRepo.searchCustomerByName("andrei"))
+                .thenReturn(Optional.of(Customer.builder().customerId(Long.valueOf(1)).name("andrei").build()));
+        when(purchaseRepo.searchIdempotentPurchase(Long.valueOf(1), idempotencyKey)).thenReturn(Optional.of(
+                new IdempotentPurchase(Long.valueOf(42), PurchaseServiceImpl.requestHash(purchaseRequestDto))));
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+
+        verify(menuItemRepo, never()).searchMenuItemsOfRestaurant(any(), anyCollection());
+        verify(purchaseRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("""
+            When two customers call the endpoint POST /api/v1/purchase/order with the same Idempotency-Key,
+            we expect both purchases to be stored, the key of one customer never replays the purchase of the other.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addOrderOfTwoCustomersWithSameIdempotencyKey() throws Exception {
+
+        MenuItem menuItem = orderableMenuItem(Long.valueOf(6), Long.valueOf(8));
+        PurchaseRequestDto purchaseRequestDto = PurchaseRequestDto.builder()
+                .restaurantId(Long.valueOf(6))
+                .purchasePlacedTime("2022-06-08 16:45")
+                .items(List.of(new PurchaseItemDto(Long.valueOf(8), 1)))
+                .build();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        when(menuItemRepo.searchMenuItemsOfRestaurant(eq(Long.valueOf(6)), anyCollection()))
+                .thenReturn(List.of(menuItem));
+        when(customerRepo.searchCustomerByName("andrei"))
+                .thenReturn(Optional.of(Customer.builder().customerId(Long.valueOf(1)).name("andrei").build()));
+        when(customerRepo.searchCustomerByName("bogdan"))
+                .thenReturn(Optional.of(Customer.builder().customerId(Long.valueOf(2)).name("bogdan").build()));
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .with(user("bogdan").authorities(new SimpleGrantedAuthority("USER")))
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+
+        ArgumentCaptor<Purchase> savedPurchases = ArgumentCaptor.forClass(Purchase.class);
+        verify(purchaseRepo, times(2)).save(savedPurchases.capture());
+        assertEquals(List.of(Long.valueOf(1), Long.valueOf(2)), savedPurchases.getAllValues().stream()
+                .map(purchase -> purchase.getCustomer().getCustomerId())
+                .toList());
+        verify(purchaseRepo).searchIdempotentPurchase(Long.valueOf(1), idempotencyKey);
+        verify(purchaseRepo).searchIdempotentPurchase(Long.valueOf(2), idempotencyKey);
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/purchase/order again with the same Idempotency-Key but a
+            different order, we expect to get a PurchaseIdempotencyKeyReusedException and an UNPROCESSABLE_ENTITY
+            status code, and the second order not to be stored.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addOrderWithIdempotencyKeyReusedForAnotherOrder() throws Exception {
+
+        MenuItem menuItem = orderableMenuItem(Long.valueOf(6), Long.valueOf(8));
+        PurchaseRequestDto purchaseRequestDto = PurchaseRequestDto.builder()
+                .restaurantId(Long.valueOf(6))
+                .purchasePlacedTime("2022-06-08 16:45")
+                .items(List.of(new PurchaseItemDto(Long.valueOf(8), 1)))
+                .build();
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        when(menuItemRepo.searchMenuItemsOfRestaurant(eq(Long.valueOf(6)), anyCollection()))
+                .thenReturn(List.of(menuItem));
+        when(customerRepo.searchCustomerByName("andrei"))
+                .thenReturn(Optional.of(Customer.builder().customerId(Long.valueOf(1)).name("andrei").build()));
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(status().isOk());
+
+        purchaseRequestDto.setItems(List.of(new PurchaseItemDto(Long.valueOf(8), 3)));
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(result -> assertTrue(
+                        result.getResolvedException() instanceof PurchaseIdempotencyKeyReusedException))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(purchaseRepo, times(1)).save(any());
+    }
+
+    private static MenuItem orderableMenuItem(Long restaurantId, Long menuItemId) {
+        Restaurant restaurant = Restaurant.builder()
+                .restaurantId(restaurantId)
+                .name("Rest1")
+                .address("Adresa 1")
+                .build();
+
+        FoodCategory foodCategory = FoodCategory.builder()
+                .foodCategoryId(Long.valueOf(1))
+                .foodCategoryName("foodcateg1")
+                .restaurantMenu(restaurant)
+                .build();
+
+        return MenuItem.builder()
+                .menuItemId(menuItemId)
+                .name("Meat Pizza")
+                .price(BigDecimal.valueOf(35))
+                .timeToCook(BigDecimal.valueOf(20))
+                .foodCategory(foodCategory)
+                .build();
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/purchase/order with an Idempotency-Key longer than 255
+            characters, we expect to get an InvalidIdempotencyKeyException and a BAD_REQUEST status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addOrderWithInvalidIdempotencyKey() throws Exception {
+
+        PurchaseRequestDto purchaseRequestDto = PurchaseRequestDto.builder()
+                .restaurantId(Long.valueOf(6))
+                .items(List.of(new PurchaseItemDto(Long.valueOf(8), 1)))
+                .build();
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .header("Idempotency-Key", "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof InvalidIdempotencyKeyException))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint POST /api/v1/purchase/order with an item quantity above 100, we expect the
+            request to be refused by validation with a BAD_REQUEST status code before any menu item is read.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void addOrderWithTooLargeQuantity() throws Exception {
+
+        PurchaseRequestDto purchaseRequestDto = PurchaseRequestDto.builder()
+                .restaurantId(Long.valueOf(1))
+                .items(List.of(new PurchaseItemDto(Long.valueOf(7), 101)))
+                .build();
+
+        mockMvc.perform(post("/api/v1/purchase/order")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(purchaseRequestDto)))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof MethodArgumentNotValidException))
+                .andExpect(status().isBadRequest());
+
+        verify(menuItemRepo, never()).searchMenuItemsOfRestaurant(any(), anyCollection());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/id/{id}/events with valid credentials and a valid
+            purchase id, we expect an event stream starting with the current state of the purchase and
+            pushing its delivery once the actual delivery time is set.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void trackPurchaseTest() throws Exception {
+
+        Restaurant restaurant = Restaurant.builder()
+                .restaurantId(Long.valueOf(9))
+                .name("Rest1")
+                .address("Adresa 1")
+                .build();
+
+        Purchase purchase = Purchase.builder()
+                .purchaseId(Long.valueOf(9))
+                .restaurant(restaurant)
+                .estimatedDeliveryTime(LocalDateTime.parse("2022-06-08 17:15", dateTimeFormatter()))
+                .build();
+
+        when(purchaseRepo.findById(Long.valueOf(9))).thenReturn(Optional.of(purchase));
+
+        MvcResult purchaseEvents = mockMvc.perform(get("/api/v1/purchase/id/9/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult restaurantEvents = mockMvc.perform(get("/api/v1/purchase/restaurant/9/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        awaitContent(purchaseEvents, "\"status\":\"PLACED\"");
+
+        mockMvc.perform(put("/api/v1/purchase/9")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("2022-06-08 17:10"))
+                .andExpect(status().isOk());
+
+        awaitContent(purchaseEvents, "\"status\":\"DELIVERED\"");
+        awaitContent(restaurantEvents, "\"status\":\"DELIVERED\"");
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/id/{id}/events with valid credentials and a non valid
+            purchase id, we expect to get a PurchaseNotFoundByIdException and a NOT_FOUND status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void trackPurchaseWithNonValidId() throws Exception {
+
+        when(purchaseRepo.findById(Long.valueOf(1))).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/purchase/id/1/events"))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof PurchaseNotFoundByIdException))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404));
+    }
+
+    private static void awaitContent(MvcResult mvcResult, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!mvcResult.getResponse().getContentAsString().contains(expected)) {
+            assertTrue(System.currentTimeMillis() < deadline,
+                    "Expected " + expected + " in " + mvcResult.getResponse().getContentAsString());
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint PUT /api/v1/purchase/delivered with more deliveries than one batch allows,
+            we expect to get a TooManyDeliveryConfirmationsException and a PAYLOAD_TOO_LARGE status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void confirmTooManyDeliveries() throws Exception {
+
+        List<DeliveryConfirmationDto> deliveryConfirmations = Stream.iterate(1L, id -> id + 1)
+                .limit(1001)
+                .map(id -> new DeliveryConfirmationDto(id, "2022-06-08 16:45"))
+                .toList();
+
+        mockMvc.perform(put("/api/v1/purchase/delivered")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(deliveryConfirmations)))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof TooManyDeliveryConfirmationsException))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
     @Test
     @DisplayName("""
             When we call the endpoint PUT /api/v1/purchase/{id} with valid credentials, valid authorities,
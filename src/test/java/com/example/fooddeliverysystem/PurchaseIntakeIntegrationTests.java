@@ -0,0 +1,245 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.dto.PurchaseIntakeReceipt;
+import com.example.fooddeliverysystem.dto.PurchaseItemDto;
+import com.example.fooddeliverysystem.dto.PurchaseRequestDto;
+import com.example.fooddeliverysystem.exceptions.purchase.PurchaseIntakeQueueFullException;
+import com.example.fooddeliverysystem.model.*;
+import com.example.fooddeliverysystem.repo.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the writer thread commits what it persists, so the class gets a database of its own
+@SpringBootTest(properties = {
+        "purchase.intake.async-enabled=true",
+        "purchase.intake.capacity=3",
+        "purchase.intake.batch-size=3",
+        "purchase.intake.linger-ms=1000",
+        "spring.datasource.url=jdbc:h2:mem:intake;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PurchaseIntakeIntegrationTests {
+
+    private static final String INTAKE_LOCATION = "/api/v1/purchase/intake/";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CityRepo cityRepo;
+    @Autowired
+    private RestaurantRepo restaurantRepo;
+    @Autowired
+    private FoodCategoryRepo foodCategoryRepo;
+    @Autowired
+    private MenuItemRepo menuItemRepo;
+    @Autowired
+    private CustomerRepo customerRepo;
+    @Autowired
+    private PurchaseRepo purchaseRepo;
+    @SpyBean
+    private PurchaseBatchRepo purchaseBatchRepo;
+
+    private Long restaurantId;
+    private Long menuItemId;
+
+    @BeforeAll
+    public void seed() {
+        City city = cityRepo.save(City.builder().name("Bucuresti").zipcode("111111").build());
+        Restaurant restaurant = restaurantRepo.save(Restaurant.builder()
+                .name("Rest1").address("Adresa 1").city(city).build());
+        FoodCategory foodCategory = foodCategoryRepo.save(FoodCategory.builder()
+                .foodCategoryName("Pizza").restaurantMenu(restaurant).build());
+        MenuItem menuItem = menuItemRepo.save(MenuItem.builder()
+                .name("Meat Pizza").ingredients("dough, beef, sausage").foodCategory(foodCategory)
+                .price(BigDecimal.valueOf(35)).timeToCook(BigDecimal.valueOf(20)).build());
+        customerRepo.save(Customer.builder()
+                .name("andrei").city(city).address("Strada 1").phone("0722222222")
+                .email("andrei@mail.com").password("andreiparola1").build());
+
+        restaurantId = restaurant.getRestaurantId();
+        menuItemId = menuItem.getMenuItemId();
+    }
+
+    @Test
+    @DisplayName("""
+            When the asynchronous intake is enabled and we call the endpoint POST /api/v1/purchase/order with valid
+            credentials, we expect a 202 ACCEPTED status code with a Location header pointing to the intake receipt,
+            and the receipt to reach PERSISTED with the id of the purchase stored in the db.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void acceptOrderTest() throws Exception {
+
+        String location = placeOrder(2);
+        assertTrue(location.startsWith(INTAKE_LOCATION), location);
+
+        JsonNode receipt = awaitReceipt(location);
+        assertEquals(PurchaseIntakeReceipt.Status.PERSISTED.name(), receipt.get("status").asText());
+
+        long purchaseId = receipt.get("purchaseId").asLong();
+        transactionTemplate.executeWithoutResult(transactionStatus -> {
+            Purchase purchase = purchaseRepo.findById(purchaseId).orElseThrow();
+            assertEquals(0, BigDecimal.valueOf(70).compareTo(purchase.getPrice()));
+            assertEquals(1, purchase.getPurchaseLines().size());
+            assertEquals(2, purchase.getPurchaseLines().get(0).getQuantity());
+        });
+    }
+
+    @Test
+    @DisplayName("""
+            When the asynchronous intake is enabled and several orders arrive close together, we expect them
+            to be written to the db with a single batched insert and every receipt to reach PERSISTED.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void persistOrdersInOneBatchTest() throws Exception {
+
+        List<String> locations = List.of(placeOrder(1), placeOrder(2), placeOrder(3));
+
+        for (String location : locations) {
+            assertEquals(PurchaseIntakeReceipt.Status.PERSISTED.name(), awaitReceipt(location).get("status").asText());
+        }
+        verify(purchaseBatchRepo, times(1)).insertPurchases(argThat(purchases -> purchases.size() == 3));
+    }
+
+    @Test
+    @DisplayName("""
+            When the asynchronous intake is enabled and the queue is full while the writer is busy, we expect
+            the next order to get a PurchaseIntakeQueueFullException and a 429 TOO_MANY_REQUESTS status code,
+            while the orders already accepted are still persisted.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void rejectOrderWhenQueueIsFullTest() throws Exception {
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(purchaseBatchRepo).insertPurchases(anyList());
+
+        List<String> locations = new ArrayList<>();
+        try {
+            // the writer takes a first batch and holds it, the next orders fill the queue
+            for (int i = 0; i < 3; i++) {
+                locations.add(placeOrder(1));
+            }
+            assertTrue(writing.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                locations.add(placeOrder(1));
+            }
+
+            mockMvc.perform(post("/api/v1/purchase/order")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(orderJson(1)))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(result -> assertTrue(
+                            result.getResolvedException() instanceof PurchaseIntakeQueueFullException));
+        } finally {
+            release.countDown();
+        }
+
+        for (String location : locations) {
+            assertEquals(PurchaseIntakeReceipt.Status.PERSISTED.name(), awaitReceipt(location).get("status").asText());
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            When the asynchronous intake is enabled and the batched insert fails because of one order, we expect
+            the orders of the batch to be retried one by one: the good ones reach PERSISTED and only the bad one
+            ends FAILED.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "USER")
+    public void fallBackToSingleInsertsWhenBatchFailsTest() throws Exception {
+
+        // the order of 3 pizzas stands in for a purchase the db refuses
+        doAnswer(invocation -> {
+            List<Purchase> purchases = invocation.getArgument(0);
+            if (purchases.stream().anyMatch(purchase -> purchase.getPurchaseLines().get(0).getQuantity() == 3)) {
+                throw new IllegalStateException("The purchase can not be stored.");
+            }
+            return invocation.callRealMethod();
+        }).when(purchaseBatchRepo).insertPurchases(anyList());
+
+        String first = placeOrder(1);
+        String bad = placeOrder(3);
+        String last = placeOrder(2);
+
+        assertEquals(PurchaseIntakeReceipt.Status.PERSISTED.name(), awaitReceipt(first).get("status").asText());
+        assertEquals(PurchaseIntakeReceipt.Status.FAILED.name(), awaitReceipt(bad).get("status").asText());
+        assertEquals(PurchaseIntakeReceipt.Status.PERSISTED.name(), awaitReceipt(last).get("status").asText());
+        // the batch of 3, then each order on its own
+        verify(purchaseBatchRepo, times(4)).insertPurchases(anyList());
+    }
+
+    private String placeOrder(int quantity) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/v1/purchase/order")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orderJson(quantity)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists(HttpHeaders.LOCATION))
+                .andReturn();
+        return result.getResponse().getHeader(HttpHeaders.LOCATION);
+    }
+
+    private String orderJson(int quantity) throws Exception {
+        return objectMapper.writeValueAsString(PurchaseRequestDto.builder()
+                .restaurantId(restaurantId)
+                .purchasePlacedTime("2022-06-08 16:45")
+                .items(List.of(new PurchaseItemDto(menuItemId, quantity)))
+                .build());
+    }
+
+    // polls the receipt until the writer is done with the purchase
+    private JsonNode awaitReceipt(String location) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            JsonNode receipt = objectMapper.readTree(mockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (!PurchaseIntakeReceipt.Status.QUEUED.name().equals(receipt.get("status").asText())
+                    || System.nanoTime() > deadline) {
+                return receipt;
+            }
+            Thread.sleep(50);
+        }
+    }
+}
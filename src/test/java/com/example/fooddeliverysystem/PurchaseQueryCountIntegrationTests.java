@@ -0,0 +1,246 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.model.*;
+import com.example.fooddeliverysystem.repo.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+public class PurchaseQueryCountIntegrationTests {
+
+    private static final int PURCHASES = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CityRepo cityRepo;
+    @Autowired
+    private RestaurantRepo restaurantRepo;
+    @Autowired
+    private FoodCategoryRepo foodCategoryRepo;
+    @Autowired
+    private MenuItemRepo menuItemRepo;
+    @Autowired
+    private RoleRepo roleRepo;
+    @Autowired
+    private CustomerRepo customerRepo;
+    @Autowired
+    private PurchaseRepo purchaseRepo;
+
+    private Long lastPurchaseId;
+
+    @BeforeEach
+    public void seed() {
+        Role user = roleRepo.save(new Role(null, "USER"));
+        Role admin = roleRepo.save(new Role(null, "ADMIN"));
+
+        List<Customer> customers = new ArrayList<>();
+        List<MenuItem> menuItems = new ArrayList<>();
+        List<Restaurant> restaurants = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            City city = cityRepo.save(City.builder().name("City" + i).zipcode("11111" + i).build());
+
+            Restaurant restaurant = restaurantRepo.save(Restaurant.builder()
+                    .name("Rest" + i).address("Adresa " + i).city(city).build());
+            restaurants.add(restaurant);
+
+            FoodCategory foodCategory = foodCategoryRepo.save(FoodCategory.builder()
+                    .foodCategoryName("Pizza" + i).restaurantMenu(restaurant).build());
+
+            for (int j = 0; j < 3; j++) {
+                menuItems.add(menuItemRepo.save(MenuItem.builder()
+                        .name("Pizza" + i + j).ingredients("dough, tomatoes").foodCategory(foodCategory)
+                        .price(BigDecimal.valueOf(30 + j)).timeToCook(BigDecimal.valueOf(15 + j)).build()));
+            }
+
+            customers.add(customerRepo.save(Customer.builder()
+                    .name("customer" + i).city(city).address("Strada " + i).phone("072222222" + i)
+                    .email("customer" + i + "@mail.com").password("parola" + i)
+                    .roles(i == 0 ? List.of(user, admin) : List.of(user)).build()));
+        }
+
+        for (int i = 0; i < PURCHASES; i++) {
+            Purchase purchase = Purchase.builder()
+                    .restaurant(restaurants.get(i % 3))
+                    .customer(customers.get(i % 3))
+                    .price(BigDecimal.valueOf(61))
+                    .purchasePlacedTime(LocalDateTime.of(2022, 6, 8, 12, i))
+                    .estimatedDeliveryTime(LocalDateTime.of(2022, 6, 8, 13, i))
+                    .purchaseLines(new ArrayList<>())
+                    .build();
+            purchase.getPurchaseLines().add(purchaseLine(purchase, menuItems.get(i % 9), 1));
+            purchase.getPurchaseLines().add(purchaseLine(purchase, menuItems.get((i + 1) % 9), 2));
+            lastPurchaseId = purchaseRepo.save(purchase).getPurchaseId();
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static PurchaseLine purchaseLine(Purchase purchase, MenuItem menuItem, int quantity) {
+        return PurchaseLine.builder()
+                .purchase(purchase)
+                .menuItem(menuItem)
+                .menuItemId(menuItem.getMenuItemId())
+                .menuItemName(menuItem.getName())
+                .quantity(quantity)
+                .unitPrice(menuItem.getPrice())
+                .build();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase, the purchases, their restaurants, customers,
+            cities and purchase lines are loaded with one select and the customers' roles with one more,
+            whatever the number of purchases.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void getAllPurchasesStatementCount() throws Exception {
+
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/v1/purchase"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(PURCHASES))
+                .andExpect(jsonPath("$[0].purchaseLines.length()").value(2))
+                .andExpect(jsonPath("$[0].customer.roles").isArray());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/id/{id}, the purchase and everything it serializes
+            is loaded with one select plus one for the customer's roles.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void getPurchaseByIdStatementCount() throws Exception {
+
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/v1/purchase/id/" + lastPurchaseId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.purchaseLines.length()").value(2))
+                .andExpect(jsonPath("$.restaurant.city.name").isNotEmpty());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/purchase/page, the page is loaded with one select and the purchase
+            lines and roles of the whole page with one batched select each.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void getPurchasesPageStatementCount() throws Exception {
+
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/v1/purchase/page").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.purchases.length()").value(10))
+                .andExpect(jsonPath("$.purchases[0].purchaseLines.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint PUT /api/v1/purchase/delivered with a batch of deliveries, the known purchases
+            are updated without loading any entity and every delivery gets its own result.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void confirmDeliveriesWithoutLoadingEntities() throws Exception {
+
+        Statistics statistics = statistics();
+
+        mockMvc.perform(put("/api/v1/purchase/delivered")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" +
+                                "{\"purchaseId\": " + lastPurchaseId + ", \"deliveredAt\": \"2022-06-08 13:40\"}," +
+                                "{\"purchaseId\": " + (lastPurchaseId - 1) + ", \"deliveredAt\": \"2022-06-08 13:35\"}," +
+                                "{\"purchaseId\": " + (lastPurchaseId + 100) + ", \"deliveredAt\": \"2022-06-08 13:35\"}," +
+                                "{\"purchaseId\": " + lastPurchaseId + ", \"deliveredAt\": \"13:35\"}" +
+                                "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("UPDATED"))
+                .andExpect(jsonPath("$[2].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[3].status").value("INVALID"));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(LocalDateTime.of(2022, 6, 8, 13, 40),
+                purchaseRepo.findById(lastPurchaseId).orElseThrow().getActualDeliveryTime());
+    }
+
+    @Test
+    @DisplayName("""
+            When we call the endpoint PUT /api/v1/purchase/delivered with a batch holding a null delivery and
+            deliveries without a purchase id or without a delivery time, only those are INVALID and the rest of
+            the batch is still updated.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1", authorities = "ADMIN")
+    public void confirmDeliveriesWithMissingFields() throws Exception {
+
+        mockMvc.perform(put("/api/v1/purchase/delivered")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" +
+                                "null," +
+                                "{\"deliveredAt\": \"2022-06-08 13:35\"}," +
+                                "{\"purchaseId\": " + (lastPurchaseId - 1) + "}," +
+                                "{\"purchaseId\": " + lastPurchaseId + ", \"deliveredAt\": \"2022-06-08 13:40\"}" +
+                                "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].status").value("INVALID"))
+                .andExpect(jsonPath("$[0].purchaseId").isEmpty())
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[2].status").value("INVALID"))
+                .andExpect(jsonPath("$[2].purchaseId").value(lastPurchaseId - 1))
+                .andExpect(jsonPath("$[3].status").value("UPDATED"));
+
+        assertNull(purchaseRepo.findById(lastPurchaseId - 1).orElseThrow().getActualDeliveryTime());
+        assertEquals(LocalDateTime.of(2022, 6, 8, 13, 40),
+                purchaseRepo.findById(lastPurchaseId).orElseThrow().getActualDeliveryTime());
+    }
+}
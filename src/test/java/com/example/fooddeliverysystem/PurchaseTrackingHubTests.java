@@ -0,0 +1,139 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.dto.PurchaseTrackingEvent;
+import com.example.fooddeliverysystem.service.PurchaseTrackingHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PurchaseTrackingHubTests {
+
+    private final Queue<ClientEmitter> nextEmitters = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // 2 sender threads, 2 queued events per stream, sends time out after a second
+    private final PurchaseTrackingHub purchaseTrackingHub = new PurchaseTrackingHub(30, 100, 60, 2, 2, 1) {
+        @Override
+        protected SseEmitter createEmitter(long timeoutMillis) {
+            return nextEmitters.poll();
+        }
+    };
+
+    private static PurchaseTrackingEvent delivered(long purchaseId) {
+        LocalDateTime estimated = LocalDateTime.of(2022, 6, 8, 17, 15);
+        return new PurchaseTrackingEvent(purchaseId, 1L, PurchaseTrackingEvent.Status.DELIVERED, estimated,
+                estimated.minusMinutes(5));
+    }
+
+    private ClientEmitter subscribe(boolean stalled) {
+        ClientEmitter emitter = new ClientEmitter(stalled);
+        nextEmitters.add(emitter);
+        purchaseTrackingHub.subscribeToRestaurant(1L);
+        return emitter;
+    }
+
+    @AfterEach
+    public void stop() {
+        release.countDown();
+        purchaseTrackingHub.stop();
+    }
+
+    @Test
+    @DisplayName("""
+            When a client stops reading its stream, the other clients still get their events right away, and
+            the stalled client is dropped and its stream completed once its send times out.
+            """)
+    public void stalledClientIsDroppedTest() throws Exception {
+        purchaseTrackingHub.start();
+        ClientEmitter stalled = subscribe(true);
+        ClientEmitter healthy = subscribe(false);
+
+        purchaseTrackingHub.onPurchaseTrackingEvent(delivered(1));
+        await(() -> healthy.events.get() == 1, 500);
+
+        await(() -> stalled.completed, 5000);
+        assertTrue(stalled.interrupted);
+        assertEquals(1, purchaseTrackingHub.getSubscriberCount());
+
+        purchaseTrackingHub.onPurchaseTrackingEvent(delivered(2));
+        await(() -> healthy.events.get() == 2, 500);
+    }
+
+    @Test
+    @DisplayName("""
+            When the events of a client that does not keep up overflow its queue, the client is dropped right
+            away instead of buffering more events, and its stream is completed.
+            """)
+    public void overflowingClientIsDroppedTest() throws Exception {
+        purchaseTrackingHub.start();
+        ClientEmitter stalled = subscribe(true);
+
+        for (int i = 0; i < 4; i++) {
+            purchaseTrackingHub.onPurchaseTrackingEvent(delivered(i));
+        }
+        assertEquals(0, purchaseTrackingHub.getSubscriberCount());
+
+        await(() -> stalled.completed, 5000);
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the condition");
+            Thread.sleep(10);
+        }
+    }
+
+    // stands in for the stream of a client, a stalled one blocks every write like a full socket buffer
+    private class ClientEmitter extends SseEmitter {
+
+        private final boolean stalled;
+        private final AtomicInteger events = new AtomicInteger();
+        private volatile boolean interrupted;
+        private volatile boolean completed;
+
+        private ClientEmitter(boolean stalled) {
+            this.stalled = stalled;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (stalled) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    throw new IOException("The write was interrupted.", e);
+                }
+            }
+            builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(PurchaseTrackingEvent.class::isInstance)
+                    .forEach(data -> events.incrementAndGet());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.dto.PurchaseFilter;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.model.RefreshToken;
+import com.example.fooddeliverysystem.repo.*;
+import com.example.fooddeliverysystem.service.SyntheticDataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the repository queries against a few thousand rows per table, records every statement that reaches
+ * the database with its parameters and asks the database for the plan of each. A plan that reads a large
+ * table from start to end, instead of through an index, fails the test. Only lookups are run: findAll,
+ * count and the stream that builds the menu item search index read whole tables on purpose.
+ */
+@SpringBootTest
+public class QueryPlanIntegrationTests {
+
+    private static final int LARGE_TABLE_ROWS = 1000;
+    private static final int REFRESH_TOKENS = 2000;
+
+    // the full scans in the plans of H2 and of PostgreSQL, the table name in the first group
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\* public\\.(\\w+)\\.tableScan \\*/");
+    private static final Pattern POSTGRES_SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SequenceIdAllocator sequenceIdAllocator;
+
+    @Autowired
+    private CityRepo cityRepo;
+    @Autowired
+    private RestaurantRepo restaurantRepo;
+    @Autowired
+    private FoodCategoryRepo foodCategoryRepo;
+    @Autowired
+    private MenuItemRepo menuItemRepo;
+    @Autowired
+    private CustomerRepo customerRepo;
+    @Autowired
+    private RoleRepo roleRepo;
+    @Autowired
+    private PurchaseRepo purchaseRepo;
+    @Autowired
+    private RefreshTokenRepo refreshTokenRepo;
+    @Autowired
+    private MenuImportBatchRepo menuImportBatchRepo;
+    @Autowired
+    private PurchaseBatchRepo purchaseBatchRepo;
+
+    @TestConfiguration
+    static class StatementRecorderConfig {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor(StatementRecorder statementRecorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? statementRecorder.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    public void seed() {
+        syntheticDataGenerator.generate(new SyntheticDataGenerator.Volumes(40, 1500, 2, 3, 3000, 20000, 30, 1000,
+                42, "parola1234"));
+
+        // two refresh tokens for each of the first customers
+        List<Long> customerIds = jdbcTemplate.queryForList(
+                "SELECT customer_id FROM customer ORDER BY customer_id LIMIT ?", Long.class, REFRESH_TOKENS / 2);
+        long[] refreshTokenIds = sequenceIdAllocator.nextIds(RefreshToken.ID_SEQUENCE, REFRESH_TOKENS);
+        List<Object[]> refreshTokens = new ArrayList<>();
+        for (int i = 0; i < REFRESH_TOKENS; i++) {
+            refreshTokens.add(new Object[]{refreshTokenIds[i], String.format("%064x", i), customerIds.get(i / 2),
+                    Timestamp.valueOf(LocalDateTime.now().plusDays(i % 2 == 0 ? 1 : -1)), false});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO refresh_token (refresh_token_id, token_hash, customer_id, expires_at, " +
+                "revoked) VALUES (?, ?, ?, ?, ?)", refreshTokens);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        for (String table : new String[]{"refresh_token", "purchase_line", "purchase", "customer_roles", "customer",
+                "menu_item", "food_category", "restaurant", "city", "role"}) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            When the repositories look up, page, update or delete rows, the database reads the large tables
+            through their indexes and never scans them from start to end.
+            """)
+    public void repositoryQueriesUseIndexesTest() {
+
+        Map<String, Object> purchase = jdbcTemplate.queryForMap("SELECT p.purchase_id, p.restaurant_id, " +
+                "p.customer_id, p.purchase_placed_time FROM purchase p ORDER BY p.purchase_id LIMIT 1");
+        Long purchaseId = (Long) purchase.get("purchase_id");
+        Long restaurantId = (Long) purchase.get("restaurant_id");
+        Long customerId = (Long) purchase.get("customer_id");
+        LocalDateTime placedTime = ((Timestamp) purchase.get("purchase_placed_time")).toLocalDateTime();
+        Map<String, Object> menuItem = jdbcTemplate.queryForMap("SELECT mi.menu_item_id, mi.name, " +
+                "fc.food_category_id, fc.food_category_name FROM menu_item mi " +
+                "JOIN food_category fc ON fc.food_category_id = mi.category_id " +
+                "WHERE fc.restaurant_id = ? ORDER BY mi.menu_item_id LIMIT 1", restaurantId);
+        Long menuItemId = (Long) menuItem.get("menu_item_id");
+        String menuItemName = (String) menuItem.get("name");
+        Long foodCategoryId = (Long) menuItem.get("food_category_id");
+        String foodCategoryName = (String) menuItem.get("food_category_name");
+        Long cityId = jdbcTemplate.queryForObject("SELECT city_id FROM restaurant WHERE restaurant_id = ?",
+                Long.class, restaurantId);
+        String cityName = jdbcTemplate.queryForObject("SELECT name FROM city WHERE city_id = ?", String.class, cityId);
+        String restaurantName = jdbcTemplate.queryForObject("SELECT name FROM restaurant WHERE restaurant_id = ?",
+                String.class, restaurantId);
+        Map<String, Object> customer = jdbcTemplate.queryForMap("SELECT name, email FROM customer WHERE customer_id = ?",
+                customerId);
+        Map<String, Object> refreshToken = jdbcTemplate.queryForMap("SELECT token_hash, customer_id FROM refresh_token " +
+                "ORDER BY refresh_token_id LIMIT 1");
+
+        statementRecorder.start();
+
+        cityRepo.findById(cityId);
+        cityRepo.searchCityByName(cityName);
+
+        restaurantRepo.findById(restaurantId);
+        restaurantRepo.existsByName(restaurantName);
+        restaurantRepo.searchRestaurantByName(restaurantName);
+        restaurantRepo.searchRestaurantMenu(restaurantId);
+
+        foodCategoryRepo.findById(foodCategoryId);
+        foodCategoryRepo.searchFoodCategoryByName(foodCategoryName);
+
+        menuItemRepo.findById(menuItemId);
+        menuItemRepo.searchMenuItemByName(menuItemName);
+        List<Long> menuItemIds = menuItemRepo.searchMenuItemsByFoodCategory(foodCategoryId).stream()
+                .map(MenuItem::getMenuItemId)
+                .toList();
+        menuItemRepo.searchMenuItemsOfRestaurant(restaurantId, menuItemIds);
+
+        customerRepo.findById(customerId);
+        customerRepo.searchCustomerByName((String) customer.get("name"));
+        customerRepo.searchCustomerByEmail((String) customer.get("email"));
+        roleRepo.searchRoleByName("USER");
+
+        purchaseRepo.findById(purchaseId);
+        purchaseRepo.searchIdempotentPurchase(customerId, "no-such-key");
+        for (PurchaseFilter filter : List.of(
+                new PurchaseFilter(null, null, null, null),
+                new PurchaseFilter(restaurantId, null, null, null),
+                new PurchaseFilter(null, customerId, null, null),
+                new PurchaseFilter(null, null, placedTime.minusDays(1), placedTime.plusDays(1)))) {
+            transactionTemplate.executeWithoutResult(status -> {
+                // the purchase lines come with one batched select per page
+                purchaseRepo.searchPurchasesPage(filter, null, null, 20)
+                        .forEach(p -> p.getPurchaseLines().size());
+                purchaseRepo.searchPurchasesPage(filter, placedTime, purchaseId, 20)
+                        .forEach(p -> p.getPurchaseLines().size());
+            });
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Purchase> purchases = purchaseRepo.streamPurchases(
+                    new PurchaseFilter(restaurantId, null, null, null), 100)) {
+                purchases.limit(50).forEach(p -> p.getPurchaseLines().size());
+            }
+        });
+
+        Long refreshTokenCustomerId = (Long) refreshToken.get("customer_id");
+        refreshTokenRepo.searchRefreshTokenByTokenHash((String) refreshToken.get("token_hash"));
+        transactionTemplate.executeWithoutResult(status -> {
+            refreshTokenRepo.revokeRefreshTokensByCustomerId(refreshTokenCustomerId);
+            refreshTokenRepo.deleteExpiredRefreshTokensByCustomerId(refreshTokenCustomerId, LocalDateTime.now());
+            refreshTokenRepo.deleteRefreshTokensByCustomerId(refreshTokenCustomerId);
+        });
+
+        menuImportBatchRepo.searchExistingMenuItemNames(List.of(menuItemName, "No such menu item"));
+        menuImportBatchRepo.searchFoodCategoriesByName(List.of(foodCategoryName, "No such food category"));
+        purchaseBatchRepo.searchIdempotentPurchase(customerId, "no-such-key");
+        purchaseBatchRepo.searchDeliveryEstimates(List.of(purchaseId));
+        purchaseBatchRepo.updateActualDeliveryTimes(List.of(purchaseId), List.of(LocalDateTime.now()));
+
+        Map<String, Map<Integer, Object>> statements = statementRecorder.stop();
+        assertFalse(statements.isEmpty());
+
+        List<String> fullScans = new ArrayList<>();
+        statements.forEach((sql, parameters) -> {
+            if (!sql.trim().toLowerCase(Locale.ROOT).matches("^(select|update|delete)\\b[\\s\\S]*")) {
+                return;
+            }
+            String plan = explain(sql, parameters);
+            Matcher scan = (plan.contains("Seq Scan") ? POSTGRES_SEQ_SCAN : H2_TABLE_SCAN).matcher(plan);
+            while (scan.find()) {
+                String table = scan.group(1);
+                Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+                if (rows != null && rows >= LARGE_TABLE_ROWS) {
+                    fullScans.add(table + " (" + rows + " rows) is scanned by\n" + sql + "\n" + plan);
+                }
+            }
+        });
+        assertTrue(fullScans.isEmpty(), () -> String.join("\n\n", fullScans));
+    }
+
+    private String explain(String sql, Map<Integer, Object> parameters) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                    if (parameter.getValue() instanceof NullParameter nullParameter) {
+                        explain.setNull(parameter.getKey(), nullParameter.sqlType());
+                    } else {
+                        explain.setObject(parameter.getKey(), parameter.getValue());
+                    }
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    private record NullParameter(int sqlType) {
+    }
+
+    /**
+     * Wraps the data source so that, between start and stop, the sql of every executed prepared statement
+     * is kept with the parameters of its first execution.
+     */
+    static class StatementRecorder {
+
+        private final Map<String, Map<Integer, Object>> statements = new LinkedHashMap<>();
+        private volatile boolean recording;
+
+        void start() {
+            synchronized (statements) {
+                statements.clear();
+            }
+            recording = true;
+        }
+
+        Map<String, Map<Integer, Object>> stop() {
+            recording = false;
+            synchronized (statements) {
+                return new LinkedHashMap<>(statements);
+            }
+        }
+
+        DataSource wrap(DataSource dataSource) {
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return recordingConnection(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return recordingConnection(super.getConnection(username, password));
+                }
+            };
+        }
+
+        private Connection recordingConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (recording && method.getName().equals("prepareStatement")) {
+                            return recordingStatement((PreparedStatement) result, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement recordingStatement(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                            parameters.put(index, name.equals("setNull") ? new NullParameter((Integer) args[1]) : args[1]);
+                        } else if (recording && (name.startsWith("execute") || name.equals("addBatch"))) {
+                            synchronized (statements) {
+                                statements.putIfAbsent(sql, new TreeMap<>(parameters));
+                            }
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
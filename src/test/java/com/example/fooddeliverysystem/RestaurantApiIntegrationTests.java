@@ -5,6 +5,7 @@ import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantNotFoundBy
 import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantNotFoundByNameException;
 import com.example.fooddeliverysystem.model.City;
 import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.CityRepo;
 import com.example.fooddeliverysystem.repo.RestaurantRepo;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -33,6 +34,8 @@ public class RestaurantApiIntegrationTests {
 
     @MockBean
     private RestaurantRepo restaurantRepo;
+    @MockBean
+    private CityRepo cityRepo;
 
     @Autowired
     private MockMvc mockMvc;
@@ -308,7 +311,14 @@ public class RestaurantApiIntegrationTests {
         ObjectMapper mapper = new ObjectMapper();
         String requestJson = mapper.writeValueAsString(restaurant1);
 
+        City city = City.builder()
+                .cityId(cityId)
+                .name("Bucuresti")
+                .zipcode("111111")
+                .build();
+
         when(restaurantRepo.searchRestaurantByName(restaurant1.getName())).thenReturn(Optional.empty());
+        when(cityRepo.findById(cityId)).thenReturn(Optional.of(city));
 
         mockMvc.perform(post("/api/v1/restaurant/" + cityId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -316,6 +326,23 @@ public class RestaurantApiIntegrationTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("""
+            When we call the endpoint GET /api/v1/restaurant/{id}/menu with valid credentials and a non valid id,
+            we expect to get a RestaurantNotFoundByIdException and a NOT_FOUND status code.
+            """)
+    @WithMockUser(username = "andrei", password = "andreiparola1")
+    public void getRestaurantMenuWithNonValidId() throws Exception {
+
+        Long notValidId = Long.valueOf(1);
+
+        when(restaurantRepo.searchRestaurantMenu(notValidId)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/restaurant/" + notValidId + "/menu"))
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof RestaurantNotFoundByIdException))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("""
             When we call the endpoint DELETE /api/v1/restaurant/{id} with valid credentials, valid authorities,
@@ -0,0 +1,103 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.model.PurchaseLine;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import com.example.fooddeliverysystem.repo.PurchaseRepo;
+import com.example.fooddeliverysystem.repo.SequenceIdAllocator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaMigrationIntegrationTests {
+
+    private static final String URL = "jdbc:h2:mem:baseline;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+            "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    @Test
+    @DisplayName("""
+            When the application starts on a database Hibernate created with the baseline schema, the database is
+            baselined and upgraded: the purchase_menuitems rows become purchase lines with quantities, the
+            ingredients stay readable, a customer or food category name taken twice is made unique and new
+            ids, from JPA and from JDBC, come after the existing ones.
+            """)
+    public void upgradeBaselineDatabaseTest() {
+
+        JdbcTemplate baseline = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        new ResourceDatabasePopulator(new ClassPathResource("db/vendor/h2/V1__baseline_schema.sql"))
+                .execute(baseline.getDataSource());
+
+        baseline.update("INSERT INTO city (name, zipcode) VALUES ('Cluj', '400000'), ('Iasi', '700000')");
+        baseline.update("INSERT INTO restaurant (name, address, city_id) VALUES " +
+                "('Pizzeria', 'Strada 1', 1), ('Trattoria', 'Strada 4', 2)");
+        baseline.update("INSERT INTO food_category (food_category_name, restaurant_id) VALUES ('Pizza', 1), ('Pizza', 2)");
+        baseline.update("INSERT INTO menu_item (name, ingredients, price, time_to_cook, category_id) VALUES " +
+                "('Pizza Margherita', 'tomato, mozzarella', 30, 15, 1), ('Pizza Diavola', 'salami', 35, 15, 1)");
+        baseline.update("INSERT INTO role (name) VALUES ('USER')");
+        baseline.update("INSERT INTO customer (name, city_id, address, phone, email, password) VALUES " +
+                "('andrei', 1, 'Strada 2', '0712345678', 'andrei@mail.ro', 'parola'), " +
+                "('andrei', 2, 'Strada 3', '0712345679', 'andrei.pop@mail.ro', 'parola')");
+        baseline.update("INSERT INTO customer_roles (customer_id, role_id) VALUES (1, 1), (1, 1)");
+        baseline.update("INSERT INTO purchase (price, restaurant_id, customer_id, purchase_placed_time) VALUES " +
+                "(95, 1, 1, '2022-06-08 12:30:00'), (30, 1, 1, '2022-06-09 12:30:00')");
+        // one row per unit ordered: two Margherita and one Diavola, then one Margherita
+        baseline.update("INSERT INTO purchase_menuitems (purchase_id, menu_item_id) VALUES (1, 1), (1, 2), (1, 1), (2, 1)");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FoodDeliverySystemApplication.class)
+                .run("--server.port=0", "--spring.datasource.url=" + URL, "--logging.level.root=WARN")) {
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertEquals("BASELINE", jdbcTemplate.queryForObject(
+                    "SELECT type FROM flyway_schema_history WHERE version = '1'", String.class));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables " +
+                    "WHERE table_name = 'purchase_menuitems'", Integer.class));
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer_roles", Integer.class));
+            assertEquals(List.of("andrei", "andrei-2"), jdbcTemplate.queryForList(
+                    "SELECT name FROM customer ORDER BY customer_id", String.class));
+            assertEquals(List.of("Pizza", "Pizza-2"), jdbcTemplate.queryForList(
+                    "SELECT food_category_name FROM food_category ORDER BY food_category_id", String.class));
+
+            new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+                Purchase purchase = context.getBean(PurchaseRepo.class).findById(1L).orElseThrow();
+                List<PurchaseLine> lines = purchase.getPurchaseLines().stream()
+                        .sorted(Comparator.comparing(PurchaseLine::getMenuItemId))
+                        .toList();
+                assertEquals(2, lines.size());
+                assertEquals("Pizza Margherita", lines.get(0).getMenuItemName());
+                assertEquals(2, lines.get(0).getQuantity());
+                assertEquals(0, BigDecimal.valueOf(30).compareTo(lines.get(0).getUnitPrice()));
+                assertEquals("Pizza Diavola", lines.get(1).getMenuItemName());
+                assertEquals(1, lines.get(1).getQuantity());
+            });
+
+            MenuItem margherita = context.getBean(MenuItemRepo.class).findById(1L).orElseThrow();
+            assertEquals("tomato, mozzarella", margherita.getIngredients());
+
+            Long cityId = context.getBean(CityRepo.class)
+                    .save(City.builder().name("Brasov").zipcode("500000").build())
+                    .getCityId();
+            long[] jdbcCityIds = context.getBean(SequenceIdAllocator.class).nextIds(City.ID_SEQUENCE, 2);
+            assertTrue(cityId > 2, "The first JPA id " + cityId + " reuses an existing city id");
+            assertTrue(jdbcCityIds[0] > 2 && jdbcCityIds[0] != cityId && jdbcCityIds[1] != cityId);
+        } finally {
+            baseline.execute("DROP ALL OBJECTS");
+        }
+    }
+}
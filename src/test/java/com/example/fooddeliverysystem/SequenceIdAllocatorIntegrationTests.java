@@ -0,0 +1,94 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.SequenceIdAllocator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SequenceIdAllocatorIntegrationTests {
+
+    private static final int ROUNDS = 4;
+    private static final int ROWS_PER_ROUND = 30;
+
+    @Test
+    @DisplayName("""
+            When JDBC and JPA inserts interleave on new sequences and the JDBC writer calls the sequence first,
+            no id is handed out twice.
+            """)
+    public void jdbcFirstOnNewSequenceTest() {
+        insertInterleaved("jdbc_first", true);
+    }
+
+    @Test
+    @DisplayName("""
+            When JDBC and JPA inserts interleave on new sequences and Hibernate calls the sequence first, no id
+            is handed out twice.
+            """)
+    public void jpaFirstOnNewSequenceTest() {
+        insertInterleaved("jpa_first", false);
+    }
+
+    // Hibernate creates the schema, so the sequences start at their initial value as for a new database
+    private static void insertInterleaved(String database, boolean jdbcFirst) {
+        String url = "jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;" +
+                "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FoodDeliverySystemApplication.class)
+                .run("--server.port=0", "--spring.datasource.url=" + url, "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create", "--logging.level.root=WARN")) {
+
+            CityRepo cityRepo = context.getBean(CityRepo.class);
+            SequenceIdAllocator sequenceIdAllocator = context.getBean(SequenceIdAllocator.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            Set<Long> ids = new HashSet<>();
+            for (int round = 0; round < ROUNDS; round++) {
+                if (jdbcFirst) {
+                    insertWithJdbc(sequenceIdAllocator, jdbcTemplate, round, ids);
+                    insertWithJpa(cityRepo, round, ids);
+                } else {
+                    insertWithJpa(cityRepo, round, ids);
+                    insertWithJdbc(sequenceIdAllocator, jdbcTemplate, round, ids);
+                }
+            }
+
+            // whichever side called the new sequence first handed out its initial block, from id 1
+            assertEquals(1L, Collections.min(ids));
+            // the primary key already refuses a repeated id, the set also catches one a side reused itself
+            assertEquals(2 * ROUNDS * ROWS_PER_ROUND, ids.size());
+            assertEquals(2 * ROUNDS * ROWS_PER_ROUND, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM city",
+                    Integer.class));
+        } finally {
+            new JdbcTemplate(new DriverManagerDataSource(url, "sa", "")).execute("DROP ALL OBJECTS");
+        }
+    }
+
+    private static void insertWithJpa(CityRepo cityRepo, int round, Set<Long> ids) {
+        for (int i = 0; i < ROWS_PER_ROUND; i++) {
+            ids.add(cityRepo.save(City.builder().name("Jpa" + round + "-" + i).zipcode("100000").build()).getCityId());
+        }
+    }
+
+    private static void insertWithJdbc(SequenceIdAllocator sequenceIdAllocator, JdbcTemplate jdbcTemplate,
+                                       int round, Set<Long> ids) {
+        long[] cityIds = sequenceIdAllocator.nextIds(City.ID_SEQUENCE, ROWS_PER_ROUND);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < cityIds.length; i++) {
+            rows.add(new Object[]{cityIds[i], "Jdbc" + round + "-" + i, "200000"});
+            ids.add(cityIds[i]);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO city (city_id, name, zipcode) VALUES (?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.fooddeliverysystem;
+
+import com.example.fooddeliverysystem.service.SyntheticDataGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class SyntheticDataGeneratorIntegrationTests {
+
+    @Autowired
+    private SyntheticDataGenerator syntheticDataGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanUp() {
+        for (String table : new String[]{"purchase_line", "purchase", "customer_roles", "customer", "menu_item",
+                "food_category", "restaurant", "city", "role"}) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    @Test
+    @DisplayName("""
+            When we generate synthetic data, the requested volumes are written, every purchase costs the sum of
+            its lines and only has menu items of its own restaurant, ordered by a customer of the same city.
+            """)
+    public void generateSyntheticDataTest() {
+
+        SyntheticDataGenerator.Volumes volumes = new SyntheticDataGenerator.Volumes(4, 20, 2, 3, 50, 300, 7, 64,
+                42, "parola1234");
+
+        SyntheticDataGenerator.Report report = syntheticDataGenerator.generate(volumes);
+
+        assertEquals(4, report.cities());
+        assertEquals(20, report.restaurants());
+        assertEquals(40, report.foodCategories());
+        assertEquals(120, report.menuItems());
+        assertEquals(50, report.customers());
+        assertEquals(300, report.purchases());
+        assertEquals(4, count("SELECT COUNT(*) FROM city"));
+        assertEquals(20, count("SELECT COUNT(*) FROM restaurant"));
+        assertEquals(120, count("SELECT COUNT(*) FROM menu_item"));
+        assertEquals(40, count("SELECT COUNT(DISTINCT food_category_name) FROM food_category"));
+        assertEquals(50, count("SELECT COUNT(*) FROM customer_roles"));
+        assertEquals(300, count("SELECT COUNT(*) FROM purchase"));
+        assertEquals(report.purchaseLines(), count("SELECT COUNT(*) FROM purchase_line"));
+
+        assertEquals(0, count("""
+                SELECT COUNT(*) FROM purchase p
+                WHERE p.price <> (SELECT SUM(l.unit_price * l.quantity) FROM purchase_line l
+                                  WHERE l.purchase_id = p.purchase_id)
+                """));
+        assertEquals(0, count("""
+                SELECT COUNT(*) FROM purchase_line l
+                JOIN purchase p ON p.purchase_id = l.purchase_id
+                JOIN menu_item m ON m.menu_item_id = l.menu_item_id
+                JOIN food_category f ON f.food_category_id = m.category_id
+                WHERE f.restaurant_id <> p.restaurant_id
+                """));
+        assertEquals(0, count("""
+                SELECT COUNT(*) FROM purchase p
+                JOIN restaurant r ON r.restaurant_id = p.restaurant_id
+                JOIN customer c ON c.customer_id = p.customer_id
+                WHERE r.city_id <> c.city_id
+                """));
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
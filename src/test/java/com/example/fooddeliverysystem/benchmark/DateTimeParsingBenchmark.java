@@ -0,0 +1,41 @@
+package com.example.fooddeliverysystem.benchmark;
+
+import com.example.fooddeliverysystem.config.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the "yyyy-MM-dd HH:mm" times of the purchase API: parsing the placed time in addPurchase and
+ * the delivery times, with the shared formatter bean and with a formatter built on each call, and
+ * formatting a time back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateTimeParsingBenchmark {
+
+    private final DateTimeFormatter dateTimeFormatter = new SecurityConfig().dateTimeFormatter();
+    private final String purchasePlacedTime = "2022-06-08 12:30";
+    private final LocalDateTime estimatedDeliveryTime = LocalDateTime.of(2022, 6, 8, 13, 20);
+
+    @Benchmark
+    public LocalDateTime parseWithSharedFormatter() {
+        return LocalDateTime.parse(purchasePlacedTime, dateTimeFormatter);
+    }
+
+    @Benchmark
+    public LocalDateTime parseWithNewFormatter() {
+        return LocalDateTime.parse(purchasePlacedTime, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+    }
+
+    @Benchmark
+    public String format() {
+        return dateTimeFormatter.format(estimatedDeliveryTime);
+    }
+}
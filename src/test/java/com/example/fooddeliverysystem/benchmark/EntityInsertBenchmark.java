@@ -0,0 +1,133 @@
+package com.example.fooddeliverysystem.benchmark;
+
+import com.example.fooddeliverysystem.FoodDeliverySystemApplication;
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.Customer;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.model.PurchaseLine;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.CustomerRepo;
+import com.example.fooddeliverysystem.repo.FoodCategoryRepo;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import com.example.fooddeliverysystem.repo.PurchaseRepo;
+import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the JPA insert paths against H2 in PostgreSQL mode: one transaction saving 500
+ * menu items, and one saving 100 purchases with 3 purchase lines each. Whether Hibernate can send
+ * these as JDBC batches depends on the id generation of the entities and on hibernate.jdbc.batch_size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityInsertBenchmark {
+
+    private static final int MENU_ITEMS = 500;
+    private static final int PURCHASES = 100;
+    private static final int LINES_PER_PURCHASE = 3;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private MenuItemRepo menuItemRepo;
+    private PurchaseRepo purchaseRepo;
+
+    private FoodCategory foodCategory;
+    private Restaurant restaurant;
+    private Customer customer;
+    private List<MenuItem> menu;
+    // menu item names are unique, every inserted menu item gets the next number
+    private long menuItemNumber;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(FoodDeliverySystemApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:insertbenchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "logging.level.root=WARN")
+                .run();
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        menuItemRepo = context.getBean(MenuItemRepo.class);
+        purchaseRepo = context.getBean(PurchaseRepo.class);
+
+        City city = context.getBean(CityRepo.class).save(City.builder().name("Bucharest").zipcode("11821").build());
+        restaurant = context.getBean(RestaurantRepo.class).save(Restaurant.builder()
+                .name("Stadio").address("Bulevardul Unirii 1").city(city).build());
+        foodCategory = context.getBean(FoodCategoryRepo.class).save(FoodCategory.builder()
+                .foodCategoryName("Pizza").restaurantMenu(restaurant).build());
+        customer = context.getBean(CustomerRepo.class).save(Customer.builder()
+                .name("andrei").city(city).address("Strada 1").phone("0712345678").email("andrei@mail.ro")
+                .password("andreiparola1").build());
+        menu = menuItemRepo.saveAll(menuItems(LINES_PER_PURCHASE));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MenuItem> insertMenuItems() {
+        return transactionTemplate.execute(status -> menuItemRepo.saveAll(menuItems(MENU_ITEMS)));
+    }
+
+    @Benchmark
+    public List<Purchase> insertPurchasesWithLines() {
+        return transactionTemplate.execute(status -> {
+            List<Purchase> purchases = new ArrayList<>(PURCHASES);
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < PURCHASES; i++) {
+                Purchase purchase = Purchase.builder()
+                        .restaurant(restaurant)
+                        .customer(customer)
+                        .price(BigDecimal.valueOf(90))
+                        .purchasePlacedTime(now)
+                        .estimatedDeliveryTime(now.plusMinutes(45))
+                        .purchaseLines(new ArrayList<>())
+                        .build();
+                for (MenuItem menuItem : menu) {
+                    purchase.getPurchaseLines().add(PurchaseLine.builder()
+                            .purchase(purchase)
+                            .menuItem(menuItem)
+                            .menuItemName(menuItem.getName())
+                            .quantity(1)
+                            .unitPrice(menuItem.getPrice())
+                            .build());
+                }
+                purchases.add(purchase);
+            }
+            return purchaseRepo.saveAll(purchases);
+        });
+    }
+
+    private List<MenuItem> menuItems(int count) {
+        List<MenuItem> menuItems = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            menuItems.add(MenuItem.builder()
+                    .name("Pizza " + menuItemNumber++)
+                    .ingredients("tomato, mozzarella, basil")
+                    .price(BigDecimal.valueOf(30))
+                    .timeToCook(BigDecimal.valueOf(15))
+                    .foodCategory(foodCategory)
+                    .build());
+        }
+        return menuItems;
+    }
+}
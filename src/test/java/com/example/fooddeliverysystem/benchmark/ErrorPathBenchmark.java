@@ -0,0 +1,110 @@
+package com.example.fooddeliverysystem.benchmark;
+
+import com.example.fooddeliverysystem.FoodDeliverySystemApplication;
+import com.example.fooddeliverysystem.exceptions.restaurant.RestaurantNotFoundByIdException;
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import com.example.fooddeliverysystem.service.AccessTokenCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Cost of a miss against a hit: GET /api/v1/restaurant/id/{id} through the security filters, the
+ * controller and GlobalExceptionHandler, for an existing and a missing restaurant (no catalog cache, so
+ * both read the db), and throwing a not found exception 64 frames deep, stackless against one that
+ * fills in its stack trace as the not found exceptions did before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+
+    private static final int DEPTH = 64;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String authorization;
+    private Long restaurantId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(FoodDeliverySystemApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:errorbenchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "catalog.cache.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        authorization = "Bearer " + context.getBean(AccessTokenCodec.class).issue("andrei", List.of("USER"));
+
+        City city = context.getBean(CityRepo.class).save(City.builder().name("Bucharest").zipcode("11821").build());
+        restaurantId = context.getBean(RestaurantRepo.class).save(Restaurant.builder()
+                .name("Stadio").address("Bulevardul Unirii 1").city(city).build()).getRestaurantId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int restaurantHit() throws Exception {
+        return mockMvc.perform(get("/api/v1/restaurant/id/" + restaurantId)
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int restaurantMiss() throws Exception {
+        return mockMvc.perform(get("/api/v1/restaurant/id/" + (restaurantId + 1_000_000))
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public String throwStackless() {
+        try {
+            throwAt(DEPTH, () -> new RestaurantNotFoundByIdException(42L));
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String throwWithStackTrace() {
+        try {
+            throwAt(DEPTH, () -> new RuntimeException("The restaurant with the id: " + 42L + " has not been found."));
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static void throwAt(int depth, Supplier<RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        throwAt(depth - 1, exception);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.fooddeliverysystem.benchmark;
+
+import com.example.fooddeliverysystem.model.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing the response bodies of the purchase and restaurant reads with an ObjectMapper set up
+ * as Spring Boot sets up its own: a purchase with its restaurant, customer, roles and 5 lines, a page
+ * of 50 such purchases, and the list of 100 restaurants with their cities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new Jackson2ObjectMapperBuilder()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private Purchase purchase;
+    private List<Purchase> purchasePage;
+    private List<Restaurant> restaurants;
+
+    @Setup
+    public void setUp() {
+        City city = City.builder().cityId(1L).name("Bucuresti").zipcode("111111").build();
+        Customer customer = Customer.builder().customerId(1L).name("andrei").city(city).address("Strada 1")
+                .phone("0712345678").email("andrei@mail.ro").password("$2a$10$hash")
+                .roles(List.of(new Role(1L, "USER"), new Role(2L, "ADMIN"))).build();
+
+        restaurants = new ArrayList<>();
+        for (long r = 0; r < 100; r++) {
+            restaurants.add(Restaurant.builder().restaurantId(r).name("Restaurant " + r)
+                    .address("Bulevardul Unirii " + r).city(city).build());
+        }
+
+        purchasePage = new ArrayList<>();
+        for (long p = 0; p < 50; p++) {
+            purchasePage.add(purchase(p, restaurants.get((int) p), customer));
+        }
+        purchase = purchasePage.get(0);
+    }
+
+    private static Purchase purchase(long purchaseId, Restaurant restaurant, Customer customer) {
+        Purchase purchase = Purchase.builder().purchaseId(purchaseId).restaurant(restaurant).customer(customer)
+                .price(BigDecimal.valueOf(150)).purchasePlacedTime(LocalDateTime.of(2022, 6, 8, 12, 30))
+                .estimatedDeliveryTime(LocalDateTime.of(2022, 6, 8, 13, 20)).build();
+        List<PurchaseLine> purchaseLines = new ArrayList<>();
+        for (long i = 0; i < 5; i++) {
+            purchaseLines.add(PurchaseLine.builder().purchaseLineId(purchaseId * 10 + i).purchase(purchase)
+                    .menuItemId(i).menuItemName("Pizza " + i).quantity(1 + (int) i % 2)
+                    .unitPrice(BigDecimal.valueOf(30)).build());
+        }
+        purchase.setPurchaseLines(purchaseLines);
+        return purchase;
+    }
+
+    @Benchmark
+    public byte[] purchase() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(purchase);
+    }
+
+    @Benchmark
+    public byte[] purchasePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(purchasePage);
+    }
+
+    @Benchmark
+    public byte[] restaurants() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(restaurants);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.fooddeliverysystem.benchmark;
+
+import com.example.fooddeliverysystem.service.KitchenLoadEtaEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of computing a delivery estimate on the purchase hot path: the former fixed formula against
+ * the kitchen load engine, single threaded and with several request threads hitting 1000 restaurants.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KitchenLoadEtaEngineBenchmark {
+
+    private static final int RESTAURANTS = 1000;
+
+    private final LocalDateTime placedTime = LocalDateTime.of(2022, 6, 8, 12, 30);
+    private KitchenLoadEtaEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new KitchenLoadEtaEngine(30, 4, Clock.systemDefaultZone());
+        for (long restaurantId = 0; restaurantId < RESTAURANTS; restaurantId++) {
+            engine.placeOrder(restaurantId, 20);
+        }
+    }
+
+    @Benchmark
+    public LocalDateTime fixedFormula() {
+        return placedTime.plusMinutes(30 + 20);
+    }
+
+    @Benchmark
+    public LocalDateTime estimate() {
+        return engine.estimate(ThreadLocalRandom.current().nextLong(RESTAURANTS), 20);
+    }
+
+    @Benchmark
+    public LocalDateTime placeAndComplete() {
+        long restaurantId = ThreadLocalRandom.current().nextLong(RESTAURANTS);
+        LocalDateTime estimated = engine.placeOrder(restaurantId, 20);
+        engine.completeOrder(restaurantId, estimated, estimated);
+        return estimated;
+    }
+
+    @Benchmark
+    @Threads(8)
+    public LocalDateTime placeAndCompleteContended() {
+        return placeAndComplete();
+    }
+}
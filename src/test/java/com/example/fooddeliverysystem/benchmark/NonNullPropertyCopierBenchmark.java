@@ -0,0 +1,78 @@
+package com.example.fooddeliverysystem.benchmark;
+
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.service.NonNullPropertyCopier;
+import org.apache.commons.beanutils.PropertyUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of applying the body of a menu item PUT onto the entity from the db: the former
+ * PropertyUtils describe / setProperty copy against the LambdaMetafactory bound copier, for a full
+ * and for a single property update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NonNullPropertyCopierBenchmark {
+
+    private final NonNullPropertyCopier copier = new NonNullPropertyCopier();
+
+    private MenuItem fullUpdate;
+    private MenuItem priceUpdate;
+    private MenuItem target;
+
+    @Setup
+    public void setUp() {
+        FoodCategory foodCategory = FoodCategory.builder().foodCategoryId(1L).foodCategoryName("Pizza").build();
+        fullUpdate = MenuItem.builder().name("Margherita").ingredients("tomato, mozzarella")
+                .price(BigDecimal.valueOf(34)).timeToCook(BigDecimal.valueOf(15)).foodCategory(foodCategory).build();
+        priceUpdate = MenuItem.builder().price(BigDecimal.valueOf(36)).build();
+        target = MenuItem.builder().menuItemId(1L).name("Margherita").ingredients("tomato")
+                .price(BigDecimal.valueOf(30)).timeToCook(BigDecimal.valueOf(15)).foodCategory(foodCategory).build();
+    }
+
+    @Benchmark
+    public MenuItem propertyUtilsFullUpdate() throws Exception {
+        propertyUtilsCopy(target, fullUpdate);
+        return target;
+    }
+
+    @Benchmark
+    public MenuItem propertyUtilsPriceUpdate() throws Exception {
+        propertyUtilsCopy(target, priceUpdate);
+        return target;
+    }
+
+    @Benchmark
+    public MenuItem copierFullUpdate() {
+        copier.copyNonNullProperties(fullUpdate, target);
+        return target;
+    }
+
+    @Benchmark
+    public MenuItem copierPriceUpdate() {
+        copier.copyNonNullProperties(priceUpdate, target);
+        return target;
+    }
+
+    // the copyNonNullAttr of MenuItemServiceImpl before the copier
+    private static void propertyUtilsCopy(MenuItem toBeUpdatedMenuItem, MenuItem menuItem) throws Exception {
+        PropertyUtils.describe(menuItem).entrySet()
+                .stream()
+                .filter(entry -> entry.getValue() != null)
+                .forEach(entry -> {
+                    try {
+                        PropertyUtils.setProperty(toBeUpdatedMenuItem, entry.getKey(), entry.getValue());
+                    } catch (Exception e) {
+                        throw new RuntimeException("Menu Item sent via HTTP can not be mapped to MenuItem from the db.");
+                    }
+                });
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.fooddeliverysystem.benchmark;
+
+import com.example.fooddeliverysystem.config.SecurityConfig;
+import com.example.fooddeliverysystem.dto.PurchaseDto;
+import com.example.fooddeliverysystem.dto.PurchasePlacement;
+import com.example.fooddeliverysystem.model.Customer;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.repo.PurchaseRepo;
+import com.example.fooddeliverysystem.service.KitchenLoadEtaEngine;
+import com.example.fooddeliverysystem.service.PurchaseServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the in-memory part of POST /api/v1/purchase: parsing the placed time, merging the menu items
+ * into lines, pricing them and scheduling the order on the kitchen load engine, for 1 and for 10
+ * ordered menu items (with repeats) spread over 64 restaurants. The repo is a stub, so no db work is
+ * part of the score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchasePlacementBenchmark {
+
+    private static final int RESTAURANTS = 64;
+
+    @Param({"1", "10"})
+    private int menuItems;
+
+    private PurchaseServiceImpl purchaseService;
+    private PurchaseDto[] purchases;
+
+    @Setup
+    public void setUp() {
+        // saving is a no-op, only the work in front of the db is measured
+        PurchaseRepo purchaseRepo = (PurchaseRepo) Proxy.newProxyInstance(PurchaseRepo.class.getClassLoader(),
+                new Class<?>[]{PurchaseRepo.class}, (proxy, method, args) -> null);
+        purchaseService = new PurchaseServiceImpl(purchaseRepo, null, null, null,
+                new SecurityConfig().dateTimeFormatter(), null, null,
+                new KitchenLoadEtaEngine(30, 4, Clock.systemDefaultZone()), null, event -> {
+        });
+
+        Customer customer = Customer.builder().customerId(1L).name("andrei").build();
+        purchases = new PurchaseDto[RESTAURANTS];
+        for (int r = 0; r < RESTAURANTS; r++) {
+            Restaurant restaurant = Restaurant.builder().restaurantId((long) r).name("Restaurant " + r).build();
+            FoodCategory foodCategory = FoodCategory.builder().foodCategoryId((long) r).foodCategoryName("Pizza")
+                    .restaurantMenu(restaurant).build();
+            List<MenuItem> ordered = new ArrayList<>();
+            for (int i = 0; i < menuItems; i++) {
+                // every third dish is ordered twice, so the lines are merged by menu item
+                long menuItemId = r * 100L + i - i / 3;
+                ordered.add(MenuItem.builder().menuItemId(menuItemId).name("Pizza " + menuItemId)
+                        .price(BigDecimal.valueOf(25 + i)).timeToCook(BigDecimal.valueOf(10 + i))
+                        .foodCategory(foodCategory).build());
+            }
+            purchases[r] = PurchaseDto.builder().restaurant(restaurant).customer(customer)
+                    .purchasePlacedTime("2022-06-08 12:30").menuItems(ordered).build();
+        }
+    }
+
+    @Benchmark
+    public PurchasePlacement addPurchase() {
+        return purchaseService.addPurchase(purchases[ThreadLocalRandom.current().nextInt(RESTAURANTS)], null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.fooddeliverysystem.benchmark;
+
+import com.example.fooddeliverysystem.model.Customer;
+import com.example.fooddeliverysystem.model.Role;
+import com.example.fooddeliverysystem.model.SecurityCustomer;
+import com.example.fooddeliverysystem.model.SecurityRole;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of SecurityCustomer.getAuthorities, asked for on every authenticated request: the precomputed
+ * list of the snapshot against mapping the roles on each call as the principal did before, and the
+ * cost of taking the snapshot itself, paid once per userDetails cache miss.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecurityCustomerBenchmark {
+
+    private Customer customer;
+    private SecurityCustomer securityCustomer;
+
+    @Setup
+    public void setUp() {
+        customer = Customer.builder().customerId(1L).name("andrei").password("$2a$10$hash")
+                .roles(List.of(new Role(1L, "USER"), new Role(2L, "ADMIN"))).build();
+        securityCustomer = new SecurityCustomer(customer);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> snapshotAuthorities() {
+        return securityCustomer.getAuthorities();
+    }
+
+    // the getAuthorities of SecurityCustomer before the snapshot
+    @Benchmark
+    public Collection<? extends GrantedAuthority> mappedAuthorities() {
+        return customer.getRoles().stream()
+                .map(SecurityRole::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public SecurityCustomer takeSnapshot() {
+        return new SecurityCustomer(customer);
+    }
+}
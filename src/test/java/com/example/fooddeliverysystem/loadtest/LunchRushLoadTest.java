@@ -0,0 +1,351 @@
+package com.example.fooddeliverysystem.loadtest;
+
+import com.example.fooddeliverysystem.FoodDeliverySystemApplication;
+import com.example.fooddeliverysystem.loadtest.OpenLoopRunner.Operation;
+import com.example.fooddeliverysystem.loadtest.OpenLoopRunner.OperationResult;
+import com.example.fooddeliverysystem.loadtest.OpenLoopRunner.StageResult;
+import com.example.fooddeliverysystem.model.City;
+import com.example.fooddeliverysystem.model.Customer;
+import com.example.fooddeliverysystem.model.FoodCategory;
+import com.example.fooddeliverysystem.model.MenuItem;
+import com.example.fooddeliverysystem.model.Purchase;
+import com.example.fooddeliverysystem.model.PurchaseLine;
+import com.example.fooddeliverysystem.model.Restaurant;
+import com.example.fooddeliverysystem.model.Role;
+import com.example.fooddeliverysystem.repo.CityRepo;
+import com.example.fooddeliverysystem.repo.CustomerRepo;
+import com.example.fooddeliverysystem.repo.FoodCategoryRepo;
+import com.example.fooddeliverysystem.repo.MenuItemRepo;
+import com.example.fooddeliverysystem.repo.PurchaseRepo;
+import com.example.fooddeliverysystem.repo.RestaurantRepo;
+import com.example.fooddeliverysystem.repo.RoleRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The lunch rush: boots the application on a random port against H2 in PostgreSQL mode, seeds a
+ * catalog, customers and past purchases, and replays a traffic mix of menu reads, authenticated
+ * order placements and delivery confirmations at increasing arrival rates. Each stage reports its
+ * sustained throughput, latency percentiles and error rate, and the first stage that misses its rate,
+ * its p99 objective or its error budget marks the saturation point.
+ * <p>
+ * Run with mvn -B -Pload verify, tuned by load.rates (requests per second of each stage),
+ * load.stage-seconds, load.p99-slo-millis and load.mix (operation=weight,...). The stages are also
+ * written to target/lunch-rush.csv.
+ */
+public class LunchRushLoadTest {
+
+    private static final String PASSWORD = "lunchrushparola1";
+    private static final String[] DISHES = {"pizza", "burger", "salad", "soup", "pasta", "curry", "sushi", "tacos",
+            "shawarma", "risotto"};
+    private static final String[] STYLES = {"classic", "spicy", "vegan", "double", "smoked", "garden", "royal"};
+
+    private static final double MIN_ACHIEVED_SHARE = 0.95;
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    private final List<Long> restaurantIds = new ArrayList<>();
+    private final List<long[]> menuItemIds = new ArrayList<>();
+    private final List<Long> purchaseIds = new ArrayList<>();
+    private final List<String> customerTokens = new ArrayList<>();
+    private String adminToken;
+
+    public static void main(String[] args) throws Exception {
+        int[] rates = Arrays.stream(System.getProperty("load.rates", "25,50,100,200,400").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration stageDuration = Duration.ofSeconds(Long.getLong("load.stage-seconds", 30));
+        long p99SloMillis = Long.getLong("load.p99-slo-millis", 500);
+        Map<String, Integer> weights = Arrays.stream(
+                        System.getProperty("load.mix", "menu=55,search=10,restaurant=10,order=20,delivered=5").split(","))
+                .map(entry -> entry.trim().split("="))
+                .collect(Collectors.toMap(entry -> entry[0], entry -> Integer.parseInt(entry[1])));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FoodDeliverySystemApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:lunchrush;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "auth.token.access-ttl-seconds=86400",
+                        "logging.level.root=WARN")
+                .run();
+        try {
+            URI baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            new LunchRushLoadTest().run(context, baseUri, rates, stageDuration, p99SloMillis, weights);
+        } finally {
+            context.close();
+        }
+    }
+
+    private void run(ConfigurableApplicationContext context, URI baseUri, int[] rates, Duration stageDuration,
+                     long p99SloMillis, Map<String, Integer> weights) throws Exception {
+        ExecutorService responseExecutor = Executors.newFixedThreadPool(8);
+        try {
+            run(context, HttpClient.newBuilder()
+                    .executor(responseExecutor)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build(), baseUri, rates, stageDuration, p99SloMillis, weights);
+        } finally {
+            responseExecutor.shutdownNow();
+        }
+    }
+
+    private void run(ConfigurableApplicationContext context, HttpClient httpClient, URI baseUri, int[] rates,
+                     Duration stageDuration, long p99SloMillis, Map<String, Integer> weights) throws Exception {
+        seed(context, 10, 200, 5, 8, 100, 2000);
+        logIn(httpClient, baseUri, context.getBean(ObjectMapper.class));
+
+        List<Operation> mix = mix(baseUri, weights);
+        OpenLoopRunner runner = new OpenLoopRunner(httpClient, 2000);
+
+        // the first stage again, unrecorded, so that the JIT and the caches are warm
+        runner.run(rates[0], stageDuration, mix, 0);
+
+        List<StageResult> stages = new ArrayList<>();
+        Integer saturatedAt = null;
+        for (int rate : rates) {
+            StageResult stage = runner.run(rate, stageDuration, mix, rate);
+            stages.add(stage);
+            print(stage);
+            if (saturatedAt == null && saturated(stage, p99SloMillis)) {
+                saturatedAt = rate;
+            }
+        }
+
+        System.out.println();
+        if (saturatedAt == null) {
+            System.out.printf("No saturation up to %d req/s (p99 objective %d ms).%n", rates[rates.length - 1],
+                    p99SloMillis);
+        } else {
+            System.out.printf("Saturated at %d req/s: the rate, the p99 objective of %d ms or the %.0f%% error "
+                    + "budget was missed.%n", saturatedAt, p99SloMillis, MAX_ERROR_RATE * 100);
+        }
+        writeCsv(Path.of("target", "lunch-rush.csv"), stages);
+    }
+
+    private static boolean saturated(StageResult stage, long p99SloMillis) {
+        return stage.achievedRate() < stage.targetRate() * MIN_ACHIEVED_SHARE
+                || stage.total().latencies().getValueAtPercentile(99) > TimeUnit.MILLISECONDS.toNanos(p99SloMillis)
+                || stage.errorRate() > MAX_ERROR_RATE;
+    }
+
+    private void seed(ConfigurableApplicationContext context, int cities, int restaurants, int categoriesPerRestaurant,
+                      int itemsPerCategory, int customers, int purchases) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        Random random = new Random(42);
+
+        Role userRole = context.getBean(RoleRepo.class).save(new Role(null, "USER"));
+        Role adminRole = context.getBean(RoleRepo.class).save(new Role(null, "ADMIN"));
+        List<City> savedCities = context.getBean(CityRepo.class).saveAll(
+                IntStream.range(0, cities)
+                        .mapToObj(c -> City.builder().name("City " + c).zipcode(String.format("%06d", c)).build())
+                        .toList());
+
+        List<MenuItem> menuItems = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int r = 0; r < restaurants; r++) {
+                Restaurant restaurant = context.getBean(RestaurantRepo.class).save(Restaurant.builder()
+                        .name("Restaurant " + r).address("Strada Lunch " + r)
+                        .city(savedCities.get(r % cities)).build());
+                restaurantIds.add(restaurant.getRestaurantId());
+                List<MenuItem> menu = new ArrayList<>();
+                for (int c = 0; c < categoriesPerRestaurant; c++) {
+                    // food category names are looked up alone, the restaurant number keeps them unique
+                    FoodCategory foodCategory = context.getBean(FoodCategoryRepo.class).save(FoodCategory.builder()
+                            .foodCategoryName(DISHES[(r + c) % DISHES.length] + " " + r)
+                            .restaurantMenu(restaurant).build());
+                    for (int i = 0; i < itemsPerCategory; i++) {
+                        // menu item names are unique, the number runs over all the restaurants
+                        menu.add(MenuItem.builder()
+                                .name(STYLES[random.nextInt(STYLES.length)] + " " + DISHES[(r + c) % DISHES.length]
+                                        + " " + (menuItems.size() + menu.size()))
+                                .ingredients("house ingredients " + i)
+                                .price(BigDecimal.valueOf(15 + random.nextInt(60)))
+                                .timeToCook(BigDecimal.valueOf(10 + random.nextInt(30)))
+                                .foodCategory(foodCategory).build());
+                    }
+                }
+                menuItems.addAll(context.getBean(MenuItemRepo.class).saveAll(menu));
+                menuItemIds.add(menu.stream().mapToLong(MenuItem::getMenuItemId).toArray());
+            }
+        });
+
+        // one BCrypt hash for everybody, the seeding is not what is measured
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<Customer> savedCustomers = new ArrayList<>();
+        for (int c = 0; c < customers; c++) {
+            savedCustomers.add(Customer.builder().name("customer" + c).city(savedCities.get(c % cities))
+                    .address("Strada " + c).phone(String.format("07%08d", c)).email("customer" + c + "@mail.ro")
+                    .password(passwordHash).roles(List.of(userRole)).build());
+        }
+        savedCustomers.add(Customer.builder().name("dispatcher").city(savedCities.get(0)).address("Strada 0")
+                .phone("0799999999").email("dispatcher@mail.ro").password(passwordHash)
+                .roles(List.of(userRole, adminRole)).build());
+        savedCustomers = context.getBean(CustomerRepo.class).saveAll(savedCustomers);
+
+        // the past purchases, still waiting to be delivered, for the delivery confirmations
+        List<Purchase> pastPurchases = new ArrayList<>();
+        LocalDateTime placedFrom = LocalDateTime.now().minusHours(2);
+        for (int p = 0; p < purchases; p++) {
+            int r = random.nextInt(restaurants);
+            MenuItem menuItem = menuItems.get(r * categoriesPerRestaurant * itemsPerCategory
+                    + random.nextInt(categoriesPerRestaurant * itemsPerCategory));
+            Purchase purchase = Purchase.builder()
+                    .restaurant(menuItem.getFoodCategory().getRestaurantMenu())
+                    .customer(savedCustomers.get(random.nextInt(customers)))
+                    .price(menuItem.getPrice())
+                    .purchasePlacedTime(placedFrom.plusSeconds(random.nextInt(7200)))
+                    .build();
+            purchase.setEstimatedDeliveryTime(purchase.getPurchasePlacedTime().plusMinutes(45));
+            purchase.setPurchaseLines(List.of(PurchaseLine.builder().purchase(purchase).menuItem(menuItem)
+                    .menuItemId(menuItem.getMenuItemId()).menuItemName(menuItem.getName()).quantity(1)
+                    .unitPrice(menuItem.getPrice()).build()));
+            pastPurchases.add(purchase);
+        }
+        context.getBean(PurchaseRepo.class).saveAll(pastPurchases)
+                .forEach(purchase -> purchaseIds.add(purchase.getPurchaseId()));
+    }
+
+    // every customer logs in once, as the app would at start up, the access tokens are then reused
+    private void logIn(HttpClient httpClient, URI baseUri, ObjectMapper objectMapper) throws IOException,
+            InterruptedException {
+        for (int c = 0; c < 100; c++) {
+            customerTokens.add(logIn(httpClient, baseUri, objectMapper, "customer" + c));
+        }
+        adminToken = logIn(httpClient, baseUri, objectMapper, "dispatcher");
+    }
+
+    private static String logIn(HttpClient httpClient, URI baseUri, ObjectMapper objectMapper, String username)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve("/api/v1/auth/login"))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"username\": \"" + username + "\", \"password\": \"" + PASSWORD + "\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("The login of " + username + " failed with " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).get("accessToken").asText();
+    }
+
+    private List<Operation> mix(URI baseUri, Map<String, Integer> weights) {
+        List<Operation> operations = List.of(
+                new Operation("menu", weights.getOrDefault("menu", 0), random ->
+                        get(baseUri, "/api/v1/restaurant/" + randomRestaurant(random) + "/menu", random)),
+                new Operation("search", weights.getOrDefault("search", 0), random ->
+                        get(baseUri, "/api/v1/menuitem/search?q=" + DISHES[random.nextInt(DISHES.length)]
+                                + "&limit=20", random)),
+                new Operation("restaurant", weights.getOrDefault("restaurant", 0), random ->
+                        get(baseUri, "/api/v1/restaurant/id/" + randomRestaurant(random), random)),
+                new Operation("order", weights.getOrDefault("order", 0), random -> order(baseUri, random)),
+                new Operation("delivered", weights.getOrDefault("delivered", 0), random -> delivered(baseUri, random)));
+        return operations.stream().filter(operation -> operation.weight() > 0).toList();
+    }
+
+    private long randomRestaurant(Random random) {
+        return restaurantIds.get(random.nextInt(restaurantIds.size()));
+    }
+
+    private HttpRequest get(URI baseUri, String path, Random random) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + customerTokens.get(random.nextInt(customerTokens.size())))
+                .GET()
+                .build();
+    }
+
+    // one to three dishes of a single restaurant, sometimes two of the same
+    private HttpRequest order(URI baseUri, Random random) {
+        int r = random.nextInt(restaurantIds.size());
+        long[] menu = menuItemIds.get(r);
+        String items = IntStream.range(0, 1 + random.nextInt(3))
+                .mapToObj(i -> "{\"menuItemId\": " + menu[random.nextInt(menu.length)]
+                        + ", \"quantity\": " + (1 + random.nextInt(2)) + "}")
+                .collect(Collectors.joining(", "));
+        return HttpRequest.newBuilder(baseUri.resolve("/api/v1/purchase/order"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + customerTokens.get(random.nextInt(customerTokens.size())))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"restaurantId\": " + restaurantIds.get(r) + ", \"items\": [" + items + "]}"))
+                .build();
+    }
+
+    // a courier app confirming a handful of deliveries at once
+    private HttpRequest delivered(URI baseUri, Random random) {
+        String confirmations = IntStream.range(0, 5)
+                .mapToObj(i -> "{\"purchaseId\": " + purchaseIds.get(random.nextInt(purchaseIds.size()))
+                        + ", \"deliveredAt\": \"" + LocalDateTime.now().withSecond(0).withNano(0)
+                        .toString().replace('T', ' ') + "\"}")
+                .collect(Collectors.joining(", "));
+        return HttpRequest.newBuilder(baseUri.resolve("/api/v1/purchase/delivered"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .PUT(HttpRequest.BodyPublishers.ofString("[" + confirmations + "]"))
+                .build();
+    }
+
+    private static void print(StageResult stage) {
+        System.out.printf(Locale.ROOT, "%n== %d req/s for %.1f s: %.1f req/s sustained, %.2f%% errors%n",
+                stage.targetRate(), stage.elapsedNanos() / 1e9, stage.achievedRate(), stage.errorRate() * 100);
+        System.out.printf(Locale.ROOT, "%-12s %8s %7s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "sent", "failed", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stage.operations().forEach((name, operation) -> printRow(name, operation));
+        printRow("all", stage.total());
+    }
+
+    private static void printRow(String name, OperationResult operation) {
+        System.out.printf(Locale.ROOT, "%-12s %8d %7d %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, operation.sent(), operation.failed(), operation.dropped(),
+                millis(operation, 50), millis(operation, 90), millis(operation, 99), millis(operation, 99.9),
+                operation.latencies().getMaxValue() / 1e6);
+    }
+
+    private static double millis(OperationResult operation, double percentile) {
+        return operation.latencies().getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private static void writeCsv(Path file, List<StageResult> stages) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("target_rate,achieved_rate,error_rate,operation,sent,failed,dropped,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        for (StageResult stage : stages) {
+            Map<String, OperationResult> operations = new LinkedHashMap<>(stage.operations());
+            operations.put("all", stage.total());
+            operations.forEach((name, operation) -> lines.add(String.format(Locale.ROOT,
+                    "%d,%.1f,%.4f,%s,%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f",
+                    stage.targetRate(), stage.achievedRate(), stage.errorRate(), name, operation.sent(),
+                    operation.failed(), operation.dropped(), millis(operation, 50), millis(operation, 90),
+                    millis(operation, 99), millis(operation, 99.9), operation.latencies().getMaxValue() / 1e6)));
+        }
+        Files.createDirectories(file.getParent());
+        Files.write(file, lines);
+    }
+}
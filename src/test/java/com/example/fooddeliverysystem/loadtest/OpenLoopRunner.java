@@ -0,0 +1,151 @@
+package com.example.fooddeliverysystem.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Sends requests at a fixed arrival rate whatever the response times are, the way real customers keep
+ * arriving at lunch, and records the latency of each from the moment it was due to be sent. A server
+ * that falls behind therefore shows up in the percentiles instead of quietly slowing the generator
+ * down (coordinated omission). Requests that would exceed the in-flight limit are counted as dropped.
+ */
+class OpenLoopRunner {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+
+    OpenLoopRunner(HttpClient httpClient, int maxInFlight) {
+        this.httpClient = httpClient;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * An operation of the traffic mix: its share of the requests and how to build one of them.
+     */
+    record Operation(String name, int weight, Function<Random, HttpRequest> request) {
+    }
+
+    StageResult run(int ratePerSecond, Duration duration, List<Operation> mix, long seed) throws InterruptedException {
+        int totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+        Map<Operation, OperationStats> stats = new LinkedHashMap<>();
+        mix.forEach(operation -> stats.put(operation, new OperationStats()));
+
+        Random random = new Random(seed);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long requests = ratePerSecond * duration.toSeconds();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < requests; i++) {
+            long dueAt = start + i * intervalNanos;
+            long wait;
+            while ((wait = dueAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = pick(mix, totalWeight, random);
+            OperationStats operationStats = stats.get(operation);
+            if (!inFlight.tryAcquire()) {
+                operationStats.dropped.increment();
+                continue;
+            }
+            httpClient.sendAsync(operation.request().apply(random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        operationStats.latencies.recordValue(System.nanoTime() - dueAt);
+                        if (failure != null || response.statusCode() >= 400) {
+                            operationStats.failed.increment();
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        boolean drained = inFlight.tryAcquire(maxInFlight, DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+        if (drained) {
+            inFlight.release(maxInFlight);
+        }
+
+        Map<String, OperationResult> results = new LinkedHashMap<>();
+        stats.forEach((operation, operationStats) -> results.put(operation.name(), operationStats.result()));
+        return new StageResult(ratePerSecond, elapsedNanos, results);
+    }
+
+    private static Operation pick(List<Operation> mix, int totalWeight, Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : mix) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private static class OperationStats {
+
+        private final Recorder latencies = new Recorder(3);
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        OperationResult result() {
+            return new OperationResult(latencies.getIntervalHistogram(), failed.sum(), dropped.sum());
+        }
+    }
+
+    /**
+     * The latencies (in nanoseconds) of the answered requests of one operation, and how many of them
+     * failed or were never sent.
+     */
+    record OperationResult(Histogram latencies, long failed, long dropped) {
+
+        long sent() {
+            return latencies.getTotalCount();
+        }
+
+        long errors() {
+            return failed + dropped;
+        }
+    }
+
+    record StageResult(int targetRate, long elapsedNanos, Map<String, OperationResult> operations) {
+
+        OperationResult total() {
+            Histogram latencies = new Histogram(3);
+            long failed = 0;
+            long dropped = 0;
+            for (OperationResult operation : operations.values()) {
+                latencies.add(operation.latencies());
+                failed += operation.failed();
+                dropped += operation.dropped();
+            }
+            return new OperationResult(latencies, failed, dropped);
+        }
+
+        double achievedRate() {
+            OperationResult total = total();
+            return (total.sent() - total.failed()) / (elapsedNanos / 1e9);
+        }
+
+        double errorRate() {
+            OperationResult total = total();
+            long attempted = total.sent() + total.dropped();
+            return attempted == 0 ? 0 : (double) total.errors() / attempted;
+        }
+    }
+}